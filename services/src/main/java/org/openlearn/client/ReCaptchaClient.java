@@ -0,0 +1,151 @@
+package org.openlearn.client;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openlearn.config.ApplicationProperties;
+import org.openlearn.domain.recaptcha.ReCaptchaResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client of the reCAPTCHA verification service.
+ *
+ * Verifications go through a small pool of connections with strict timeouts, and only a bounded number run
+ * at once; a verification that can't start in time fails rather than queueing, so a slow verifier can't tie
+ * up every login thread. Successfully verified responses are remembered for a short while, so a client
+ * retrying a login with the same response isn't verified twice; a remembered response is only accepted once
+ * more, so it can't be replayed for further logins.
+ */
+@Component
+public class ReCaptchaClient {
+
+	public static final String CACHE = ReCaptchaClient.class.getName();
+
+	private static final Logger log = LoggerFactory.getLogger(ReCaptchaClient.class);
+
+	private static final String METRIC_PREFIX = "recaptcha";
+
+	private final ApplicationProperties.Recaptcha properties;
+
+	private final CloseableHttpClient httpClient;
+
+	private final RestTemplate restTemplate;
+
+	private final Semaphore bulkhead;
+
+	private final Cache<String, Boolean> verified;
+
+	private final Timer verifications;
+
+	private final Counter failed;
+
+	private final Counter rejected;
+
+	private final Counter cached;
+
+	public ReCaptchaClient(final RestTemplateBuilder restTemplateBuilder, final ApplicationProperties applicationProperties,
+						   final CacheManager cacheManager, final MetricRegistry metricRegistry) {
+		this.properties = applicationProperties.getRecaptcha();
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(properties.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(properties.getMaxConnections());
+		this.httpClient = HttpClients.custom()
+			.setConnectionManager(connectionManager)
+			.setDefaultRequestConfig(RequestConfig.custom()
+				.setConnectionRequestTimeout(properties.getConnectionTimeout())
+				.setConnectTimeout(properties.getConnectionTimeout())
+				.setSocketTimeout(properties.getReadTimeout())
+				.build())
+			.disableAutomaticRetries()
+			.build();
+		this.restTemplate = restTemplateBuilder.requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient)).build();
+
+		this.bulkhead = new Semaphore(properties.getMaxConcurrentVerifications());
+		this.verified = cacheManager.getCache(CACHE);
+
+		this.verifications = metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, "verifications"));
+		this.failed = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "failed"));
+		this.rejected = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "rejected"));
+		this.cached = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "cached"));
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "in-flight"),
+			(Gauge<Integer>) () -> properties.getMaxConcurrentVerifications() - bulkhead.availablePermits());
+	}
+
+	/**
+	 * Verify the response a user gave to a reCAPTCHA challenge.
+	 *
+	 * @param response the response to verify
+	 * @return the verdict of the verification service
+	 * @throws ReCaptchaUnavailableException if too many verifications are running, or the verification service
+	 * could not be reached in time
+	 */
+	public ReCaptchaResponse verify(final String response) {
+		if (Boolean.TRUE.equals(verified.getAndRemove(response))) {
+			cached.inc();
+			return success();
+		}
+
+		try {
+			if (!bulkhead.tryAcquire(properties.getAcquireTimeout(), TimeUnit.MILLISECONDS)) {
+				rejected.inc();
+				throw new ReCaptchaUnavailableException("Too many reCAPTCHA verifications in progress");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ReCaptchaUnavailableException("Interrupted while waiting to verify reCAPTCHA");
+		}
+
+		Timer.Context context = verifications.time();
+		try {
+			MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+			parameters.add("secret", properties.getSiteSecret());
+			parameters.add("response", response);
+			ReCaptchaResponse verification = restTemplate.postForObject(properties.getVerificationUrl(), parameters, ReCaptchaResponse.class);
+			if (verification == null) throw new ReCaptchaUnavailableException("Empty reCAPTCHA verification response");
+			if (Boolean.TRUE.equals(verification.isSuccess())) verified.put(response, Boolean.TRUE);
+			return verification;
+		} catch (RestClientException e) {
+			failed.inc();
+			throw new ReCaptchaUnavailableException("Could not verify reCAPTCHA: " + e.getMessage(), e);
+		} finally {
+			context.stop();
+			bulkhead.release();
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		try {
+			httpClient.close();
+		} catch (IOException e) {
+			log.warn("Could not close reCAPTCHA HTTP client: {}", e.getMessage());
+		}
+	}
+
+	private static ReCaptchaResponse success() {
+		ReCaptchaResponse response = new ReCaptchaResponse();
+		response.setSuccess(true);
+		return response;
+	}
+}
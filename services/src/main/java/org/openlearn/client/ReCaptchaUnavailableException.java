@@ -0,0 +1,16 @@
+package org.openlearn.client;
+
+/**
+ * Thrown when a reCAPTCHA response could not be verified because the verification service is busy or
+ * unreachable, as opposed to the response failing verification.
+ */
+public class ReCaptchaUnavailableException extends RuntimeException {
+
+	public ReCaptchaUnavailableException(final String message) {
+		super(message);
+	}
+
+	public ReCaptchaUnavailableException(final String message, final Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -1,54 +1,258 @@
 package org.openlearn.client;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.event.ProgressEventType;
+import com.amazonaws.event.ProgressListener;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.retry.PredefinedRetryPolicies;
 import com.amazonaws.services.s3.*;
 import com.amazonaws.services.s3.model.*;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import com.amazonaws.services.s3.transfer.Upload;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.TimingInfo;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.openlearn.config.ApplicationProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+import javax.annotation.PreDestroy;
+import java.net.URL;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared S3 client. A single instance is created per application so the credential chain, the HTTP
+ * connection pool and TLS sessions are reused across requests.
+ */
 public class S3Client {
 	private static final Logger log = LoggerFactory.getLogger(S3Client.class);
 
-	private AmazonS3 client;
+	private static final String METRIC_PREFIX = "s3";
+
+	private final AmazonS3 client;
+
+	private final TransferManager transferManager;
+
+	private final boolean useCustomKmsKey;
+
+	private final String kmsKey;
+
+	private final MetricRegistry metricRegistry;
 
-	private boolean useCustomKmsKey;
+	private final AtomicLong leasedConnections = new AtomicLong();
 
-	private String kmsKey;
+	private final AtomicLong pendingConnections = new AtomicLong();
 
-	public S3Client(ApplicationProperties properties) {
-		this.client = AmazonS3ClientBuilder.defaultClient();
+	private final AtomicLong availableConnections = new AtomicLong();
+
+	public S3Client(final ApplicationProperties properties, final MetricRegistry metricRegistry) {
+		ApplicationProperties.Uploads uploads = properties.getUploads();
+		log.debug("Creating S3 client with {} max connections", uploads.getMaxConnections());
+
+		ClientConfiguration configuration = new ClientConfiguration()
+			.withMaxConnections(uploads.getMaxConnections())
+			.withConnectionTimeout(uploads.getConnectionTimeout())
+			.withSocketTimeout(uploads.getSocketTimeout())
+			.withRetryPolicy(PredefinedRetryPolicies.getDefaultRetryPolicyWithCustomMaxRetries(uploads.getMaxErrorRetry()));
+		this.client = AmazonS3ClientBuilder.standard()
+			.withClientConfiguration(configuration)
+			.withMetricsCollector(new PoolStatsCollector())
+			.build();
+		// Files above the threshold are split into parts that are uploaded concurrently on a fixed pool; each
+		// part request is retried under the client's retry policy and a failed upload is aborted so its parts
+		// don't linger in the bucket.
+		this.transferManager = TransferManagerBuilder.standard()
+			.withS3Client(this.client)
+			.withMultipartUploadThreshold(uploads.getMultipartThreshold())
+			.withMinimumUploadPartSize(uploads.getMultipartPartSize())
+			.withExecutorFactory(() -> Executors.newFixedThreadPool(uploads.getUploadThreads(),
+				new CustomizableThreadFactory("openlearn-S3Upload-")))
+			.withShutDownThreadPools(true)
+			.build();
 
 		if (properties.getUploadKmsAlias() != null) {
 			this.kmsKey = properties.getUploadKmsAlias();
 			this.useCustomKmsKey = true;
 		} else {
+			this.kmsKey = null;
 			this.useCustomKmsKey = false;
 		}
+
+		this.metricRegistry = metricRegistry;
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "pool", "leased"), (Gauge<Long>) leasedConnections::get);
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "pool", "pending"), (Gauge<Long>) pendingConnections::get);
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "pool", "available"), (Gauge<Long>) availableConnections::get);
 	}
 
 	public void putObject(PutObjectRequest request)  throws AmazonServiceException {
-		if (useCustomKmsKey) {
-			request.withSSEAwsKeyManagementParams(new SSEAwsKeyManagementParams(this.kmsKey));
-		} else {
-			ObjectMetadata metadata = request.getMetadata();
-			metadata.setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+		applyEncryption(request);
+
+		Timer.Context context = timer("putObject").time();
+		try {
+			this.client.putObject(request);
+		} finally {
+			context.stop();
+		}
+	}
+
+	/**
+	 * Upload an object, using a parallel multipart upload when it is larger than the configured threshold.
+	 * Blocks until the whole object is stored. Parallel part uploads need the request to be backed by a
+	 * file; a stream backed request is uploaded one part at a time.
+	 *
+	 * @param request the request to upload
+	 * @throws InterruptedException if the thread is interrupted while waiting for the upload to complete
+	 */
+	public void upload(PutObjectRequest request) throws AmazonClientException, InterruptedException {
+		applyEncryption(request);
+
+		Timer.Context context = timer("upload").time();
+		try {
+			Upload upload = transferManager.upload(request);
+			upload.addProgressListener((ProgressListener) event -> {
+				if (event.getEventType() == ProgressEventType.TRANSFER_PART_COMPLETED_EVENT) {
+					log.debug("Uploading {}: {}% transferred", request.getKey(),
+						Math.round(upload.getProgress().getPercentTransferred()));
+				} else if (event.getEventType() == ProgressEventType.TRANSFER_PART_FAILED_EVENT) {
+					log.warn("Uploading {}: part failed", request.getKey());
+				}
+			});
+			upload.waitForCompletion();
+		} finally {
+			context.stop();
 		}
+	}
 
-		this.client.putObject(request);
+	/**
+	 * Abort multipart uploads that were started before the given date and never completed, such as ones
+	 * left behind by a node that went down mid upload.
+	 *
+	 * @param bucket the bucket to clean up
+	 * @param before the date uploads must have been started before to be aborted
+	 */
+	public void abortMultipartUploads(String bucket, Date before) throws AmazonClientException {
+		transferManager.abortMultipartUploads(bucket, before);
 	}
 
 	public S3Object getObject(GetObjectRequest request)  throws AmazonServiceException {
-		return this.client.getObject(request);
+		Timer.Context context = timer("getObject").time();
+		try {
+			return this.client.getObject(request);
+		} finally {
+			context.stop();
+		}
+	}
+
+	public ObjectMetadata getObjectMetadata(GetObjectMetadataRequest request) throws AmazonServiceException {
+		Timer.Context context = timer("getObjectMetadata").time();
+		try {
+			return this.client.getObjectMetadata(request);
+		} finally {
+			context.stop();
+		}
+	}
+
+	/**
+	 * Sign a request a client can send to S3 directly. Uploads are signed with the same server side
+	 * encryption as the ones made through this client, so the client has to send the headers returned by
+	 * {@link #getEncryptionHeaders()} along with them. Signing happens locally, no request is made to S3.
+	 *
+	 * @param request the request to sign
+	 * @return the presigned URL
+	 */
+	public URL generatePresignedUrl(GeneratePresignedUrlRequest request) throws AmazonClientException {
+		if (request.getMethod() == HttpMethod.PUT) {
+			if (useCustomKmsKey) {
+				request.setSSEAlgorithm(SSEAlgorithm.KMS);
+				request.setKmsCmkId(this.kmsKey);
+			} else {
+				request.setSSEAlgorithm(SSEAlgorithm.AES256);
+			}
+		}
+		return this.client.generatePresignedUrl(request);
+	}
+
+	/**
+	 * @return the server side encryption headers a client has to send with a presigned upload
+	 */
+	public Map<String, String> getEncryptionHeaders() {
+		Map<String, String> headers = new LinkedHashMap<>();
+		if (useCustomKmsKey) {
+			headers.put(Headers.SERVER_SIDE_ENCRYPTION, SSEAlgorithm.KMS.getAlgorithm());
+			headers.put(Headers.SERVER_SIDE_ENCRYPTION_AWS_KMS_KEYID, this.kmsKey);
+		} else {
+			headers.put(Headers.SERVER_SIDE_ENCRYPTION, SSEAlgorithm.AES256.getAlgorithm());
+		}
+		return headers;
 	}
 
 	public void deleteObject(DeleteObjectRequest request) throws AmazonServiceException {
-		this.client.deleteObject(request);
+		Timer.Context context = timer("deleteObject").time();
+		try {
+			this.client.deleteObject(request);
+		} finally {
+			context.stop();
+		}
 	}
 
 	public void deleteObjects(DeleteObjectsRequest request) throws AmazonServiceException {
-		this.client.deleteObjects(request);
+		Timer.Context context = timer("deleteObjects").time();
+		try {
+			this.client.deleteObjects(request);
+		} finally {
+			context.stop();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		log.debug("Shutting down S3 client");
+		this.transferManager.shutdownNow(false);
+		this.client.shutdown();
+	}
+
+	private void applyEncryption(PutObjectRequest request) {
+		if (useCustomKmsKey) {
+			request.withSSEAwsKeyManagementParams(new SSEAwsKeyManagementParams(this.kmsKey));
+		} else {
+			if (request.getMetadata() == null) request.setMetadata(new ObjectMetadata());
+			request.getMetadata().setSSEAlgorithm(ObjectMetadata.AES_256_SERVER_SIDE_ENCRYPTION);
+		}
+	}
+
+	private Timer timer(String operation) {
+		return metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, operation));
+	}
+
+	/**
+	 * Keeps the last connection pool statistics the SDK reported. The SDK only samples the pool while a
+	 * request metric collector is installed, so this collector is what makes the pool gauges work.
+	 */
+	private class PoolStatsCollector extends RequestMetricCollector {
+
+		@Override
+		public void collectMetrics(Request<?> request, Response<?> response) {
+			TimingInfo timingInfo = request.getAWSRequestMetrics().getTimingInfo();
+			update(leasedConnections, timingInfo.getCounter(AWSRequestMetrics.Field.HttpClientPoolLeasedCount.name()));
+			update(pendingConnections, timingInfo.getCounter(AWSRequestMetrics.Field.HttpClientPoolPendingCount.name()));
+			update(availableConnections, timingInfo.getCounter(AWSRequestMetrics.Field.HttpClientPoolAvailableCount.name()));
+		}
+
+		private void update(AtomicLong gauge, Number value) {
+			if (value != null) gauge.set(value.longValue());
+		}
 	}
 }
@@ -2,6 +2,9 @@ package org.openlearn.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <p>
  *     Properties are configured in the application.yml file.
@@ -14,6 +17,12 @@ public class ApplicationProperties {
 
     private final Uploads uploads = new Uploads();
 
+    private final Security security = new Security();
+
+    private final Pagination pagination = new Pagination();
+
+    private final Datasource datasource = new Datasource();
+
     public String getUploadBucket() {
         return this.uploads.s3bucket;
     }
@@ -34,6 +43,18 @@ public class ApplicationProperties {
       return this.uploads.getKmsAlias();
     }
 
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
     public static class Recaptcha {
 
         private String headerName;
@@ -42,6 +63,20 @@ public class ApplicationProperties {
 
         private String verificationUrl;
 
+        private int maxConnections = 20;
+
+        private int connectionTimeout = 2000;
+
+        private int readTimeout = 3000;
+
+        private int maxConcurrentVerifications = 20;
+
+        private long acquireTimeout = 500;
+
+        private long cacheTimeToLive = 120;
+
+        private long cacheMaxEntries = 10000;
+
         public String getHeaderName() {
             return headerName;
         }
@@ -65,13 +100,214 @@ public class ApplicationProperties {
         public void setVerificationUrl(String verificationUrl) {
             this.verificationUrl = verificationUrl;
         }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(int connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getMaxConcurrentVerifications() {
+            return maxConcurrentVerifications;
+        }
+
+        public void setMaxConcurrentVerifications(int maxConcurrentVerifications) {
+            this.maxConcurrentVerifications = maxConcurrentVerifications;
+        }
+
+        public long getAcquireTimeout() {
+            return acquireTimeout;
+        }
+
+        public void setAcquireTimeout(long acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        public long getCacheTimeToLive() {
+            return cacheTimeToLive;
+        }
+
+        public void setCacheTimeToLive(long cacheTimeToLive) {
+            this.cacheTimeToLive = cacheTimeToLive;
+        }
+
+        public long getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(long cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+    }
+
+    public static class Security {
+
+        private String tokenMode = "jdbc";
+
+        private String tokenSigningKey;
+
+        private long tokenCacheTimeToLive = 60;
+
+        private long tokenCacheMaxEntries = 10000;
+
+        private long userDetailsCacheTimeToLive = 60;
+
+        private long userDetailsCacheMaxEntries = 10000;
+
+        private long permissionCacheTimeToLive = 600;
+
+        private long permissionCacheMaxEntries = 10000;
+
+        public String getTokenMode() {
+            return tokenMode;
+        }
+
+        public void setTokenMode(String tokenMode) {
+            this.tokenMode = tokenMode;
+        }
+
+        public String getTokenSigningKey() {
+            return tokenSigningKey;
+        }
+
+        public void setTokenSigningKey(String tokenSigningKey) {
+            this.tokenSigningKey = tokenSigningKey;
+        }
+
+        public long getTokenCacheTimeToLive() {
+            return tokenCacheTimeToLive;
+        }
+
+        public void setTokenCacheTimeToLive(long tokenCacheTimeToLive) {
+            this.tokenCacheTimeToLive = tokenCacheTimeToLive;
+        }
+
+        public long getTokenCacheMaxEntries() {
+            return tokenCacheMaxEntries;
+        }
+
+        public void setTokenCacheMaxEntries(long tokenCacheMaxEntries) {
+            this.tokenCacheMaxEntries = tokenCacheMaxEntries;
+        }
+
+        public long getUserDetailsCacheTimeToLive() {
+            return userDetailsCacheTimeToLive;
+        }
+
+        public void setUserDetailsCacheTimeToLive(long userDetailsCacheTimeToLive) {
+            this.userDetailsCacheTimeToLive = userDetailsCacheTimeToLive;
+        }
+
+        public long getUserDetailsCacheMaxEntries() {
+            return userDetailsCacheMaxEntries;
+        }
+
+        public void setUserDetailsCacheMaxEntries(long userDetailsCacheMaxEntries) {
+            this.userDetailsCacheMaxEntries = userDetailsCacheMaxEntries;
+        }
+
+        public long getPermissionCacheTimeToLive() {
+            return permissionCacheTimeToLive;
+        }
+
+        public void setPermissionCacheTimeToLive(long permissionCacheTimeToLive) {
+            this.permissionCacheTimeToLive = permissionCacheTimeToLive;
+        }
+
+        public long getPermissionCacheMaxEntries() {
+            return permissionCacheMaxEntries;
+        }
+
+        public void setPermissionCacheMaxEntries(long permissionCacheMaxEntries) {
+            this.permissionCacheMaxEntries = permissionCacheMaxEntries;
+        }
     }
 
     public static class Uploads {
+      private String store = "s3";
+
+      private String directory = "uploads";
+
       private String s3bucket;
 
       private String kmsAlias;
 
+      private int downloadThreads = 50;
+
+      private long downloadTimeout = 1800000;
+
+      private int maxConnections = 50;
+
+      private int connectionTimeout = 10000;
+
+      private int socketTimeout = 50000;
+
+      private int maxErrorRetry = 3;
+
+      private long multipartThreshold = 16 * 1024 * 1024;
+
+      private long multipartPartSize = 8 * 1024 * 1024;
+
+      private int uploadThreads = 10;
+
+      private String cacheDirectory = System.getProperty("java.io.tmpdir") + "/openlearn-upload-cache";
+
+      private long cacheMaxSize = 1024L * 1024 * 1024;
+
+      private long cacheMaxEntrySize = 64 * 1024 * 1024;
+
+      private long cacheTimeToLive = 3600;
+
+      private boolean directTransfer = false;
+
+      private long presignedUrlExpiry = 300;
+
+      private long deletionInterval = 10000;
+
+      private int deletionBatchSize = 1000;
+
+      private long deletionInitialBackoff = 30;
+
+      private long deletionMaxBackoff = 3600;
+
+      private int archiveThreads = 10;
+
+      private int archivePrefetch = 4;
+
+      public String getStore() {
+        return store;
+      }
+
+      public void setStore(String store) {
+        this.store = store;
+      }
+
+      public String getDirectory() {
+        return directory;
+      }
+
+      public void setDirectory(String directory) {
+        this.directory = directory;
+      }
+
       public String getS3bucket() {
         return s3bucket;
       }
@@ -88,9 +324,296 @@ public class ApplicationProperties {
         this.kmsAlias = kmsAlias;
       }
 
+      public int getDownloadThreads() {
+        return downloadThreads;
+      }
+
+      public void setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
+      }
+
+      public long getDownloadTimeout() {
+        return downloadTimeout;
+      }
+
+      public void setDownloadTimeout(long downloadTimeout) {
+        this.downloadTimeout = downloadTimeout;
+      }
+
+      public int getMaxConnections() {
+        return maxConnections;
+      }
+
+      public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+      }
+
+      public int getConnectionTimeout() {
+        return connectionTimeout;
+      }
+
+      public void setConnectionTimeout(int connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+      }
+
+      public int getSocketTimeout() {
+        return socketTimeout;
+      }
+
+      public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+      }
+
+      public int getMaxErrorRetry() {
+        return maxErrorRetry;
+      }
+
+      public void setMaxErrorRetry(int maxErrorRetry) {
+        this.maxErrorRetry = maxErrorRetry;
+      }
+
+      public long getMultipartThreshold() {
+        return multipartThreshold;
+      }
+
+      public void setMultipartThreshold(long multipartThreshold) {
+        this.multipartThreshold = multipartThreshold;
+      }
+
+      public long getMultipartPartSize() {
+        return multipartPartSize;
+      }
+
+      public void setMultipartPartSize(long multipartPartSize) {
+        this.multipartPartSize = multipartPartSize;
+      }
+
+      public int getUploadThreads() {
+        return uploadThreads;
+      }
+
+      public void setUploadThreads(int uploadThreads) {
+        this.uploadThreads = uploadThreads;
+      }
+
+      public String getCacheDirectory() {
+        return cacheDirectory;
+      }
+
+      public void setCacheDirectory(String cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+      }
+
+      public long getCacheMaxSize() {
+        return cacheMaxSize;
+      }
+
+      public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+      }
+
+      public long getCacheMaxEntrySize() {
+        return cacheMaxEntrySize;
+      }
+
+      public void setCacheMaxEntrySize(long cacheMaxEntrySize) {
+        this.cacheMaxEntrySize = cacheMaxEntrySize;
+      }
+
+      public long getCacheTimeToLive() {
+        return cacheTimeToLive;
+      }
+
+      public void setCacheTimeToLive(long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+      }
+
+      public boolean isDirectTransfer() {
+        return directTransfer;
+      }
+
+      public void setDirectTransfer(boolean directTransfer) {
+        this.directTransfer = directTransfer;
+      }
+
+      public long getPresignedUrlExpiry() {
+        return presignedUrlExpiry;
+      }
+
+      public void setPresignedUrlExpiry(long presignedUrlExpiry) {
+        this.presignedUrlExpiry = presignedUrlExpiry;
+      }
+
+      public long getDeletionInterval() {
+        return deletionInterval;
+      }
+
+      public void setDeletionInterval(long deletionInterval) {
+        this.deletionInterval = deletionInterval;
+      }
+
+      public int getDeletionBatchSize() {
+        return deletionBatchSize;
+      }
+
+      public void setDeletionBatchSize(int deletionBatchSize) {
+        this.deletionBatchSize = deletionBatchSize;
+      }
+
+      public long getDeletionInitialBackoff() {
+        return deletionInitialBackoff;
+      }
+
+      public void setDeletionInitialBackoff(long deletionInitialBackoff) {
+        this.deletionInitialBackoff = deletionInitialBackoff;
+      }
+
+      public long getDeletionMaxBackoff() {
+        return deletionMaxBackoff;
+      }
+
+      public void setDeletionMaxBackoff(long deletionMaxBackoff) {
+        this.deletionMaxBackoff = deletionMaxBackoff;
+      }
+
+      public int getArchiveThreads() {
+        return archiveThreads;
+      }
+
+      public void setArchiveThreads(int archiveThreads) {
+        this.archiveThreads = archiveThreads;
+      }
+
+      public int getArchivePrefetch() {
+        return archivePrefetch;
+      }
+
+      public void setArchivePrefetch(int archivePrefetch) {
+        this.archivePrefetch = archivePrefetch;
+      }
+
       @Override
       public String toString() {
-        return super.toString() + "s3bucket=" + this.s3bucket + ";kmAlias=" + this.kmsAlias;
+        return super.toString() + "store=" + this.store + ";s3bucket=" + this.s3bucket + ";kmAlias=" + this.kmsAlias;
       }
     }
+
+    public static class Pagination {
+
+        private long countCacheTimeToLive = 60;
+
+        private long countCacheMaxEntries = 1000;
+
+        public long getCountCacheTimeToLive() {
+            return countCacheTimeToLive;
+        }
+
+        public void setCountCacheTimeToLive(long countCacheTimeToLive) {
+            this.countCacheTimeToLive = countCacheTimeToLive;
+        }
+
+        public long getCountCacheMaxEntries() {
+            return countCacheMaxEntries;
+        }
+
+        public void setCountCacheMaxEntries(long countCacheMaxEntries) {
+            this.countCacheMaxEntries = countCacheMaxEntries;
+        }
+    }
+
+    public static class Datasource {
+
+        private List<Replica> replicas = new ArrayList<>();
+
+        private long maxLag = 10;
+
+        private long lagCheckInterval = 5000;
+
+        private String lagQuery = "SHOW SLAVE STATUS";
+
+        private String lagColumn = "Seconds_Behind_Master";
+
+        public List<Replica> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<Replica> replicas) {
+            this.replicas = replicas;
+        }
+
+        public long getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(long maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public long getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(long lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public String getLagColumn() {
+            return lagColumn;
+        }
+
+        public void setLagColumn(String lagColumn) {
+            this.lagColumn = lagColumn;
+        }
+    }
+
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
 }
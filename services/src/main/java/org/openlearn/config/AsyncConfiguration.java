@@ -12,6 +12,9 @@ import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 import java.util.concurrent.Executor;
 
@@ -24,8 +27,11 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public AsyncConfiguration(JHipsterProperties jHipsterProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    public AsyncConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
@@ -40,6 +46,45 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * Executor used by Spring MVC to write streamed response bodies, such as file downloads. It is kept
+     * apart from the general task executor so slow downloads can't starve scheduled and async work.
+     */
+    @Bean(name = "streamingTaskExecutor")
+    public ThreadPoolTaskExecutor getStreamingTaskExecutor() {
+        log.debug("Creating Streaming Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getUploads().getDownloadThreads());
+        executor.setMaxPoolSize(applicationProperties.getUploads().getDownloadThreads());
+        executor.setThreadNamePrefix("openlearn-Streaming-");
+        return executor;
+    }
+
+    /**
+     * Executor used to fetch the files of an archive ahead of the one being written. Each archive only
+     * fetches a few files at a time, so the pool bounds the number of concurrent fetches across archives.
+     */
+    @Bean(name = "archiveTaskExecutor")
+    public ThreadPoolTaskExecutor getArchiveTaskExecutor() {
+        log.debug("Creating Archive Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(applicationProperties.getUploads().getArchiveThreads());
+        executor.setMaxPoolSize(applicationProperties.getUploads().getArchiveThreads());
+        executor.setThreadNamePrefix("openlearn-Archive-");
+        return executor;
+    }
+
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer() {
+        return new WebMvcConfigurerAdapter() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(getStreamingTaskExecutor());
+                configurer.setDefaultTimeout(applicationProperties.getUploads().getDownloadTimeout());
+            }
+        };
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -6,7 +6,12 @@ import org.ehcache.config.builders.ResourcePoolsBuilder;
 import org.ehcache.expiry.Duration;
 import org.ehcache.expiry.Expirations;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.openlearn.client.ReCaptchaClient;
 import org.openlearn.domain.*;
+import org.openlearn.security.CachingTokenStore;
+import org.openlearn.security.UserDetailsCache;
+import org.openlearn.service.CountCache;
+import org.openlearn.service.CoursePermissionService;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
@@ -24,15 +29,29 @@ public class CacheConfiguration {
 
 	private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-	public CacheConfiguration(final JHipsterProperties jHipsterProperties) {
+	private final javax.cache.configuration.Configuration<Object, Object> tokenCacheConfiguration;
+
+	private final javax.cache.configuration.Configuration<Object, Object> userDetailsCacheConfiguration;
+
+	private final javax.cache.configuration.Configuration<Object, Object> permissionCacheConfiguration;
+
+	private final javax.cache.configuration.Configuration<Object, Object> reCaptchaCacheConfiguration;
+
+	private final javax.cache.configuration.Configuration<Object, Object> countCacheConfiguration;
+
+	public CacheConfiguration(final JHipsterProperties jHipsterProperties, final ApplicationProperties applicationProperties) {
 		final JHipsterProperties.Cache.Ehcache ehcache =
 			jHipsterProperties.getCache().getEhcache();
+		final ApplicationProperties.Security security = applicationProperties.getSecurity();
+		final ApplicationProperties.Recaptcha recaptcha = applicationProperties.getRecaptcha();
+		final ApplicationProperties.Pagination pagination = applicationProperties.getPagination();
 
-		jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-			CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
-				ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-				.withExpiry(Expirations.timeToLiveExpiration(Duration.of(ehcache.getTimeToLiveSeconds(), TimeUnit.SECONDS)))
-				.build());
+		jcacheConfiguration = newConfiguration(ehcache.getMaxEntries(), ehcache.getTimeToLiveSeconds());
+		tokenCacheConfiguration = newConfiguration(security.getTokenCacheMaxEntries(), security.getTokenCacheTimeToLive());
+		userDetailsCacheConfiguration = newConfiguration(security.getUserDetailsCacheMaxEntries(), security.getUserDetailsCacheTimeToLive());
+		permissionCacheConfiguration = newConfiguration(security.getPermissionCacheMaxEntries(), security.getPermissionCacheTimeToLive());
+		reCaptchaCacheConfiguration = newConfiguration(recaptcha.getCacheMaxEntries(), recaptcha.getCacheTimeToLive());
+		countCacheConfiguration = newConfiguration(pagination.getCountCacheMaxEntries(), pagination.getCountCacheTimeToLive());
 	}
 
 	@Bean
@@ -49,7 +68,23 @@ public class CacheConfiguration {
 			cm.createCache(StudentAssignment.class.getName(), jcacheConfiguration);
 			cm.createCache(StudentCourse.class.getName(), jcacheConfiguration);
 			cm.createCache(User.class.getName(), jcacheConfiguration);
+			cm.createCache(CachingTokenStore.ACCESS_TOKEN_CACHE, tokenCacheConfiguration);
+			cm.createCache(CachingTokenStore.AUTHENTICATION_CACHE, tokenCacheConfiguration);
+			cm.createCache(CachingTokenStore.REFRESH_TOKEN_INDEX_CACHE, tokenCacheConfiguration);
+			cm.createCache(UserDetailsCache.CACHE, userDetailsCacheConfiguration);
+			cm.createCache(CoursePermissionService.CACHE, permissionCacheConfiguration);
+			cm.createCache(ReCaptchaClient.CACHE, reCaptchaCacheConfiguration);
+			cm.createCache(CountCache.CACHE, countCacheConfiguration);
 			// jhipster-needle-ehcache-add-entry
 		};
 	}
+
+	private static javax.cache.configuration.Configuration<Object, Object> newConfiguration(final long maxEntries,
+																						   final long timeToLiveSeconds) {
+		return Eh107Configuration.fromEhcacheCacheConfiguration(
+			CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+				ResourcePoolsBuilder.heap(maxEntries))
+				.withExpiry(Expirations.timeToLiveExpiration(Duration.of(timeToLiveSeconds, TimeUnit.SECONDS)))
+				.build());
+	}
 }
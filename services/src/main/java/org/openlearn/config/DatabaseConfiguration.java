@@ -16,8 +16,10 @@ import org.springframework.core.env.Environment;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import java.sql.SQLException;
 
@@ -47,6 +49,11 @@ public class DatabaseConfiguration {
         return Server.createTcpServer("-tcp","-tcpAllowOthers");
     }
 
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new OrganizationFilterTransactionManager(entityManagerFactory);
+    }
+
     @Bean
     public SpringLiquibase liquibase(@Qualifier("taskExecutor") TaskExecutor taskExecutor,
             DataSource dataSource, LiquibaseProperties liquibaseProperties) {
@@ -41,6 +41,8 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
 
     private HikariDataSource hikariDataSource;
 
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
     public MetricsConfiguration(JHipsterProperties jHipsterProperties) {
         this.jHipsterProperties = jHipsterProperties;
     }
@@ -50,6 +52,11 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
         this.hikariDataSource = hikariDataSource;
     }
 
+    @Autowired(required = false)
+    public void setReplicaRoutingDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
     @Override
     @Bean
     public MetricRegistry getMetricRegistry() {
@@ -76,6 +83,10 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
             log.debug("Monitoring the datasource");
             hikariDataSource.setMetricRegistry(metricRegistry);
         }
+        if (replicaRoutingDataSource != null) {
+            log.debug("Monitoring the read replicas");
+            replicaRoutingDataSource.setMetricRegistry(metricRegistry);
+        }
         if (jHipsterProperties.getMetrics().getJmx().isEnabled()) {
             log.debug("Initializing Metrics JMX reporting");
             JmxReporter jmxReporter = JmxReporter.forRegistry(metricRegistry).build();
@@ -1,9 +1,17 @@
 package org.openlearn.config;
 
-import io.github.jhipster.security.AjaxLogoutSuccessHandler;
+import com.codahale.metrics.MetricRegistry;
 import io.github.jhipster.security.Http401UnauthorizedEntryPoint;
+import org.openlearn.security.AjaxLogoutSuccessHandler;
 import org.openlearn.security.AuthoritiesConstants;
+import org.openlearn.repository.UserRepository;
+import org.openlearn.security.CachingTokenStore;
+import org.openlearn.security.SignedTokenConverter;
+import org.openlearn.security.SignedTokenStore;
+import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,26 +27,54 @@ import org.springframework.security.oauth2.config.annotation.web.configurers.Aut
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerSecurityConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.approval.ApprovalStore;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationManager;
 import org.springframework.security.oauth2.provider.approval.JdbcApprovalStore;
 import org.springframework.security.oauth2.provider.code.AuthorizationCodeServices;
 import org.springframework.security.oauth2.provider.code.JdbcAuthorizationCodeServices;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
 import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.security.oauth2.provider.token.store.JdbcTokenStore;
 
+import javax.cache.CacheManager;
 import javax.sql.DataSource;
 
 @Configuration
 public class OAuth2ServerConfiguration {
 
+    private static final String RESOURCE_ID = "res_openlearn";
+
     private final DataSource dataSource;
 
-    public OAuth2ServerConfiguration(DataSource dataSource) {
+    private final ApplicationProperties applicationProperties;
+
+    public OAuth2ServerConfiguration(DataSource dataSource, ApplicationProperties applicationProperties) {
         this.dataSource = dataSource;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.security", name = "token-mode", havingValue = "jdbc", matchIfMissing = true)
+    public TokenStore tokenStore(CacheManager cacheManager, MetricRegistry metricRegistry) {
+        return new CachingTokenStore(new JdbcTokenStore(dataSource),
+            cacheManager.getCache(CachingTokenStore.ACCESS_TOKEN_CACHE),
+            cacheManager.getCache(CachingTokenStore.AUTHENTICATION_CACHE),
+            cacheManager.getCache(CachingTokenStore.REFRESH_TOKEN_INDEX_CACHE), metricRegistry);
     }
 
     @Bean
-    public JdbcTokenStore tokenStore() {
-        return new JdbcTokenStore(dataSource);
+    @ConditionalOnProperty(prefix = "application.security", name = "token-mode", havingValue = "signed")
+    public SignedTokenConverter signedTokenConverter(UserRepository userRepository) {
+        String signingKey = applicationProperties.getSecurity().getTokenSigningKey();
+        if (signingKey == null || signingKey.length() < 32) {
+            throw new BeanInitializationException("Signed access tokens need an application.security.token-signing-key of at least 32 characters");
+        }
+        return new SignedTokenConverter(signingKey, userRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.security", name = "token-mode", havingValue = "signed")
+    public TokenStore signedTokenStore(SignedTokenConverter signedTokenConverter) {
+        return new SignedTokenStore(new JdbcTokenStore(dataSource), signedTokenConverter);
     }
 
     @Configuration
@@ -91,7 +127,16 @@ public class OAuth2ServerConfiguration {
 
         @Override
         public void configure(ResourceServerSecurityConfigurer resources) throws Exception {
-            resources.resourceId("res_openlearn").tokenStore(tokenStore);
+            resources.resourceId(RESOURCE_ID).tokenStore(tokenStore);
+            if (tokenStore instanceof SignedTokenStore) {
+                // Signed tokens are checked from their claims alone, without looking up the client on every request
+                DefaultTokenServices tokenServices = new DefaultTokenServices();
+                tokenServices.setTokenStore(tokenStore);
+                OAuth2AuthenticationManager authenticationManager = new OAuth2AuthenticationManager();
+                authenticationManager.setResourceId(RESOURCE_ID);
+                authenticationManager.setTokenServices(tokenServices);
+                resources.authenticationManager(authenticationManager::authenticate);
+            }
         }
     }
 
@@ -105,12 +150,15 @@ public class OAuth2ServerConfiguration {
 
         private final DataSource dataSource;
 
+        private final SignedTokenConverter signedTokenConverter;
+
         public AuthorizationServerConfiguration(@Qualifier("authenticationManagerBean") AuthenticationManager authenticationManager,
-                TokenStore tokenStore, DataSource dataSource) {
+                TokenStore tokenStore, DataSource dataSource, ObjectProvider<SignedTokenConverter> signedTokenConverter) {
 
             this.authenticationManager = authenticationManager;
             this.tokenStore = tokenStore;
             this.dataSource = dataSource;
+            this.signedTokenConverter = signedTokenConverter.getIfAvailable();
         }
 
         @Bean
@@ -131,6 +179,9 @@ public class OAuth2ServerConfiguration {
                 .approvalStore(approvalStore())
                 .tokenStore(tokenStore)
                 .authenticationManager(authenticationManager);
+            if (signedTokenConverter != null) {
+                endpoints.tokenEnhancer(signedTokenConverter);
+            }
         }
 
         @Override
@@ -0,0 +1,90 @@
+package org.openlearn.config;
+
+import org.hibernate.Session;
+import org.openlearn.domain.Organization;
+import org.openlearn.security.SecurityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JPA transaction manager enabling the {@link Organization#FILTER organization filter} at the start of every
+ * transaction of a user other than an admin, so queries only read the entities of the user's organization.
+ *
+ * The organization of the user is taken from a signed access token when there is one, and is otherwise
+ * looked up once per request. Users without an organization get a filter that matches nothing. Transactions
+ * without an authenticated user, such as scheduled jobs or the token endpoint, aren't filtered.
+ *
+ * Read-only transactions load entities read-only, so Hibernate keeps no snapshots of them for dirty checking,
+ * and read from a replica when {@link ReplicaRoutingDataSource replicas} are configured.
+ */
+public class OrganizationFilterTransactionManager extends JpaTransactionManager {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(OrganizationFilterTransactionManager.class);
+
+    private static final String ORGANIZATION_ATTRIBUTE = OrganizationFilterTransactionManager.class.getName() + ".ORGANIZATION_ID";
+
+    private static final Long NO_ORGANIZATION = -1L;
+
+    public OrganizationFilterTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        // The connection is acquired while the transaction begins, so route it by the transaction being read-only
+        ReplicaRoutingDataSource.setReadOnly(definition.isReadOnly());
+        try {
+            super.doBegin(transaction, definition);
+        } finally {
+            ReplicaRoutingDataSource.resetReadOnly();
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(getEntityManagerFactory());
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        // Nothing is flushed in a read-only transaction, so don't keep snapshots of the entities to dirty check
+        if (definition.isReadOnly()) session.setDefaultReadOnly(true);
+
+        String login = SecurityUtils.getCurrentUserLogin();
+        if (login == null || SecurityUtils.isAdmin()) return;
+
+        resolveOrganizationId(session, login).ifPresent(organizationId ->
+            session.enableFilter(Organization.FILTER).setParameter(Organization.FILTER_PARAMETER, organizationId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<Long> resolveOrganizationId(Session session, String login) {
+        Long signedOrganizationId = SecurityUtils.getCurrentUserOrganizationId();
+        if (signedOrganizationId != null) return Optional.of(signedOrganizationId);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(ORGANIZATION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return (Optional<Long>) attributes.getAttribute(ORGANIZATION_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        // An unknown login is a client authenticating at the token endpoint rather than a user
+        List<Long> organizationIds = session.createQuery(
+            "select o.id from User u left join u.organization o where u.login = :login", Long.class)
+            .setParameter("login", login)
+            .getResultList();
+        Optional<Long> organizationId = organizationIds.isEmpty()
+            ? Optional.empty()
+            : Optional.of(organizationIds.get(0) != null ? organizationIds.get(0) : NO_ORGANIZATION);
+        log.debug("Filtering queries of {} by organization {}", login, organizationId);
+
+        if (attributes != null) {
+            attributes.setAttribute(ORGANIZATION_ATTRIBUTE, organizationId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return organizationId;
+    }
+}
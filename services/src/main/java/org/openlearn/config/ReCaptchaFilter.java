@@ -1,15 +1,13 @@
 package org.openlearn.config;
 
+import org.openlearn.client.ReCaptchaClient;
+import org.openlearn.client.ReCaptchaUnavailableException;
 import org.openlearn.domain.recaptcha.ReCaptchaResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.servlet.FilterChain;
@@ -23,12 +21,14 @@ public class ReCaptchaFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(ReCaptchaFilter.class);
 
-    private final RestTemplate restTemplate;
+    private static final String DEFAULT_HEADER_NAME = "ReCaptcha-Response";
+
+    private final ReCaptchaClient reCaptchaClient;
 
     private final ApplicationProperties properties;
 
-    public ReCaptchaFilter(final RestTemplateBuilder restTemplateBuilder, ApplicationProperties properties) {
-        this.restTemplate = restTemplateBuilder.build();
+    public ReCaptchaFilter(final ReCaptchaClient reCaptchaClient, ApplicationProperties properties) {
+        this.reCaptchaClient = reCaptchaClient;
         this.properties = properties;
     }
 
@@ -38,33 +38,34 @@ public class ReCaptchaFilter extends OncePerRequestFilter {
         if (request.getMethod().equals(HttpMethod.POST.name())) {
             log.debug("Verifying reCaptcha.");
 
-            try {
-                String reCaptchaResponse = request.getHeader("ReCaptcha-Response");
-                if (reCaptchaResponse == null) {
-                    throw new IllegalArgumentException("ReCaptcha-Response header must not be null.");
-                }
-
-                MultiValueMap<String,String> parameters = new LinkedMultiValueMap<>();
-                parameters.add("secret", properties.getRecaptcha().getSiteSecret());
-                parameters.add("response", reCaptchaResponse);
-
-                ReCaptchaResponse verificationResponse = restTemplate
-                    .postForObject(properties.getRecaptcha().getVerificationUrl(), parameters, ReCaptchaResponse.class);
-
-                if (verificationResponse.isSuccess()) {
-                    log.debug("reCaptcha successfully verified.");
-                    chain.doFilter(request, response);
-                } else {
-                    log.error("Provided reCaptcha response failed verification: " + verificationResponse);
-                    response.sendError(HttpStatus.FORBIDDEN.value(), "Provided reCaptcha failed verification.");
-                }
+            String headerName = properties.getRecaptcha().getHeaderName() != null ? properties.getRecaptcha().getHeaderName() : DEFAULT_HEADER_NAME;
+            String reCaptchaResponse = request.getHeader(headerName);
+            if (reCaptchaResponse == null) {
+                log.error("reCaptcha verification failed due to a missing {} header", headerName);
+                response.sendError(HttpStatus.BAD_REQUEST.value(), headerName + " header must not be null.");
+                return;
+            }
 
-            } catch(IllegalArgumentException iae) {
-                log.error("reCaptcha verification failed due to exception: ", iae);
-                response.sendError(HttpStatus.BAD_REQUEST.value(), iae.getMessage());
-            } catch(Exception e) {
+            ReCaptchaResponse verificationResponse;
+            try {
+                verificationResponse = reCaptchaClient.verify(reCaptchaResponse);
+            } catch (ReCaptchaUnavailableException e) {
+                // The verifier being busy or slow says nothing about the client, so let it try again later
+                log.error("reCaptcha verification failed: {}", e.getMessage());
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "reCaptcha verification is unavailable.");
+                return;
+            } catch (Exception e) {
                 log.error("reCaptcha verification failed due to exception: ", e);
                 response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "reCaptcha verification failed.");
+                return;
+            }
+
+            if (Boolean.TRUE.equals(verificationResponse.isSuccess())) {
+                log.debug("reCaptcha successfully verified.");
+                chain.doFilter(request, response);
+            } else {
+                log.error("Provided reCaptcha response failed verification: " + verificationResponse);
+                response.sendError(HttpStatus.FORBIDDEN.value(), "Provided reCaptcha failed verification.");
             }
         } else {
             chain.doFilter(request, response);
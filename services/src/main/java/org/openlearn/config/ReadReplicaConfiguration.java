@@ -0,0 +1,58 @@
+package org.openlearn.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data sources for reading from replicas, replacing the single data source Spring Boot would configure once
+ * {@code application.datasource.replicas} lists at least one replica.
+ *
+ * The primary pool is configured from {@code spring.datasource} as before. Replicas take the credentials of
+ * the primary unless they have their own.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.datasource.replicas[0]", name = "url")
+public class ReadReplicaConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = (HikariDataSource) dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties dataSourceProperties,
+                                               ApplicationProperties applicationProperties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ApplicationProperties.Replica replica : applicationProperties.getDatasource().getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        log.debug("Reading from {} replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, applicationProperties.getDatasource());
+    }
+}
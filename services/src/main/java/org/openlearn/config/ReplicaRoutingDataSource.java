@@ -0,0 +1,192 @@
+package org.openlearn.config;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source sending the connections of read-only transactions to a pool of read replicas, and everything
+ * else to the primary.
+ *
+ * A transaction is routed when it begins, by {@link OrganizationFilterTransactionManager} marking the thread
+ * while the transaction acquires its connection. Replicas are used in turn, but only while their replication
+ * lag, checked every few seconds, is within the configured maximum; when no replica is usable, or a replica
+ * fails to hand out a connection, read-only transactions go to the primary instead. A read-only transaction
+ * may not see the writes of the last few seconds, up to the maximum lag.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private static final String METRIC_PREFIX = "datasource.routing";
+
+    private static final ThreadLocal<Boolean> readOnly = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final ApplicationProperties.Datasource properties;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Meter> routes = new HashMap<>();
+
+    private Meter fallbacks;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    ApplicationProperties.Datasource properties) {
+        this.primary = primary;
+        this.properties = properties;
+        List<Replica> pool = new ArrayList<>();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource dataSource : replicas) {
+            pool.add(new Replica(dataSource));
+            targets.put(dataSource.getPoolName(), dataSource);
+        }
+        this.replicas = Collections.unmodifiableList(pool);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Mark the current thread as beginning a read-only transaction or not, until {@link #resetReadOnly()}.
+     *
+     * @param transactionReadOnly whether the transaction being begun is read-only
+     */
+    public static void setReadOnly(boolean transactionReadOnly) {
+        readOnly.set(transactionReadOnly);
+    }
+
+    public static void resetReadOnly() {
+        readOnly.remove();
+    }
+
+    /**
+     * Report the routing and the lag of the replicas, and the pools of the replicas, to a metric registry. The
+     * lag of a replica that can't be checked is reported as -1.
+     *
+     * @param metricRegistry the registry
+     */
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        routes.put(PRIMARY, metricRegistry.meter(MetricRegistry.name(METRIC_PREFIX, PRIMARY)));
+        for (Replica replica : replicas) {
+            String name = replica.dataSource.getPoolName();
+            replica.dataSource.setMetricRegistry(metricRegistry);
+            routes.put(name, metricRegistry.meter(MetricRegistry.name(METRIC_PREFIX, name)));
+            metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, name, "lag"), (Gauge<Long>) () -> replica.lag == Long.MAX_VALUE ? -1 : replica.lag);
+        }
+        fallbacks = metricRegistry.meter(MetricRegistry.name(METRIC_PREFIX, "fallbacks"));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = Boolean.TRUE.equals(readOnly.get()) ? nextReplica() : null;
+        if (replica != null) {
+            try {
+                return routed(replica.dataSource.getPoolName(), replica.dataSource.getConnection());
+            } catch (SQLException e) {
+                log.warn("Could not connect to replica {}, reading from the primary until its next lag check: {}",
+                    replica.dataSource.getPoolName(), e.getMessage());
+                replica.lag = Long.MAX_VALUE;
+                mark(fallbacks);
+            }
+        }
+        return routed(PRIMARY, primary.getConnection());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica replica = Boolean.TRUE.equals(readOnly.get()) ? nextReplica() : null;
+        return replica != null ? replica.dataSource.getPoolName() : PRIMARY;
+    }
+
+    private Replica nextReplica() {
+        if (replicas.isEmpty()) return null;
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.lag <= properties.getMaxLag()) return replica;
+        }
+        mark(fallbacks);
+        return null;
+    }
+
+    /**
+     * Check the replication lag of every replica, so lagging or unreachable replicas are skipped until they
+     * catch up. A replica reporting no replication status at all is taken as up to date.
+     */
+    @Scheduled(fixedDelayString = "${application.datasource.lag-check-interval:5000}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            long lag;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet status = statement.executeQuery(properties.getLagQuery())) {
+                if (!status.next()) {
+                    lag = 0;
+                } else {
+                    // A replica that stopped replicating reports no lag
+                    Number seconds = (Number) status.getObject(properties.getLagColumn());
+                    lag = seconds != null ? seconds.longValue() : Long.MAX_VALUE;
+                }
+            } catch (SQLException e) {
+                log.warn("Could not check the lag of replica {}: {}", replica.dataSource.getPoolName(), e.getMessage());
+                lag = Long.MAX_VALUE;
+            }
+            if (lag > properties.getMaxLag() && replica.lag <= properties.getMaxLag()) {
+                if (lag == Long.MAX_VALUE) {
+                    log.warn("Replica {} is not replicating, reading from the primary instead", replica.dataSource.getPoolName());
+                } else {
+                    log.warn("Replica {} is {}s behind, reading from the primary instead", replica.dataSource.getPoolName(), lag);
+                }
+            }
+            replica.lag = lag;
+        }
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private Connection routed(String key, Connection connection) {
+        mark(routes.get(key));
+        return connection;
+    }
+
+    private static void mark(Meter meter) {
+        if (meter != null) meter.mark();
+    }
+
+    private static class Replica {
+
+        private final HikariDataSource dataSource;
+
+        // Unusable until the first lag check
+        private volatile long lag = Long.MAX_VALUE;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.openlearn.config;
+
+import com.codahale.metrics.MetricRegistry;
+import org.openlearn.client.S3Client;
+import org.openlearn.storage.BlobCache;
+import org.openlearn.storage.BlobStore;
+import org.openlearn.storage.FileSystemBlobStore;
+import org.openlearn.storage.S3BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Configuration of the storage backend for uploaded files, selected through {@code application.uploads.store}.
+ */
+@Configuration
+public class StorageConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(StorageConfiguration.class);
+
+    private final ApplicationProperties applicationProperties;
+
+    public StorageConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.uploads", name = "store", havingValue = "s3", matchIfMissing = true)
+    public S3Client s3Client(MetricRegistry metricRegistry) {
+        return new S3Client(applicationProperties, metricRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.uploads", name = "store", havingValue = "s3", matchIfMissing = true)
+    public BlobCache blobCache(MetricRegistry metricRegistry) throws IOException {
+        return new BlobCache(applicationProperties, metricRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.uploads", name = "store", havingValue = "s3", matchIfMissing = true)
+    public BlobStore s3BlobStore(S3Client s3Client, BlobCache blobCache) {
+        log.debug("Storing uploads in S3 bucket {}", applicationProperties.getUploadBucket());
+        return new S3BlobStore(s3Client, blobCache, applicationProperties.getUploadBucket(),
+            applicationProperties.getUploads().getMultipartThreshold());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.uploads", name = "store", havingValue = "filesystem")
+    public BlobStore fileSystemBlobStore() throws IOException {
+        return new FileSystemBlobStore(Paths.get(applicationProperties.getUploads().getDirectory()));
+    }
+}
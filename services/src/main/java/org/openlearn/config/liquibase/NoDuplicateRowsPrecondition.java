@@ -0,0 +1,68 @@
+package org.openlearn.config.liquibase;
+
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomPreconditionErrorException;
+import liquibase.exception.CustomPreconditionFailedException;
+import liquibase.exception.DatabaseException;
+import liquibase.precondition.CustomPrecondition;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precondition failing a migration while a table has rows that share the values of the given columns,
+ * listing them, so they can be merged by hand before a unique constraint is added over the columns.
+ *
+ * Used as a {@code customPrecondition} with the parameters {@code tableName} and {@code columnNames}, the
+ * latter comma separated.
+ */
+public class NoDuplicateRowsPrecondition implements CustomPrecondition {
+
+    private static final int MAX_LISTED = 20;
+
+    private String tableName;
+
+    private String columnNames;
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public void setColumnNames(String columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    @Override
+    public void check(Database database) throws CustomPreconditionFailedException, CustomPreconditionErrorException {
+        String columns = columnNames.replaceAll("\\s+", "");
+        String sql = "SELECT " + columns + ", COUNT(*) FROM " + database.escapeTableName(null, null, tableName)
+            + " GROUP BY " + columns + " HAVING COUNT(*) > 1 ORDER BY " + columns;
+        int columnCount = columns.split(",").length;
+
+        List<String> duplicates = new ArrayList<>();
+        int total = 0;
+        try (Statement statement = ((JdbcConnection) database.getConnection()).createStatement();
+             ResultSet rows = statement.executeQuery(sql)) {
+            while (rows.next()) {
+                total++;
+                if (duplicates.size() < MAX_LISTED) {
+                    List<String> values = new ArrayList<>();
+                    for (int i = 1; i <= columnCount; i++) values.add(rows.getString(i));
+                    duplicates.add("(" + String.join(", ", values) + ") x" + rows.getLong(columnCount + 1));
+                }
+            }
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomPreconditionErrorException("Could not look for duplicate rows in " + tableName, e);
+        }
+
+        if (total > 0) {
+            throw new CustomPreconditionFailedException(total + " values of (" + columnNames + ") occur more than once in "
+                + tableName + ", merge these rows before migrating: " + String.join(", ", duplicates)
+                + (total > duplicates.size() ? ", ..." : ""));
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Liquibase extensions used by the changelogs.
+ */
+package org.openlearn.config.liquibase;
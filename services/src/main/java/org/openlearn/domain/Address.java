@@ -18,7 +18,9 @@ public class Address implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "address")
+	@TableGenerator(name = "address", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "street_address_1", length = 50, nullable = false)
@@ -2,6 +2,7 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -12,12 +13,15 @@ import java.io.Serializable;
 @Entity
 @Table(name = "assignment")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Filter(name = Organization.FILTER, condition = Organization.FILTER_CONDITION)
 public class Assignment implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "assignment")
+	@TableGenerator(name = "assignment", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "name", length = 100, nullable = false)
@@ -26,11 +30,11 @@ public class Assignment implements Serializable {
 	@Column(name = "description", length = 200, nullable = false)
 	private String description;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "course_id")
 	private Course course;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "organization_id")
 	private Organization organization;
 
@@ -77,25 +81,16 @@ public class Assignment implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof Assignment)) return false;
 
 		Assignment that = (Assignment) o;
 
-		if (id != null ? !id.equals(that.id) : that.id != null) return false;
-		if (name != null ? !name.equals(that.name) : that.name != null) return false;
-		if (description != null ? !description.equals(that.description) : that.description != null) return false;
-		if (course != null ? !course.equals(that.course) : that.course != null) return false;
-		return organization != null ? organization.equals(that.organization) : that.organization == null;
+		return id != null && id.equals(that.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (name != null ? name.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (course != null ? course.hashCode() : 0);
-		result = 31 * result + (organization != null ? organization.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
@@ -104,8 +99,8 @@ public class Assignment implements Serializable {
 			"id=" + id +
 			", name='" + name + '\'' +
 			", description='" + description + '\'' +
-			", course=" + course +
-			", organization=" + organization +
+			", courseId=" + (course != null ? course.getId() : null) +
+			", organizationId=" + (organization != null ? organization.getId() : null) +
 			'}';
 	}
 }
@@ -0,0 +1,120 @@
+package org.openlearn.domain;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A stored file that is waiting to be deleted from the storage backend.
+ */
+@Entity
+@Table(name = "blob_deletion")
+public class BlobDeletion implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "blob_deletion")
+	@TableGenerator(name = "blob_deletion", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
+	private Long id;
+
+	@Column(name = "locator", length = 200, nullable = false)
+	private String locator;
+
+	@Column(name = "created_date", nullable = false)
+	private ZonedDateTime createdDate;
+
+	@Column(name = "next_attempt_date", nullable = false)
+	private ZonedDateTime nextAttemptDate;
+
+	@Column(name = "attempts", nullable = false)
+	private int attempts;
+
+	@Column(name = "last_error", length = 500)
+	private String lastError;
+
+	public BlobDeletion() {
+	}
+
+	public BlobDeletion(String locator) {
+		this.locator = locator;
+		this.createdDate = ZonedDateTime.now();
+		this.nextAttemptDate = this.createdDate;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getLocator() {
+		return locator;
+	}
+
+	public void setLocator(String locator) {
+		this.locator = locator;
+	}
+
+	public ZonedDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(ZonedDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public ZonedDateTime getNextAttemptDate() {
+		return nextAttemptDate;
+	}
+
+	public void setNextAttemptDate(ZonedDateTime nextAttemptDate) {
+		this.nextAttemptDate = nextAttemptDate;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		BlobDeletion blobDeletion = (BlobDeletion) o;
+
+		return id != null ? id.equals(blobDeletion.id) : blobDeletion.id == null;
+	}
+
+	@Override
+	public int hashCode() {
+		return id != null ? id.hashCode() : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "BlobDeletion{" +
+			"id=" + id +
+			", locator='" + locator + '\'' +
+			", createdDate=" + createdDate +
+			", nextAttemptDate=" + nextAttemptDate +
+			", attempts=" + attempts +
+			", lastError='" + lastError + '\'' +
+			'}';
+	}
+}
@@ -2,6 +2,7 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -14,12 +15,15 @@ import java.time.ZonedDateTime;
 @Entity
 @Table(name = "course")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Filter(name = Organization.FILTER, condition = Organization.FILTER_CONDITION)
 public class Course implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "course")
+	@TableGenerator(name = "course", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "name", length = 100, nullable = false)
@@ -36,12 +40,12 @@ public class Course implements Serializable {
 	private ZonedDateTime endDate;
 
 	@NotNull
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "session_id")
 	private Session session;
 
 	@NotNull
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "instructor_id")
 	private User instructor;
 
@@ -51,7 +55,7 @@ public class Course implements Serializable {
 	@Column(name = "times")
 	private String times;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "organization_id")
 	private Organization organization;
 
@@ -138,35 +142,16 @@ public class Course implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof Course)) return false;
 
 		Course course = (Course) o;
 
-		if (id != null ? !id.equals(course.id) : course.id != null) return false;
-		if (name != null ? !name.equals(course.name) : course.name != null) return false;
-		if (description != null ? !description.equals(course.description) : course.description != null) return false;
-		if (startDate != null ? !startDate.equals(course.startDate) : course.startDate != null) return false;
-		if (endDate != null ? !endDate.equals(course.endDate) : course.endDate != null) return false;
-		if (session != null ? !session.equals(course.session) : course.session != null) return false;
-		if (instructor != null ? !instructor.equals(course.instructor) : course.instructor != null) return false;
-		if (locations != null ? !locations.equals(course.locations) : course.locations != null) return false;
-		if (times != null ? !times.equals(course.times) : course.times != null) return false;
-		return organization != null ? organization.equals(course.organization) : course.organization == null;
+		return id != null && id.equals(course.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (name != null ? name.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (startDate != null ? startDate.hashCode() : 0);
-		result = 31 * result + (endDate != null ? endDate.hashCode() : 0);
-		result = 31 * result + (session != null ? session.hashCode() : 0);
-		result = 31 * result + (instructor != null ? instructor.hashCode() : 0);
-		result = 31 * result + (locations != null ? locations.hashCode() : 0);
-		result = 31 * result + (times != null ? times.hashCode() : 0);
-		result = 31 * result + (organization != null ? organization.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
@@ -177,11 +162,11 @@ public class Course implements Serializable {
 			", description='" + description + '\'' +
 			", startDate=" + startDate +
 			", endDate=" + endDate +
-			", session=" + session +
-			", instructor=" + instructor +
+			", sessionId=" + (session != null ? session.getId() : null) +
+			", instructorId=" + (instructor != null ? instructor.getId() : null) +
 			", locations='" + locations + '\'' +
 			", times='" + times + '\'' +
-			", organization=" + organization +
+			", organizationId=" + (organization != null ? organization.getId() : null) +
 			'}';
 	}
 }
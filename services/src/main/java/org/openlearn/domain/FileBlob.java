@@ -0,0 +1,123 @@
+package org.openlearn.domain;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A stored file shared by all uploads with the same content, identified by the SHA-256 hash of its content.
+ */
+@Entity
+@Table(name = "file_blob")
+public class FileBlob implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "file_blob")
+	@TableGenerator(name = "file_blob", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
+	private Long id;
+
+	@Column(name = "sha256", columnDefinition = "char(64)", nullable = false, unique = true)
+	private String sha256;
+
+	@Column(name = "locator", length = 200, nullable = false)
+	private String locator;
+
+	@Column(name = "content_length", nullable = false)
+	private long contentLength;
+
+	@Column(name = "content_type", length = 100)
+	private String contentType;
+
+	@Column(name = "reference_count", nullable = false)
+	private int referenceCount;
+
+	@Column(name = "created_date", nullable = false)
+	private ZonedDateTime createdDate;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getSha256() {
+		return sha256;
+	}
+
+	public void setSha256(String sha256) {
+		this.sha256 = sha256;
+	}
+
+	public String getLocator() {
+		return locator;
+	}
+
+	public void setLocator(String locator) {
+		this.locator = locator;
+	}
+
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	public void setContentLength(long contentLength) {
+		this.contentLength = contentLength;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	public int getReferenceCount() {
+		return referenceCount;
+	}
+
+	public void setReferenceCount(int referenceCount) {
+		this.referenceCount = referenceCount;
+	}
+
+	public ZonedDateTime getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(ZonedDateTime createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof FileBlob)) return false;
+
+		FileBlob fileBlob = (FileBlob) o;
+
+		return sha256 != null ? sha256.equals(fileBlob.getSha256()) : fileBlob.getSha256() == null;
+	}
+
+	@Override
+	public int hashCode() {
+		return sha256 != null ? sha256.hashCode() : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "FileBlob{" +
+			"id=" + id +
+			", sha256='" + sha256 + '\'' +
+			", locator='" + locator + '\'' +
+			", contentLength=" + contentLength +
+			", contentType='" + contentType + '\'' +
+			", referenceCount=" + referenceCount +
+			", createdDate=" + createdDate +
+			'}';
+	}
+}
@@ -2,12 +2,14 @@ package org.openlearn.domain;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import javax.validation.constraints.NotNull;
 import java.time.ZonedDateTime;
 
@@ -15,29 +17,42 @@ import java.time.ZonedDateTime;
 @Table(name = "file_information")
 public class FileInformation {
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "file_information")
+	@TableGenerator(name = "file_information", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long Id;
 
 	@NotNull
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "userId")
 	private User user;
 
 	@NotNull
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "uploadedByUserId")
 	private User uploadedByUser;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "assignmentId")
 	private Assignment assignment;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "portfolioItemId")
 	private PortfolioItem portfolioItem;
 
-	@Column(name = "fileUrl", nullable = false)
-	private String fileUrl;
+	// The path of the upload, a_[assignmentId]/[userId]/[fileName] or p_[portfolioId]/[userId]/[fileName]. Uploads
+	// made before blobs were shared, and ones made directly to storage, are also stored under this path.
+	@Column(name = "locator", nullable = false)
+	private String locator;
+
+	// The shared, content addressed file the upload is stored as, if any
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "file_blob_id")
+	private FileBlob blob;
+
+	// The media type sent with the upload; uploads sharing a blob may have been sent with different ones
+	@Column(name = "content_type", length = 100)
+	private String contentType;
 
 	@Column(name = "type", nullable = false)
 	private String fileType; //TODO cbernal make this an enum, restrict DB values
@@ -74,12 +89,35 @@ public class FileInformation {
 
 	public void setPortfolioItem(PortfolioItem portfolioItem) { this.portfolioItem = portfolioItem; }
 
-	public String getFileUrl() {
-		return fileUrl;
+	public String getLocator() {
+		return locator;
+	}
+
+	public void setLocator(String locator) {
+		this.locator = locator;
+	}
+
+	public FileBlob getBlob() {
+		return blob;
+	}
+
+	public void setBlob(FileBlob blob) {
+		this.blob = blob;
+	}
+
+	/**
+	 * @return the locator the upload is stored under in the storage backend
+	 */
+	public String getStorageLocator() {
+		return blob != null ? blob.getLocator() : locator;
+	}
+
+	public String getContentType() {
+		return contentType;
 	}
 
-	public void setFileUrl(String fileUrl) {
-		this.fileUrl = fileUrl;
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
 	}
 
 	public String getFileType() {
@@ -0,0 +1,22 @@
+package org.openlearn.domain;
+
+/**
+ * Settings of the table based id generators of the entities.
+ *
+ * Ids are handed out in blocks of {@link #ALLOCATION_SIZE} from a row per table in {@link #TABLE}, so
+ * Hibernate knows the id of a new entity without inserting it first and can batch the inserts; identity
+ * columns would force an insert per entity. The rows hold the lowest id of the next block (pooled-lo).
+ */
+public final class IdGenerator {
+
+	public static final String TABLE = "id_generator";
+
+	public static final String PK_COLUMN = "entity";
+
+	public static final String VALUE_COLUMN = "next_id";
+
+	public static final int ALLOCATION_SIZE = 50;
+
+	private IdGenerator() {
+	}
+}
@@ -2,6 +2,8 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -12,12 +14,25 @@ import java.io.Serializable;
 @Entity
 @Table(name = "organization")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@FilterDef(name = Organization.FILTER, parameters = @ParamDef(name = Organization.FILTER_PARAMETER, type = "long"))
 public class Organization implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Filter restricting the entities read by queries to those of one organization, enabled for every
+	 * transaction of a user other than an admin.
+	 */
+	public static final String FILTER = "organizationFilter";
+
+	public static final String FILTER_PARAMETER = "organizationId";
+
+	public static final String FILTER_CONDITION = "organization_id = :" + FILTER_PARAMETER;
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "organization")
+	@TableGenerator(name = "organization", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "name", length = 100, nullable = false)
@@ -97,32 +112,16 @@ public class Organization implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof Organization)) return false;
 
 		Organization that = (Organization) o;
 
-		if (id != null ? !id.equals(that.id) : that.id != null) return false;
-		if (name != null ? !name.equals(that.name) : that.name != null) return false;
-		if (description != null ? !description.equals(that.description) : that.description != null) return false;
-		if (primaryContactName != null ? !primaryContactName.equals(that.primaryContactName) : that.primaryContactName != null)
-			return false;
-		if (primaryContactInfo != null ? !primaryContactInfo.equals(that.primaryContactInfo) : that.primaryContactInfo != null)
-			return false;
-		if (secondaryContactName != null ? !secondaryContactName.equals(that.secondaryContactName) : that.secondaryContactName != null)
-			return false;
-		return secondaryContactInfo != null ? secondaryContactInfo.equals(that.secondaryContactInfo) : that.secondaryContactInfo == null;
+		return id != null && id.equals(that.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (name != null ? name.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (primaryContactName != null ? primaryContactName.hashCode() : 0);
-		result = 31 * result + (primaryContactInfo != null ? primaryContactInfo.hashCode() : 0);
-		result = 31 * result + (secondaryContactName != null ? secondaryContactName.hashCode() : 0);
-		result = 31 * result + (secondaryContactInfo != null ? secondaryContactInfo.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
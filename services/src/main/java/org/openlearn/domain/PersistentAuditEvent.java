@@ -17,7 +17,9 @@ import java.util.Map;
 public class PersistentAuditEvent implements Serializable {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "persistent_audit_event")
+	@TableGenerator(name = "persistent_audit_event", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	@Column(name = "event_id")
 	private Long id;
 
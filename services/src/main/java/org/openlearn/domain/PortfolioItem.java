@@ -2,6 +2,7 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -12,12 +13,15 @@ import java.io.Serializable;
 @Entity
 @Table(name = "portfolio_item")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Filter(name = Organization.FILTER, condition = Organization.FILTER_CONDITION)
 public class PortfolioItem implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "portfolio_item")
+	@TableGenerator(name = "portfolio_item", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "name", nullable = false)
@@ -26,14 +30,14 @@ public class PortfolioItem implements Serializable {
 	@Column(name = "description", length = 500, nullable = false)
 	private String description;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "student_id")
 	private User student;
 
 	@Column(name = "url")
 	private String url;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "organization_id")
 	private Organization organization;
 
@@ -88,27 +92,16 @@ public class PortfolioItem implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof PortfolioItem)) return false;
 
 		PortfolioItem that = (PortfolioItem) o;
 
-		if (id != null ? !id.equals(that.id) : that.id != null) return false;
-		if (name != null ? !name.equals(that.name) : that.name != null) return false;
-		if (description != null ? !description.equals(that.description) : that.description != null) return false;
-		if (student != null ? !student.equals(that.student) : that.student != null) return false;
-		if (url != null ? !url.equals(that.url) : that.url != null) return false;
-		return organization != null ? organization.equals(that.organization) : that.organization == null;
+		return id != null && id.equals(that.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (name != null ? name.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (student != null ? student.hashCode() : 0);
-		result = 31 * result + (url != null ? url.hashCode() : 0);
-		result = 31 * result + (organization != null ? organization.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
@@ -117,9 +110,9 @@ public class PortfolioItem implements Serializable {
 			"id=" + id +
 			", name='" + name + '\'' +
 			", description='" + description + '\'' +
-			", student=" + student +
+			", studentId=" + (student != null ? student.getId() : null) +
 			", url='" + url + '\'' +
-			", organization=" + organization +
+			", organizationId=" + (organization != null ? organization.getId() : null) +
 			'}';
 	}
 }
@@ -2,6 +2,7 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -12,12 +13,15 @@ import java.io.Serializable;
 @Entity
 @Table(name = "program")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Filter(name = Organization.FILTER, condition = Organization.FILTER_CONDITION)
 public class Program implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "program")
+	@TableGenerator(name = "program", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "name", length = 50, nullable = false)
@@ -26,7 +30,7 @@ public class Program implements Serializable {
 	@Column(name = "description", nullable = false)
 	private String description;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "organization_id")
 	private Organization organization;
 
@@ -65,23 +69,16 @@ public class Program implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof Program)) return false;
 
 		Program program = (Program) o;
 
-		if (id != null ? !id.equals(program.id) : program.id != null) return false;
-		if (name != null ? !name.equals(program.name) : program.name != null) return false;
-		if (description != null ? !description.equals(program.description) : program.description != null) return false;
-		return organization != null ? organization.equals(program.organization) : program.organization == null;
+		return id != null && id.equals(program.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (name != null ? name.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (organization != null ? organization.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
@@ -90,7 +87,7 @@ public class Program implements Serializable {
 			"id=" + id +
 			", name='" + name + '\'' +
 			", description='" + description + '\'' +
-			", organization=" + organization +
+			", organizationId=" + (organization != null ? organization.getId() : null) +
 			'}';
 	}
 }
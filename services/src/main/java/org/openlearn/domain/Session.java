@@ -2,6 +2,7 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 
 import javax.persistence.*;
 import java.io.Serializable;
@@ -13,12 +14,15 @@ import java.time.ZonedDateTime;
 @Entity
 @Table(name = "session")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Filter(name = Organization.FILTER, condition = Organization.FILTER_CONDITION)
 public class Session implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "session")
+	@TableGenerator(name = "session", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(name = "name", length = 100, nullable = false)
@@ -33,11 +37,11 @@ public class Session implements Serializable {
 	@Column(name = "end_date", nullable = false)
 	private ZonedDateTime endDate;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "program_id")
 	private Program program;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "organization_id")
 	private Organization organization;
 
@@ -100,29 +104,16 @@ public class Session implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof Session)) return false;
 
 		Session session = (Session) o;
 
-		if (id != null ? !id.equals(session.id) : session.id != null) return false;
-		if (name != null ? !name.equals(session.name) : session.name != null) return false;
-		if (description != null ? !description.equals(session.description) : session.description != null) return false;
-		if (startDate != null ? !startDate.equals(session.startDate) : session.startDate != null) return false;
-		if (endDate != null ? !endDate.equals(session.endDate) : session.endDate != null) return false;
-		if (program != null ? !program.equals(session.program) : session.program != null) return false;
-		return organization != null ? organization.equals(session.organization) : session.organization == null;
+		return id != null && id.equals(session.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (name != null ? name.hashCode() : 0);
-		result = 31 * result + (description != null ? description.hashCode() : 0);
-		result = 31 * result + (startDate != null ? startDate.hashCode() : 0);
-		result = 31 * result + (endDate != null ? endDate.hashCode() : 0);
-		result = 31 * result + (program != null ? program.hashCode() : 0);
-		result = 31 * result + (organization != null ? organization.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
@@ -133,8 +124,8 @@ public class Session implements Serializable {
 			", description='" + description + '\'' +
 			", startDate=" + startDate +
 			", endDate=" + endDate +
-			", program=" + program +
-			", organization=" + organization +
+			", programId=" + (program != null ? program.getId() : null) +
+			", organizationId=" + (organization != null ? organization.getId() : null) +
 			'}';
 	}
 }
@@ -17,14 +17,16 @@ public class StudentAssignment implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "student_assignment")
+	@TableGenerator(name = "student_assignment", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "student_id")
 	private User student;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "assignment_id")
 	private Assignment assignment;
 
@@ -88,35 +90,24 @@ public class StudentAssignment implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof StudentAssignment)) return false;
 
 		StudentAssignment that = (StudentAssignment) o;
 
-		if (id != null ? !id.equals(that.id) : that.id != null) return false;
-		if (student != null ? !student.equals(that.student) : that.student != null) return false;
-		if (assignment != null ? !assignment.equals(that.assignment) : that.assignment != null) return false;
-		if (grade != null ? !grade.equals(that.grade) : that.grade != null) return false;
-		if (complete != null ? !complete.equals(that.complete) : that.complete != null) return false;
-		return onPortfolio != null ? onPortfolio.equals(that.onPortfolio) : that.onPortfolio == null;
+		return id != null && id.equals(that.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (student != null ? student.hashCode() : 0);
-		result = 31 * result + (assignment != null ? assignment.hashCode() : 0);
-		result = 31 * result + (grade != null ? grade.hashCode() : 0);
-		result = 31 * result + (complete != null ? complete.hashCode() : 0);
-		result = 31 * result + (onPortfolio != null ? onPortfolio.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
 	public String toString() {
 		return "StudentAssignment{" +
 			"id=" + id +
-			", student=" + student +
-			", assignment=" + assignment +
+			", studentId=" + (student != null ? student.getId() : null) +
+			", assignmentId=" + (assignment != null ? assignment.getId() : null) +
 			", grade='" + grade + '\'' +
 			", complete=" + complete +
 			", onPortfolio=" + onPortfolio +
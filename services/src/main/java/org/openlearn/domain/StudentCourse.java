@@ -11,21 +11,24 @@ import java.time.ZonedDateTime;
  * An entity representing one student's enrollment in one course
  */
 @Entity
-@Table(name = "student_course")
+@Table(name = "student_course",
+	uniqueConstraints = @UniqueConstraint(name = "ux_student_course_student_course", columnNames = {"student_id", "course_id"}))
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class StudentCourse implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "student_course")
+	@TableGenerator(name = "student_course", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "student_id")
 	private User student;
 
-	@ManyToOne(optional = false)
+	@ManyToOne(optional = false, fetch = FetchType.LAZY)
 	@JoinColumn(name = "course_id")
 	private Course course;
 
@@ -111,39 +114,24 @@ public class StudentCourse implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof StudentCourse)) return false;
 
 		StudentCourse that = (StudentCourse) o;
 
-		if (id != null ? !id.equals(that.id) : that.id != null) return false;
-		if (student != null ? !student.equals(that.student) : that.student != null) return false;
-		if (course != null ? !course.equals(that.course) : that.course != null) return false;
-		if (grade != null ? !grade.equals(that.grade) : that.grade != null) return false;
-		if (enrollDate != null ? !enrollDate.equals(that.enrollDate) : that.enrollDate != null) return false;
-		if (dropDate != null ? !dropDate.equals(that.dropDate) : that.dropDate != null) return false;
-		if (complete != null ? !complete.equals(that.complete) : that.complete != null) return false;
-		return onPortfolio != null ? onPortfolio.equals(that.onPortfolio) : that.onPortfolio == null;
+		return id != null && id.equals(that.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (student != null ? student.hashCode() : 0);
-		result = 31 * result + (course != null ? course.hashCode() : 0);
-		result = 31 * result + (grade != null ? grade.hashCode() : 0);
-		result = 31 * result + (enrollDate != null ? enrollDate.hashCode() : 0);
-		result = 31 * result + (dropDate != null ? dropDate.hashCode() : 0);
-		result = 31 * result + (complete != null ? complete.hashCode() : 0);
-		result = 31 * result + (onPortfolio != null ? onPortfolio.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
 	public String toString() {
 		return "StudentCourse{" +
 			"id=" + id +
-			", student=" + student +
-			", course=" + course +
+			", studentId=" + (student != null ? student.getId() : null) +
+			", courseId=" + (course != null ? course.getId() : null) +
 			", grade='" + grade + '\'' +
 			", enrollDate=" + enrollDate +
 			", dropDate=" + dropDate +
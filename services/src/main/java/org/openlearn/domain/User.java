@@ -2,6 +2,7 @@ package org.openlearn.domain;
 
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
 import org.hibernate.validator.constraints.Email;
 import org.openlearn.domain.enumeration.GradeLevel;
 
@@ -17,12 +18,15 @@ import java.util.List;
 @Entity
 @Table(name = "user")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@Filter(name = Organization.FILTER, condition = Organization.FILTER_CONDITION)
 public class User extends AbstractAuditingEntity implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "user")
+	@TableGenerator(name = "user", table = IdGenerator.TABLE, pkColumnName = IdGenerator.PK_COLUMN,
+		valueColumnName = IdGenerator.VALUE_COLUMN, allocationSize = IdGenerator.ALLOCATION_SIZE)
 	private Long id;
 
 	@Column(length = 100, unique = true, nullable = false)
@@ -38,6 +42,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
 	@Column(name = "last_name", length = 50, nullable = false)
 	private String lastName;
 
+	// Loaded eagerly, as it is small and checked on nearly every request
 	@ManyToOne(optional = false)
 	@JoinColumn(name = "authority")
 	private Authority authority;
@@ -52,7 +57,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
 	@Column(length = 2000)
 	private String notes;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "organization_id")
 	private Organization organization;
 
@@ -261,61 +266,16 @@ public class User extends AbstractAuditingEntity implements Serializable {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof User)) return false;
 
 		User user = (User) o;
 
-		if (id != null ? !id.equals(user.id) : user.id != null) return false;
-		if (login != null ? !login.equals(user.login) : user.login != null) return false;
-		if (password != null ? !password.equals(user.password) : user.password != null) return false;
-		if (firstName != null ? !firstName.equals(user.firstName) : user.firstName != null) return false;
-		if (lastName != null ? !lastName.equals(user.lastName) : user.lastName != null) return false;
-		if (authority != null ? !authority.equals(user.authority) : user.authority != null) return false;
-		if (email != null ? !email.equals(user.email) : user.email != null) return false;
-		if (phoneNumber != null ? !phoneNumber.equals(user.phoneNumber) : user.phoneNumber != null) return false;
-		if (notes != null ? !notes.equals(user.notes) : user.notes != null) return false;
-		if (organization != null ? !organization.equals(user.organization) : user.organization != null) return false;
-		if (orgRole != null ? !orgRole.equals(user.orgRole) : user.orgRole != null) return false;
-		if (fourteenPlus != null ? !fourteenPlus.equals(user.fourteenPlus) : user.fourteenPlus != null) return false;
-		if (guardianFirstName != null ? !guardianFirstName.equals(user.guardianFirstName) : user.guardianFirstName != null)
-			return false;
-		if (guardianLastName != null ? !guardianLastName.equals(user.guardianLastName) : user.guardianLastName != null)
-			return false;
-		if (guardianEmail != null ? !guardianEmail.equals(user.guardianEmail) : user.guardianEmail != null)
-			return false;
-		if (guardianPhone != null ? !guardianPhone.equals(user.guardianPhone) : user.guardianPhone != null)
-			return false;
-		if (school != null ? !school.equals(user.school) : user.school != null) return false;
-		if (gradeLevel != user.gradeLevel) return false;
-		if (stateStudentId != null ? !stateStudentId.equals(user.stateStudentId) : user.stateStudentId != null)
-			return false;
-		if (orgStudentId != null ? !orgStudentId.equals(user.orgStudentId) : user.orgStudentId != null) return false;
-		return address != null ? address.equals(user.address) : user.address == null;
+		return id != null && id.equals(user.getId());
 	}
 
 	@Override
 	public int hashCode() {
-		int result = id != null ? id.hashCode() : 0;
-		result = 31 * result + (login != null ? login.hashCode() : 0);
-		result = 31 * result + (password != null ? password.hashCode() : 0);
-		result = 31 * result + (firstName != null ? firstName.hashCode() : 0);
-		result = 31 * result + (lastName != null ? lastName.hashCode() : 0);
-		result = 31 * result + (authority != null ? authority.hashCode() : 0);
-		result = 31 * result + (email != null ? email.hashCode() : 0);
-		result = 31 * result + (phoneNumber != null ? phoneNumber.hashCode() : 0);
-		result = 31 * result + (notes != null ? notes.hashCode() : 0);
-		result = 31 * result + (organization != null ? organization.hashCode() : 0);
-		result = 31 * result + (orgRole != null ? orgRole.hashCode() : 0);
-		result = 31 * result + (fourteenPlus != null ? fourteenPlus.hashCode() : 0);
-		result = 31 * result + (guardianFirstName != null ? guardianFirstName.hashCode() : 0);
-		result = 31 * result + (guardianLastName != null ? guardianLastName.hashCode() : 0);
-		result = 31 * result + (guardianEmail != null ? guardianEmail.hashCode() : 0);
-		result = 31 * result + (guardianPhone != null ? guardianPhone.hashCode() : 0);
-		result = 31 * result + (school != null ? school.hashCode() : 0);
-		result = 31 * result + (gradeLevel != null ? gradeLevel.hashCode() : 0);
-		result = 31 * result + (stateStudentId != null ? stateStudentId.hashCode() : 0);
-		result = 31 * result + (orgStudentId != null ? orgStudentId.hashCode() : 0);
-		return result;
+		return id != null ? id.hashCode() : 0;
 	}
 
 	@Override
@@ -330,7 +290,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
 			", email='" + email + '\'' +
 			", phoneNumber='" + phoneNumber + '\'' +
 			", notes='" + notes + '\'' +
-			", organization=" + organization +
+			", organizationId=" + (organization != null ? organization.getId() : null) +
 			", orgRole='" + orgRole + '\'' +
 			", fourteenPlus=" + fourteenPlus +
 			", guardianFirstName='" + guardianFirstName + '\'' +
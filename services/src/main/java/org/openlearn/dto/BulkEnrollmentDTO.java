@@ -0,0 +1,42 @@
+package org.openlearn.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * A DTO representing a request to enroll many students in a course at once
+ */
+public class BulkEnrollmentDTO {
+
+	@NotNull
+	private Long courseId;
+
+	@NotNull
+	@Size(min = 1, max = 1000)
+	private List<Long> studentIds;
+
+	public Long getCourseId() {
+		return courseId;
+	}
+
+	public void setCourseId(Long courseId) {
+		this.courseId = courseId;
+	}
+
+	public List<Long> getStudentIds() {
+		return studentIds;
+	}
+
+	public void setStudentIds(List<Long> studentIds) {
+		this.studentIds = studentIds;
+	}
+
+	@Override
+	public String toString() {
+		return "BulkEnrollmentDTO{" +
+			"courseId=" + courseId +
+			", studentIds=" + studentIds +
+			'}';
+	}
+}
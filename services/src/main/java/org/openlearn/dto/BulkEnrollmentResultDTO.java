@@ -0,0 +1,64 @@
+package org.openlearn.dto;
+
+/**
+ * A DTO representing the outcome of enrolling one student of a bulk enrollment
+ */
+public class BulkEnrollmentResultDTO {
+
+	public enum Status {
+		/** The student was enrolled */
+		ENROLLED,
+		/** The student was enrolled in the course already */
+		ALREADY_ENROLLED,
+		/** There is no student with the id in the organization of the course */
+		NOT_FOUND
+	}
+
+	private Long studentId;
+
+	private Long studentCourseId;
+
+	private Status status;
+
+	public BulkEnrollmentResultDTO() {
+	}
+
+	public BulkEnrollmentResultDTO(Long studentId, Long studentCourseId, Status status) {
+		this.studentId = studentId;
+		this.studentCourseId = studentCourseId;
+		this.status = status;
+	}
+
+	public Long getStudentId() {
+		return studentId;
+	}
+
+	public void setStudentId(Long studentId) {
+		this.studentId = studentId;
+	}
+
+	public Long getStudentCourseId() {
+		return studentCourseId;
+	}
+
+	public void setStudentCourseId(Long studentCourseId) {
+		this.studentCourseId = studentCourseId;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	@Override
+	public String toString() {
+		return "BulkEnrollmentResultDTO{" +
+			"studentId=" + studentId +
+			", studentCourseId=" + studentCourseId +
+			", status=" + status +
+			'}';
+	}
+}
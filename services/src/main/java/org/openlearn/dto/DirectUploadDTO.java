@@ -0,0 +1,43 @@
+package org.openlearn.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * A DTO representing a file a client uploads directly to storage
+ */
+public class DirectUploadDTO {
+
+	@NotNull
+	@Size(min = 1, max = 100)
+	@Pattern(regexp = "[^/\\\\]+")
+	private String fileName;
+
+	@Size(max = 100)
+	private String contentType;
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public void setContentType(String contentType) {
+		this.contentType = contentType;
+	}
+
+	@Override
+	public String toString() {
+		return "DirectUploadDTO{" +
+			"fileName='" + fileName + "'" +
+			", contentType='" + contentType + "'" +
+			"}";
+	}
+}
@@ -0,0 +1,50 @@
+package org.openlearn.dto;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+/**
+ * A DTO representing a short lived URL a client can use to transfer a file directly to or from storage
+ */
+public class PresignedUrlDTO {
+
+	private String url;
+
+	private String method;
+
+	private ZonedDateTime expiresAt;
+
+	private Map<String, String> headers;
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public ZonedDateTime getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(ZonedDateTime expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	public void setHeaders(Map<String, String> headers) {
+		this.headers = headers;
+	}
+}
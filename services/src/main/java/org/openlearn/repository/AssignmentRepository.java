@@ -3,6 +3,8 @@ package org.openlearn.repository;
 import org.openlearn.domain.Assignment;
 import org.openlearn.domain.Course;
 import org.openlearn.domain.Organization;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -12,6 +14,8 @@ import java.util.List;
  */
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
 
+	Slice<Assignment> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
 	List<Assignment> findByCourse(Course course);
 
 	boolean existsByCourse(Course course);
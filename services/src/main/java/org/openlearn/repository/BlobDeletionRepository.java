@@ -0,0 +1,16 @@
+package org.openlearn.repository;
+
+import org.openlearn.domain.BlobDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the BlobDeletion entity.
+ */
+public interface BlobDeletionRepository extends JpaRepository<BlobDeletion, Long> {
+
+	List<BlobDeletion> findByNextAttemptDateLessThanEqualOrderByNextAttemptDate(ZonedDateTime date, Pageable pageable);
+}
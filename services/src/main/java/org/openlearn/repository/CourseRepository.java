@@ -3,7 +3,13 @@ package org.openlearn.repository;
 import org.openlearn.domain.Course;
 import org.openlearn.domain.Organization;
 import org.openlearn.domain.Session;
+import org.openlearn.repository.projection.CourseRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -12,7 +18,18 @@ import java.util.List;
  */
 public interface CourseRepository extends JpaRepository<Course, Long> {
 
+	@Override
+	@EntityGraph(attributePaths = {"session", "instructor", "instructor.address"})
+	List<Course> findAll();
+
+	@EntityGraph(attributePaths = {"session", "instructor", "instructor.address"})
 	List<Course> findByOrganization(Organization organization);
 
 	boolean existsBySession(Session session);
+
+	@Query("select " + CourseRow.COLUMNS + " from Course c " + CourseRow.JOINS)
+	List<CourseRow> findAllRows();
+
+	@Query("select " + CourseRow.COLUMNS + " from Course c " + CourseRow.JOINS + " where c.id > :after order by c.id")
+	Slice<CourseRow> findRowsAfter(@Param("after") Long after, Pageable pageable);
 }
@@ -0,0 +1,42 @@
+package org.openlearn.repository;
+
+import org.openlearn.domain.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the FileBlob entity.
+ *
+ * Reference counts are only changed through the update statements below, which lock the blob's row until
+ * the transaction ends, so a blob can't be deleted while another upload is starting to share it.
+ */
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+	FileBlob findBySha256(String sha256);
+
+	@Query("select b.locator from FileBlob b where b.locator in :locators")
+	List<String> findLocatorsIn(@Param("locators") Collection<String> locators);
+
+	/**
+	 * @return the number of updated blobs, 0 if the blob was deleted in the meantime
+	 */
+	@Modifying
+	@Query("update FileBlob b set b.referenceCount = b.referenceCount + 1 where b.id = :id")
+	int incrementReferenceCount(@Param("id") Long id);
+
+	@Modifying
+	@Query("update FileBlob b set b.referenceCount = b.referenceCount - :count where b.id = :id")
+	int decrementReferenceCount(@Param("id") Long id, @Param("count") int count);
+
+	/**
+	 * @return the number of deleted blobs, 1 if the blob was deleted
+	 */
+	@Modifying
+	@Query("delete from FileBlob b where b.id = :id and b.referenceCount <= 0")
+	int deleteIfUnreferenced(@Param("id") Long id);
+}
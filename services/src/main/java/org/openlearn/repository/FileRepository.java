@@ -4,16 +4,31 @@ import org.openlearn.domain.Assignment;
 import org.openlearn.domain.FileInformation;
 import org.openlearn.domain.PortfolioItem;
 import org.openlearn.domain.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface FileRepository extends JpaRepository<FileInformation, Long>{
 	List<FileInformation> findByUser(User user);
 	List<FileInformation> findByUploadedByUser(User uploadedByUser);
+	@EntityGraph(attributePaths = {"uploadedByUser", "uploadedByUser.address", "assignment", "portfolioItem", "blob"})
 	List<FileInformation> findByAssignment(Assignment assignment);
+	@EntityGraph(attributePaths = {"uploadedByUser", "uploadedByUser.address", "assignment", "portfolioItem"})
 	List<FileInformation> findByPortfolioItem(PortfolioItem portfolioItem);
-	List<FileInformation> findByAssignmentAndUploadedByUser(Assignment assignment, User uploadedByUser);
+	@EntityGraph(attributePaths = {"uploadedByUser", "uploadedByUser.address", "assignment", "portfolioItem"})
+	// The assignment is optional, so a derived query would left join it and miss the assignment and uploader index
+	@Query("select f from FileInformation f where f.assignment = :assignment and f.uploadedByUser = :uploadedByUser")
+	List<FileInformation> findByAssignmentAndUploadedByUser(@Param("assignment") Assignment assignment,
+	                                                        @Param("uploadedByUser") User uploadedByUser);
+
+	FileInformation findFirstByLocatorAndBlobIsNull(String locator);
+
+	@Query("select f.locator from FileInformation f where f.blob is null and f.locator in :locators")
+	List<String> findLocatorsIn(@Param("locators") Collection<String> locators);
 
 	void deleteByPortfolioItem(PortfolioItem portfolioItem);
 	void deleteByAssignment(Assignment assignment);
@@ -3,6 +3,8 @@ package org.openlearn.repository;
 import org.openlearn.domain.Organization;
 import org.openlearn.domain.PortfolioItem;
 import org.openlearn.domain.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -12,6 +14,8 @@ import java.util.List;
  */
 public interface PortfolioItemRepository extends JpaRepository<PortfolioItem, Long> {
 
+	Slice<PortfolioItem> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
 	List<PortfolioItem> findByOrganization(Organization organization);
 
 	List<PortfolioItem> findByStudent(User student);
@@ -2,6 +2,8 @@ package org.openlearn.repository;
 
 import org.openlearn.domain.Organization;
 import org.openlearn.domain.Program;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -11,6 +13,8 @@ import java.util.List;
  */
 public interface ProgramRepository extends JpaRepository<Program, Long> {
 
+	Slice<Program> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
 	List<Program> findByOrganization(Organization organization);
 
 	boolean existsByOrganization(Organization organization);
@@ -3,6 +3,8 @@ package org.openlearn.repository;
 import org.openlearn.domain.Organization;
 import org.openlearn.domain.Program;
 import org.openlearn.domain.Session;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -12,6 +14,8 @@ import java.util.List;
  */
 public interface SessionRepository extends JpaRepository<Session, Long> {
 
+	Slice<Session> findByIdGreaterThanOrderByIdAsc(Long after, Pageable pageable);
+
 	List<Session> findByOrganization(Organization organization);
 
 	boolean existsByProgram(Program program);
@@ -3,7 +3,12 @@ package org.openlearn.repository;
 import org.openlearn.domain.Assignment;
 import org.openlearn.domain.StudentAssignment;
 import org.openlearn.domain.User;
+import org.openlearn.repository.projection.StudentRow;
+import org.openlearn.repository.projection.SubmissionRow;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -12,11 +17,19 @@ import java.util.List;
  */
 public interface StudentAssignmentRepository extends JpaRepository<StudentAssignment, Long> {
 
+	@EntityGraph(attributePaths = {"assignment"})
 	List<StudentAssignment> findByStudent(User student);
 
+	@EntityGraph(attributePaths = {"assignment"})
 	List<StudentAssignment> findByStudentAndAndOnPortfolio(User student, Boolean onPortfolio);
 
+	@EntityGraph(attributePaths = {"student", "student.address"})
 	List<StudentAssignment> findByAssignment(Assignment assignment);
 
 	void deleteByAssignment(Assignment assignment);
+
+	@Query("select x.id as id, x.assignment.id as assignmentId, x.grade as grade, x.complete as complete, "
+		+ "x.onPortfolio as onPortfolio, " + StudentRow.COLUMNS
+		+ " from StudentAssignment x join x.student s left join s.address sad where x.assignment.id = :assignmentId")
+	List<SubmissionRow> findRowsByAssignmentId(@Param("assignmentId") Long assignmentId);
 }
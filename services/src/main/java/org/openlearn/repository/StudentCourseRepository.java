@@ -3,8 +3,18 @@ package org.openlearn.repository;
 import org.openlearn.domain.Course;
 import org.openlearn.domain.StudentCourse;
 import org.openlearn.domain.User;
+import org.openlearn.repository.projection.CourseEnrollmentRow;
+import org.openlearn.repository.projection.CourseRow;
+import org.openlearn.repository.projection.StudentEnrollmentRow;
+import org.openlearn.repository.projection.StudentRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,13 +22,37 @@ import java.util.List;
  */
 public interface StudentCourseRepository extends JpaRepository<StudentCourse, Long> {
 
+	@EntityGraph(attributePaths = {"course", "course.session", "course.instructor", "course.instructor.address"})
 	List<StudentCourse> findByStudent(User student);
 
+	@EntityGraph(attributePaths = {"course"})
 	List<StudentCourse> findByStudentAndOnPortfolio(User student, Boolean onPortfolio);
 
+	@EntityGraph(attributePaths = {"student", "student.address"})
 	List<StudentCourse> findByCourse(Course course);
 
 	boolean existsByCourse(Course course);
 
 	StudentCourse findByStudentAndCourse(User student, Course course);
+
+	List<StudentCourse> findByCourseAndStudentIdIn(Course course, Collection<Long> studentIds);
+
+	@Query("select sc.id as id, sc.student.id as studentId, sc.grade as grade, sc.enrollDate as enrollDate, "
+		+ "sc.dropDate as dropDate, sc.complete as complete, sc.onPortfolio as onPortfolio, " + CourseRow.COLUMNS
+		+ " from StudentCourse sc join sc.course c " + CourseRow.JOINS + " where sc.student.id = :studentId")
+	List<StudentEnrollmentRow> findRowsByStudentId(@Param("studentId") Long studentId);
+
+	@Query("select sc.id as id, sc.course.id as courseId, sc.grade as grade, sc.enrollDate as enrollDate, "
+		+ "sc.dropDate as dropDate, sc.complete as complete, sc.onPortfolio as onPortfolio, " + StudentRow.COLUMNS
+		+ " from StudentCourse sc join sc.student s left join s.address sad where sc.course.id = :courseId")
+	List<CourseEnrollmentRow> findRowsByCourseId(@Param("courseId") Long courseId);
+
+	@Query("select sc.id as id, sc.course.id as courseId, sc.grade as grade, sc.enrollDate as enrollDate, "
+		+ "sc.dropDate as dropDate, sc.complete as complete, sc.onPortfolio as onPortfolio, " + StudentRow.COLUMNS
+		+ " from StudentCourse sc join sc.student s left join s.address sad"
+		+ " where sc.course.id = :courseId and sc.id > :after order by sc.id")
+	Slice<CourseEnrollmentRow> findRowsByCourseIdAfter(@Param("courseId") Long courseId, @Param("after") Long after,
+	                                                   Pageable pageable);
+
+	long countByCourse(Course course);
 }
@@ -3,10 +3,15 @@ package org.openlearn.repository;
 import org.openlearn.domain.Authority;
 import org.openlearn.domain.Organization;
 import org.openlearn.domain.User;
+import org.openlearn.repository.projection.StudentRow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,23 +19,50 @@ import java.util.List;
  */
 public interface UserRepository extends JpaRepository<User, Long> {
 
+	@EntityGraph(attributePaths = {"organization"})
 	User findOneByLogin(String login);
 
 	User findOneByIdAndAuthority(Long id, Authority authority);
 
+	@EntityGraph(attributePaths = {"address"})
 	List<User> findByAuthority(Authority authority);
 
-	List<User> findByOrganizationAndAuthority(Organization organization, Authority authority);
+	List<User> findByIdInAndAuthority(Collection<Long> ids, Authority authority);
+
+	// The organization is optional, so a derived query would left join it and miss the organization and authority index
+	@EntityGraph(attributePaths = {"address"})
+	@Query("select u from User u where u.organization = :organization and u.authority = :authority")
+	List<User> findByOrganizationAndAuthority(@Param("organization") Organization organization,
+	                                          @Param("authority") Authority authority);
+
+	@EntityGraph(attributePaths = {"address"})
+	Slice<User> findByAuthorityAndIdGreaterThanOrderByIdAsc(Authority authority, Long after, Pageable pageable);
+
+	@EntityGraph(attributePaths = {"address"})
+	@Query("select u from User u where u.organization = :organization and u.authority = :authority and u.id > :after"
+		+ " order by u.id")
+	Slice<User> findByOrganizationAndAuthorityAndIdGreaterThanOrderByIdAsc(@Param("organization") Organization organization,
+	                                                                      @Param("authority") Authority authority,
+	                                                                      @Param("after") Long after, Pageable pageable);
+
+	long countByAuthority(Authority authority);
+
+	@Query("select count(u) from User u where u.organization = :organization and u.authority = :authority")
+	long countByOrganizationAndAuthority(@Param("organization") Organization organization,
+	                                     @Param("authority") Authority authority);
 
 	boolean existsByOrganization(Organization organization);
 
-	@Query(nativeQuery = true,
-		countQuery = "Select count(*) from user where authority = 'ROLE_STUDENT'  and user.id not in (select student_id from student_course where course_id= :courseId)",
-		value = "Select * from user where authority = 'ROLE_STUDENT'  and user.id not in (select student_id from student_course where course_id= :courseId)")
-	List<User> findStudentsNotInCourse(@Param("courseId") Long courseId);
+	@Query("select " + StudentRow.COLUMNS + " from User s left join s.address sad where s.authority = :authority"
+		+ " and not exists (select sc.id from StudentCourse sc where sc.student = s and sc.course.id = :courseId)")
+	List<StudentRow> findRowsNotInCourse(@Param("courseId") Long courseId, @Param("authority") Authority authority);
 
-	@Query(nativeQuery = true,
-		countQuery = "Select count(*) from user where authority = 'ROLE_STUDENT' organization_id= :organizationId  and user.id not in (select student_id from student_course where course_id= :courseId)",
-		value = "Select * from user where authority = 'ROLE_STUDENT'  and organization_id= :organizationId and user.id not in (select student_id from student_course where course_id= :courseId)")
-	List<User> findStudentsNotInCourseByOrganization(@Param("courseId") Long courseId, @Param("organizationId") Long organizationId);
+	// The prefix is lower case, so the columns are too, to ignore case whatever their collation
+	@Query("select " + StudentRow.COLUMNS + " from User s left join s.address sad where s.authority = :authority"
+		+ " and s.id > :after and (lower(s.firstName) like :prefix escape '!' or lower(s.lastName) like :prefix escape '!'"
+		+ " or lower(s.login) like :prefix escape '!')"
+		+ " and not exists (select sc.id from StudentCourse sc where sc.student = s and sc.course.id = :courseId)"
+		+ " order by s.id")
+	Slice<StudentRow> findRowsNotInCourse(@Param("courseId") Long courseId, @Param("authority") Authority authority,
+	                                      @Param("prefix") String prefix, @Param("after") Long after, Pageable pageable);
 }
@@ -0,0 +1,23 @@
+package org.openlearn.repository.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * An enrollment in a course, with the enrolled student.
+ */
+public interface CourseEnrollmentRow extends StudentRow {
+
+	Long getId();
+
+	Long getCourseId();
+
+	String getGrade();
+
+	ZonedDateTime getEnrollDate();
+
+	ZonedDateTime getDropDate();
+
+	Boolean getComplete();
+
+	Boolean getOnPortfolio();
+}
@@ -0,0 +1,82 @@
+package org.openlearn.repository.projection;
+
+import org.openlearn.domain.enumeration.State;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The columns of a course, its session and its instructor shown in lists.
+ */
+public interface CourseRow {
+
+	/**
+	 * The select list of the columns, for queries joining the course as c, its session as se, its instructor
+	 * as i and the instructor's address as iad.
+	 */
+	String COLUMNS = "c.id as courseId, c.name as courseName, c.description as courseDescription, "
+		+ "c.startDate as courseStartDate, c.endDate as courseEndDate, c.locations as courseLocations, "
+		+ "c.times as courseTimes, se.id as sessionId, se.name as sessionName, se.description as sessionDescription, "
+		+ "se.startDate as sessionStartDate, se.endDate as sessionEndDate, se.program.id as sessionProgramId, "
+		+ "i.id as instructorId, i.login as instructorLogin, i.firstName as instructorFirstName, "
+		+ "i.lastName as instructorLastName, i.authority.name as instructorAuthority, i.email as instructorEmail, "
+		+ "i.phoneNumber as instructorPhoneNumber, i.notes as instructorNotes, "
+		+ "iad.streetAddress1 as instructorStreetAddress1, iad.streetAddress2 as instructorStreetAddress2, "
+		+ "iad.city as instructorCity, iad.state as instructorState, iad.postalCode as instructorPostalCode";
+
+	/**
+	 * The joins from the course c the columns are selected from.
+	 */
+	String JOINS = "join c.session se join c.instructor i left join i.address iad";
+
+	Long getCourseId();
+
+	String getCourseName();
+
+	String getCourseDescription();
+
+	ZonedDateTime getCourseStartDate();
+
+	ZonedDateTime getCourseEndDate();
+
+	String getCourseLocations();
+
+	String getCourseTimes();
+
+	Long getSessionId();
+
+	String getSessionName();
+
+	String getSessionDescription();
+
+	ZonedDateTime getSessionStartDate();
+
+	ZonedDateTime getSessionEndDate();
+
+	Long getSessionProgramId();
+
+	Long getInstructorId();
+
+	String getInstructorLogin();
+
+	String getInstructorFirstName();
+
+	String getInstructorLastName();
+
+	String getInstructorAuthority();
+
+	String getInstructorEmail();
+
+	String getInstructorPhoneNumber();
+
+	String getInstructorNotes();
+
+	String getInstructorStreetAddress1();
+
+	String getInstructorStreetAddress2();
+
+	String getInstructorCity();
+
+	State getInstructorState();
+
+	String getInstructorPostalCode();
+}
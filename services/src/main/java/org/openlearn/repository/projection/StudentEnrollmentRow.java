@@ -0,0 +1,23 @@
+package org.openlearn.repository.projection;
+
+import java.time.ZonedDateTime;
+
+/**
+ * An enrollment of a student, with the course enrolled in.
+ */
+public interface StudentEnrollmentRow extends CourseRow {
+
+	Long getId();
+
+	Long getStudentId();
+
+	String getGrade();
+
+	ZonedDateTime getEnrollDate();
+
+	ZonedDateTime getDropDate();
+
+	Boolean getComplete();
+
+	Boolean getOnPortfolio();
+}
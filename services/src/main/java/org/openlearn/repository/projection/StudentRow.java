@@ -0,0 +1,67 @@
+package org.openlearn.repository.projection;
+
+import org.openlearn.domain.enumeration.GradeLevel;
+import org.openlearn.domain.enumeration.State;
+
+/**
+ * The columns of a student and their address shown in lists.
+ */
+public interface StudentRow {
+
+	/**
+	 * The select list of the columns, for queries joining the student as s and their address as sad.
+	 */
+	String COLUMNS = "s.id as studentId, s.login as studentLogin, s.firstName as studentFirstName, "
+		+ "s.lastName as studentLastName, s.authority.name as studentAuthority, s.email as studentEmail, "
+		+ "s.phoneNumber as studentPhoneNumber, s.notes as studentNotes, s.organization.id as studentOrganizationId, "
+		+ "s.fourteenPlus as studentFourteenPlus, s.guardianFirstName as studentGuardianFirstName, "
+		+ "s.guardianLastName as studentGuardianLastName, s.guardianEmail as studentGuardianEmail, "
+		+ "s.guardianPhone as studentGuardianPhone, s.school as studentSchool, s.gradeLevel as studentGradeLevel, "
+		+ "s.stateStudentId as studentStateStudentId, sad.streetAddress1 as studentStreetAddress1, "
+		+ "sad.streetAddress2 as studentStreetAddress2, sad.city as studentCity, sad.state as studentState, "
+		+ "sad.postalCode as studentPostalCode";
+
+	Long getStudentId();
+
+	String getStudentLogin();
+
+	String getStudentFirstName();
+
+	String getStudentLastName();
+
+	String getStudentAuthority();
+
+	String getStudentEmail();
+
+	String getStudentPhoneNumber();
+
+	String getStudentNotes();
+
+	Long getStudentOrganizationId();
+
+	Boolean getStudentFourteenPlus();
+
+	String getStudentGuardianFirstName();
+
+	String getStudentGuardianLastName();
+
+	String getStudentGuardianEmail();
+
+	String getStudentGuardianPhone();
+
+	String getStudentSchool();
+
+	GradeLevel getStudentGradeLevel();
+
+	String getStudentStateStudentId();
+
+	String getStudentStreetAddress1();
+
+	String getStudentStreetAddress2();
+
+	String getStudentCity();
+
+	State getStudentState();
+
+	String getStudentPostalCode();
+}
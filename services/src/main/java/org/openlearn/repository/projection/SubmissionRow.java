@@ -0,0 +1,17 @@
+package org.openlearn.repository.projection;
+
+/**
+ * A student assignment of an assignment, with the student it belongs to.
+ */
+public interface SubmissionRow extends StudentRow {
+
+	Long getId();
+
+	Long getAssignmentId();
+
+	String getGrade();
+
+	Boolean getComplete();
+
+	Boolean getOnPortfolio();
+}
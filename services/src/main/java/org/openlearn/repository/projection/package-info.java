@@ -0,0 +1,4 @@
+/**
+ * Read-only rows selected by the list queries of the repositories, holding only the columns their DTOs need.
+ */
+package org.openlearn.repository.projection;
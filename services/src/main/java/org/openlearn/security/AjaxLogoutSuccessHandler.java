@@ -0,0 +1,52 @@
+package org.openlearn.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Logout success handler for Ajax logouts, revoking the access token the logout was requested with along
+ * with its refresh token.
+ */
+public class AjaxLogoutSuccessHandler extends io.github.jhipster.security.AjaxLogoutSuccessHandler {
+
+	private static final String BEARER_PREFIX = OAuth2AccessToken.BEARER_TYPE + " ";
+
+	private final TokenStore tokenStore;
+
+	public AjaxLogoutSuccessHandler(final TokenStore tokenStore) {
+		this.tokenStore = tokenStore;
+	}
+
+	@Override
+	public void onLogoutSuccess(final HttpServletRequest request, final HttpServletResponse response,
+								final Authentication authentication) throws IOException, ServletException {
+		String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+			OAuth2AccessToken token = tokenStore.readAccessToken(header.substring(BEARER_PREFIX.length()).trim());
+			if (token != null) {
+				OAuth2RefreshToken refreshToken = findRefreshToken(token);
+				if (refreshToken != null) tokenStore.removeRefreshToken(refreshToken);
+				tokenStore.removeAccessToken(token);
+			}
+		}
+		super.onLogoutSuccess(request, response, authentication);
+	}
+
+	private OAuth2RefreshToken findRefreshToken(final OAuth2AccessToken token) {
+		if (token.getRefreshToken() != null) return token.getRefreshToken();
+
+		// Signed tokens don't carry their refresh token, so look it up on the token as it was issued
+		OAuth2Authentication authentication = tokenStore.readAuthentication(token);
+		OAuth2AccessToken issued = authentication != null ? tokenStore.getAccessToken(authentication) : null;
+		return issued != null && issued.getValue().equals(token.getValue()) ? issued.getRefreshToken() : null;
+	}
+}
@@ -0,0 +1,165 @@
+package org.openlearn.security;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import javax.cache.Cache;
+import java.util.Collection;
+
+/**
+ * Token store caching the access tokens and authentications read from another token store, so
+ * authenticating a request doesn't cost a query and the deserialization of the token.
+ *
+ * Cached tokens are evicted once they expire and when they are removed through this store. Each node keeps
+ * its own cache, so a token removed on another node is only evicted here once its cache entry expires; the
+ * time to live of the caches bounds how long a revoked token remains usable.
+ */
+public class CachingTokenStore implements TokenStore {
+
+	public static final String ACCESS_TOKEN_CACHE = CachingTokenStore.class.getName() + ".accessTokens";
+
+	public static final String AUTHENTICATION_CACHE = CachingTokenStore.class.getName() + ".authentications";
+
+	public static final String REFRESH_TOKEN_INDEX_CACHE = CachingTokenStore.class.getName() + ".refreshTokenIndex";
+
+	private static final Logger log = LoggerFactory.getLogger(CachingTokenStore.class);
+
+	private static final String METRIC_PREFIX = "security.token-cache";
+
+	private final TokenStore delegate;
+
+	private final Cache<String, OAuth2AccessToken> accessTokens;
+
+	private final Cache<String, OAuth2Authentication> authentications;
+
+	// The access token cached for each refresh token, so refreshing evicts it without scanning the cache
+	private final Cache<String, String> refreshTokenIndex;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	public CachingTokenStore(final TokenStore delegate, final Cache<String, OAuth2AccessToken> accessTokens,
+							 final Cache<String, OAuth2Authentication> authentications,
+							 final Cache<String, String> refreshTokenIndex, final MetricRegistry metricRegistry) {
+		this.delegate = delegate;
+		this.accessTokens = accessTokens;
+		this.authentications = authentications;
+		this.refreshTokenIndex = refreshTokenIndex;
+		this.hits = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+		this.misses = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "hit-ratio"), new RatioGauge() {
+			@Override
+			protected Ratio getRatio() {
+				return Ratio.of(hits.getCount(), hits.getCount() + misses.getCount());
+			}
+		});
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(final String tokenValue) {
+		OAuth2AccessToken token = accessTokens.get(tokenValue);
+		if (token != null && !token.isExpired()) {
+			hits.inc();
+			return token;
+		}
+		if (token != null) evict(tokenValue);
+
+		misses.inc();
+		token = delegate.readAccessToken(tokenValue);
+		if (token != null && !token.isExpired()) cache(token);
+		return token;
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(final OAuth2AccessToken token) {
+		return readAuthentication(token.getValue());
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(final String tokenValue) {
+		OAuth2Authentication authentication = authentications.get(tokenValue);
+		if (authentication != null) {
+			hits.inc();
+			return authentication;
+		}
+
+		misses.inc();
+		authentication = delegate.readAuthentication(tokenValue);
+		if (authentication != null) authentications.put(tokenValue, authentication);
+		return authentication;
+	}
+
+	@Override
+	public void storeAccessToken(final OAuth2AccessToken token, final OAuth2Authentication authentication) {
+		delegate.storeAccessToken(token, authentication);
+		cache(token);
+		authentications.put(token.getValue(), authentication);
+	}
+
+	@Override
+	public void removeAccessToken(final OAuth2AccessToken token) {
+		evict(token.getValue());
+		delegate.removeAccessToken(token);
+	}
+
+	@Override
+	public void removeAccessTokenUsingRefreshToken(final OAuth2RefreshToken refreshToken) {
+		String tokenValue = refreshTokenIndex.getAndRemove(refreshToken.getValue());
+		if (tokenValue != null) evict(tokenValue);
+		delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+	}
+
+	@Override
+	public void storeRefreshToken(final OAuth2RefreshToken refreshToken, final OAuth2Authentication authentication) {
+		delegate.storeRefreshToken(refreshToken, authentication);
+	}
+
+	@Override
+	public OAuth2RefreshToken readRefreshToken(final String tokenValue) {
+		return delegate.readRefreshToken(tokenValue);
+	}
+
+	@Override
+	public OAuth2Authentication readAuthenticationForRefreshToken(final OAuth2RefreshToken token) {
+		return delegate.readAuthenticationForRefreshToken(token);
+	}
+
+	@Override
+	public void removeRefreshToken(final OAuth2RefreshToken token) {
+		delegate.removeRefreshToken(token);
+	}
+
+	@Override
+	public OAuth2AccessToken getAccessToken(final OAuth2Authentication authentication) {
+		return delegate.getAccessToken(authentication);
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(final String clientId, final String userName) {
+		return delegate.findTokensByClientIdAndUserName(clientId, userName);
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientId(final String clientId) {
+		return delegate.findTokensByClientId(clientId);
+	}
+
+	private void cache(final OAuth2AccessToken token) {
+		accessTokens.put(token.getValue(), token);
+		if (token.getRefreshToken() != null) refreshTokenIndex.put(token.getRefreshToken().getValue(), token.getValue());
+	}
+
+	private void evict(final String tokenValue) {
+		log.debug("Evicting cached access token");
+		accessTokens.remove(tokenValue);
+		authentications.remove(tokenValue);
+	}
+}
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,8 +24,11 @@ public class DomainUserDetailsService implements UserDetailsService {
 
 	private final UserRepository userRepository;
 
-	public DomainUserDetailsService(UserRepository userRepository) {
+	private final UserDetailsCache userDetailsCache;
+
+	public DomainUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
 		this.userRepository = userRepository;
+		this.userDetailsCache = userDetailsCache;
 	}
 
 	@Override
@@ -32,8 +36,14 @@ public class DomainUserDetailsService implements UserDetailsService {
 	public UserDetails loadUserByUsername(final String login) {
 		log.debug("Authenticating {}", login);
 		String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+		UserDetails userDetails = userDetailsCache.get(lowercaseLogin);
+		if (userDetails != null) return userDetails;
+
 		User user = userRepository.findOneByLogin(lowercaseLogin);
-		return new org.springframework.security.core.userdetails.User(lowercaseLogin, user.getPassword(),
+		if (user == null) throw new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database");
+		userDetails = new org.springframework.security.core.userdetails.User(lowercaseLogin, user.getPassword(),
 			Collections.singletonList(new SimpleGrantedAuthority(user.getAuthority().getName())));
+		userDetailsCache.put(userDetails);
+		return userDetails;
 	}
 }
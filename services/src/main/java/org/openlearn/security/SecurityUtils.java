@@ -1,19 +1,18 @@
 package org.openlearn.security;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
+
+import java.util.Map;
 
 /**
  * Utility class for Spring Security.
  */
 public final class SecurityUtils {
 
-	private static final Logger log = LoggerFactory.getLogger(SecurityUtils.class);
-
 	private SecurityUtils() {
 	}
 
@@ -34,10 +33,24 @@ public final class SecurityUtils {
 				userName = (String) authentication.getPrincipal();
 			}
 		}
-		log.warn("getCurrentUserLogin: " + userName);
 		return userName;
 	}
 
+	/**
+	 * Get the organization id of the current user, as carried by a signed access token.
+	 *
+	 * @return the organization id of the current user, or null if the user wasn't authenticated by a signed
+	 * access token or has no organization
+	 */
+	public static Long getCurrentUserOrganizationId() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication == null || !(authentication.getDetails() instanceof OAuth2AuthenticationDetails)) return null;
+		Object claims = ((OAuth2AuthenticationDetails) authentication.getDetails()).getDecodedDetails();
+		if (!(claims instanceof Map)) return null;
+		Object organizationId = ((Map<?, ?>) claims).get(SignedTokenConverter.ORGANIZATION_ID);
+		return organizationId instanceof Number ? ((Number) organizationId).longValue() : null;
+	}
+
 	/**
 	 * Check if a user is authenticated.
 	 *
@@ -0,0 +1,94 @@
+package org.openlearn.security;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.util.Collection;
+
+/**
+ * Token store for signed access tokens. Access tokens are read from their signed value alone; everything
+ * else, including storing the issued tokens and their refresh tokens and revoking them, goes to another
+ * token store.
+ *
+ * As reading a token never looks at the other store, a revoked access token stays usable until it expires,
+ * so signed tokens should be issued with a short validity. Revoking the refresh token still keeps new access
+ * tokens from being issued.
+ */
+public class SignedTokenStore implements TokenStore {
+
+	private final TokenStore delegate;
+
+	private final SignedTokenConverter signedTokenConverter;
+
+	public SignedTokenStore(final TokenStore delegate, final SignedTokenConverter signedTokenConverter) {
+		this.delegate = delegate;
+		this.signedTokenConverter = signedTokenConverter;
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(final String tokenValue) {
+		return signedTokenConverter.readAccessToken(tokenValue);
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(final OAuth2AccessToken token) {
+		return readAuthentication(token.getValue());
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(final String tokenValue) {
+		return signedTokenConverter.readAuthentication(tokenValue);
+	}
+
+	@Override
+	public void storeAccessToken(final OAuth2AccessToken token, final OAuth2Authentication authentication) {
+		delegate.storeAccessToken(token, authentication);
+	}
+
+	@Override
+	public void removeAccessToken(final OAuth2AccessToken token) {
+		delegate.removeAccessToken(token);
+	}
+
+	@Override
+	public void removeAccessTokenUsingRefreshToken(final OAuth2RefreshToken refreshToken) {
+		delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+	}
+
+	@Override
+	public void storeRefreshToken(final OAuth2RefreshToken refreshToken, final OAuth2Authentication authentication) {
+		delegate.storeRefreshToken(refreshToken, authentication);
+	}
+
+	@Override
+	public OAuth2RefreshToken readRefreshToken(final String tokenValue) {
+		return delegate.readRefreshToken(tokenValue);
+	}
+
+	@Override
+	public OAuth2Authentication readAuthenticationForRefreshToken(final OAuth2RefreshToken token) {
+		return delegate.readAuthenticationForRefreshToken(token);
+	}
+
+	@Override
+	public void removeRefreshToken(final OAuth2RefreshToken token) {
+		delegate.removeRefreshToken(token);
+	}
+
+	@Override
+	public OAuth2AccessToken getAccessToken(final OAuth2Authentication authentication) {
+		return delegate.getAccessToken(authentication);
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(final String clientId, final String userName) {
+		return delegate.findTokensByClientIdAndUserName(clientId, userName);
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientId(final String clientId) {
+		return delegate.findTokensByClientId(clientId);
+	}
+}
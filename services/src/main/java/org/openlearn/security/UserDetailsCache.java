@@ -0,0 +1,81 @@
+package org.openlearn.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ * Cache of the details users authenticate with, by lowercase login.
+ *
+ * The cache hands out copies, as authenticating erases the password of the details it was given. Every
+ * change to a user's login, password or authority has to go through {@link #evictAll()}. Each node keeps its
+ * own cache, so other nodes only pick up a change once their entries expire, after
+ * {@code application.security.user-details-cache-time-to-live}.
+ */
+@Component
+public class UserDetailsCache {
+
+	public static final String CACHE = UserDetailsCache.class.getName();
+
+	private static final Logger log = LoggerFactory.getLogger(UserDetailsCache.class);
+
+	private final Cache<String, UserDetails> cache;
+
+	public UserDetailsCache(final CacheManager cacheManager) {
+		this.cache = cacheManager.getCache(CACHE);
+	}
+
+	/**
+	 * Get the cached details of a user.
+	 *
+	 * @param login the lowercase login of the user
+	 * @return a copy of the details, or null if they aren't cached
+	 */
+	public UserDetails get(final String login) {
+		UserDetails userDetails = cache.get(login);
+		return userDetails != null ? copy(userDetails) : null;
+	}
+
+	/**
+	 * Cache the details of a user.
+	 *
+	 * @param userDetails the details to cache; a copy is cached
+	 */
+	public void put(final UserDetails userDetails) {
+		cache.put(userDetails.getUsername(), copy(userDetails));
+	}
+
+	/**
+	 * Evict the details of all users once the current transaction commits, or right away outside of a
+	 * transaction. Changes to users are rare, so they evict every entry rather than tracking the previous
+	 * login of a user.
+	 */
+	public void evictAll() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			clear();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				clear();
+			}
+		});
+	}
+
+	private void clear() {
+		log.debug("Evicting all cached user details");
+		cache.removeAll();
+	}
+
+	private static UserDetails copy(final UserDetails userDetails) {
+		return new User(userDetails.getUsername(), userDetails.getPassword(), userDetails.getAuthorities());
+	}
+}
@@ -6,6 +6,7 @@ import org.openlearn.dto.AdminDTO;
 import org.openlearn.repository.AddressRepository;
 import org.openlearn.repository.UserRepository;
 import org.openlearn.security.AuthoritiesConstants;
+import org.openlearn.security.UserDetailsCache;
 import org.openlearn.transformer.AdminTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,10 +33,14 @@ public class AdminService {
 
 	private final AddressRepository addressRepository;
 
-	public AdminService(final AdminTransformer adminTransformer, final UserRepository userRepository, final AddressRepository addressRepository) {
+	private final UserDetailsCache userDetailsCache;
+
+	public AdminService(final AdminTransformer adminTransformer, final UserRepository userRepository, final AddressRepository addressRepository,
+	                    final UserDetailsCache userDetailsCache) {
 		this.adminTransformer = adminTransformer;
 		this.userRepository = userRepository;
 		this.addressRepository = addressRepository;
+		this.userDetailsCache = userDetailsCache;
 	}
 
 	/**
@@ -47,6 +52,7 @@ public class AdminService {
 	public AdminDTO save(final AdminDTO adminDTO) {
 		log.debug("Request to save admin : {}", adminDTO);
 		User user = userRepository.save(adminTransformer.transform(adminDTO));
+		userDetailsCache.evictAll();
 		if (user.getAddress() != null) addressRepository.save(user.getAddress());
 		return adminTransformer.transform(user);
 	}
@@ -89,6 +95,7 @@ public class AdminService {
 			// TODO: Use Address service
 			if (admin.getAddress() != null) addressRepository.delete(admin.getAddress().getId());
 			userRepository.delete(id);
+			userDetailsCache.evictAll();
 		} else {
 			// TODO: Error handling / logging
 		}
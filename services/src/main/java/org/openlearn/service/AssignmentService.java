@@ -13,6 +13,8 @@ import org.openlearn.web.rest.errors.AccessDeniedException;
 import org.openlearn.web.rest.errors.AssignmentNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,24 +40,28 @@ public class AssignmentService {
 
 	private final StudentCourseRepository studentCourseRepository;
 
-	private final UserService userService;
-
 	private final FileInformationService fileInformationService;
 
+	private final CoursePermissionService coursePermissionService;
+
+	private final CountCache countCache;
+
 	public AssignmentService(final AssignmentRepository assignmentRepository,
 	                         final AssignmentTransformer assignmentTransformer,
 	                         final CourseRepository courseRepository,
 							 final StudentAssignmentRepository studentAssignmentRepository,
 							 final StudentCourseRepository studentCourseRepository,
-							 final UserService userService,
-							 final FileInformationService fileInformationService) {
+							 final FileInformationService fileInformationService,
+							 final CoursePermissionService coursePermissionService,
+	                         final CountCache countCache) {
 		this.assignmentRepository = assignmentRepository;
 		this.assignmentTransformer = assignmentTransformer;
 		this.courseRepository = courseRepository;
 		this.studentAssignmentRepository = studentAssignmentRepository;
 		this.studentCourseRepository = studentCourseRepository;
-		this.userService = userService;
 		this.fileInformationService = fileInformationService;
+		this.coursePermissionService = coursePermissionService;
+		this.countCache = countCache;
 	}
 
 	public AssignmentDTO create(final AssignmentDTO assignmentDTO) {
@@ -107,18 +113,35 @@ public class AssignmentService {
 	@Transactional(readOnly = true)
 	public List<AssignmentDTO> findAll() {
 		log.debug("Request to get all Assignments");
-		User user = userService.getCurrentUser();
-		if (SecurityUtils.isAdmin()) {
-			return assignmentRepository.findAll()
-				.stream()
-				.map(assignmentTransformer::transform)
-				.collect(Collectors.toList());
-		} else {
-			return assignmentRepository.findByOrganization(user.getOrganization())
-				.stream()
-				.map(assignmentTransformer::transform)
-				.collect(Collectors.toList());
-		}
+		// Users other than admins only read the assignments of their organization through the organization filter
+		return assignmentRepository.findAll()
+			.stream()
+			.map(assignmentTransformer::transform)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a page of the assignments.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of assignments
+	 */
+	@Transactional(readOnly = true)
+	public Slice<AssignmentDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get assignments after : {}", after);
+		return assignmentRepository.findByIdGreaterThanOrderByIdAsc(after, pageable)
+			.map(assignmentTransformer::transform);
+	}
+
+	/**
+	 * Count the assignments.
+	 *
+	 * @return the number of assignments, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		return countCache.get("assignments", assignmentRepository::count);
 	}
 
 	/**
@@ -166,14 +189,12 @@ public class AssignmentService {
 	public void delete(final Long id) {
 		log.debug("Request to delete Assignment : {}", id);
 		Assignment assignment = assignmentRepository.findOne(id);
-		User user = userService.getCurrentUser();
 
 		if (assignment == null) throw new AssignmentNotFoundException(id);
 
 		boolean instructorCheck = true;
 		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
-			Course course = assignment.getCourse();
-			instructorCheck = user.getId().equals(course.getInstructor().getId());
+			instructorCheck = coursePermissionService.getCurrentUserPermissions(assignment.getCourse().getId()).isInstructor();
 		}
 
 		if (instructorCheck && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(assignment))) {
@@ -186,34 +207,23 @@ public class AssignmentService {
 	}
 
 	public boolean inOrgOfCurrentUser(final AssignmentDTO assignmentDTO) {
-		User user = userService.getCurrentUser();
-		Course course = courseRepository.findOne(assignmentDTO.getCourseId());
-		return course != null && user.getOrganization().equals(course.getSession().getProgram().getOrganization());
+		return coursePermissionService.getCurrentUserPermissions(assignmentDTO.getCourseId()).isInOrganization();
 	}
 
 	public boolean inOrgOfCurrentUser(final Assignment assignment) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(assignment.getCourse().getSession().getProgram().getOrganization());
+		return coursePermissionService.getCurrentUserPermissions(assignment.getCourse().getId()).isInOrganization();
 	}
 
 	public boolean inOrgOfCurrentUser(final Course course) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(course.getOrganization());
+		return coursePermissionService.getCurrentUserPermissions(course.getId()).isInOrganization();
 	}
 
 	public boolean currentUserIsCourseInstructor(final AssignmentDTO assignmentDTO) {
-		User user = userService.getCurrentUser();
-		Course course = courseRepository.findOne(assignmentDTO.getCourseId());
-
-		return user.equals(course.getInstructor());
+		return coursePermissionService.getCurrentUserPermissions(assignmentDTO.getCourseId()).isInstructor();
 	}
 
 	public boolean currentUserIsEnrolledIn(final AssignmentDTO assignmentDTO) {
-		User user = userService.getCurrentUser();
-		Course course = courseRepository.findOne(assignmentDTO.getCourseId());
-		StudentCourse studentCourse = studentCourseRepository.findByStudentAndCourse(user, course);
-
-		return studentCourse != null;
+		return coursePermissionService.getCurrentUserPermissions(assignmentDTO.getCourseId()).isEnrolled();
 	}
 
 	public boolean canUpdate(AssignmentDTO assignmentDTO) {
@@ -223,11 +233,9 @@ public class AssignmentService {
 	}
 
 	public boolean canCreate(AssignmentDTO assignmentDTO) {
-		User user = userService.getCurrentUser();
 		boolean isInstructor = false;
 		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
-			Course course = courseRepository.findOne(assignmentDTO.getCourseId());
-			isInstructor = user.getId().equals(course.getInstructor().getId());
+			isInstructor = currentUserIsCourseInstructor(assignmentDTO);
 		}
 
 		return isInstructor || (SecurityUtils.isAdmin() || inOrgOfCurrentUser(assignmentDTO));
@@ -0,0 +1,159 @@
+package org.openlearn.service;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.openlearn.config.ApplicationProperties;
+import org.openlearn.domain.BlobDeletion;
+import org.openlearn.repository.BlobDeletionRepository;
+import org.openlearn.repository.FileBlobRepository;
+import org.openlearn.repository.FileRepository;
+import org.openlearn.storage.BlobDeletionException;
+import org.openlearn.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Service for deleting stored files in the background.
+ *
+ * Files are queued for deletion in the transaction that deletes their file information, so a delete never
+ * waits on, nor is rolled back by, the storage backend. The queue is drained in batches by a scheduled
+ * worker; files that could not be deleted are retried with an exponential backoff. Deleting a file twice
+ * is harmless, so several nodes may drain the queue at once.
+ */
+@Service
+@Transactional
+public class BlobDeletionService {
+
+	private static final Logger log = LoggerFactory.getLogger(BlobDeletionService.class);
+
+	private static final String METRIC_PREFIX = "uploads.deletion";
+
+	private final BlobDeletionRepository blobDeletionRepository;
+
+	private final FileRepository fileRepository;
+
+	private final FileBlobRepository fileBlobRepository;
+
+	private final BlobStore blobStore;
+
+	private final ApplicationProperties.Uploads properties;
+
+	private final Counter deleted;
+
+	private final Counter failed;
+
+	private final Timer batchTimer;
+
+	private final AtomicLong pending = new AtomicLong();
+
+	public BlobDeletionService(final BlobDeletionRepository blobDeletionRepository,
+							   final FileRepository fileRepository,
+							   final FileBlobRepository fileBlobRepository,
+							   final BlobStore blobStore,
+							   final ApplicationProperties applicationProperties,
+							   final MetricRegistry metricRegistry) {
+		this.blobDeletionRepository = blobDeletionRepository;
+		this.fileRepository = fileRepository;
+		this.fileBlobRepository = fileBlobRepository;
+		this.blobStore = blobStore;
+		this.properties = applicationProperties.getUploads();
+		this.deleted = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "deleted"));
+		this.failed = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "failed"));
+		this.batchTimer = metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, "batch"));
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "pending"), (Gauge<Long>) pending::get);
+	}
+
+	/**
+	 * Queue stored files for deletion. The files are deleted once the current transaction commits.
+	 *
+	 * @param locators the locators of the files
+	 */
+	public void enqueue(final Collection<String> locators) {
+		log.debug("Request to queue {} files for deletion", locators.size());
+		blobDeletionRepository.save(locators.stream().map(BlobDeletion::new).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Delete the queued files that are due, one batch at a time until the queue holds no more due files.
+	 * Each batch is read and updated in its own short transaction; no transaction is held open while
+	 * talking to the storage backend.
+	 */
+	@Scheduled(fixedDelayString = "${application.uploads.deletion-interval:10000}")
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void processDeletions() {
+		List<BlobDeletion> batch;
+		do {
+			batch = blobDeletionRepository.findByNextAttemptDateLessThanEqualOrderByNextAttemptDate(
+				ZonedDateTime.now(), new PageRequest(0, properties.getDeletionBatchSize()));
+			if (!batch.isEmpty()) {
+				Timer.Context context = batchTimer.time();
+				try {
+					process(batch);
+				} finally {
+					context.stop();
+				}
+			}
+		} while (batch.size() == properties.getDeletionBatchSize());
+		pending.set(blobDeletionRepository.count());
+	}
+
+	private void process(final List<BlobDeletion> batch) {
+		Set<String> locators = batch.stream().map(BlobDeletion::getLocator).collect(Collectors.toSet());
+		// A file uploaded again under a queued locator is in use, so it must be kept
+		Set<String> inUse = new HashSet<>(fileRepository.findLocatorsIn(locators));
+		inUse.addAll(fileBlobRepository.findLocatorsIn(locators));
+		locators.removeAll(inUse);
+		if (!inUse.isEmpty()) log.debug("Keeping {} queued files that are in use again", inUse.size());
+
+		Collection<String> failedLocators = Collections.emptySet();
+		String error = null;
+		try {
+			blobStore.deleteAll(locators);
+		} catch (BlobDeletionException e) {
+			failedLocators = new HashSet<>(e.getFailedLocators());
+			error = e.getMessage();
+		} catch (IOException e) {
+			failedLocators = locators;
+			error = e.getMessage();
+		}
+
+		List<BlobDeletion> done = new ArrayList<>();
+		List<BlobDeletion> retries = new ArrayList<>();
+		for (BlobDeletion deletion : batch) {
+			if (failedLocators.contains(deletion.getLocator())) {
+				retries.add(backOff(deletion, error));
+			} else {
+				done.add(deletion);
+			}
+		}
+		blobDeletionRepository.deleteInBatch(done);
+		blobDeletionRepository.save(retries);
+
+		deleted.inc(locators.size() - failedLocators.size());
+		failed.inc(failedLocators.size());
+		if (!retries.isEmpty()) log.warn("Could not delete {} files, retrying later: {}", retries.size(), error);
+	}
+
+	private BlobDeletion backOff(final BlobDeletion deletion, final String error) {
+		int attempts = deletion.getAttempts() + 1;
+		long delay = Math.min(properties.getDeletionInitialBackoff() << Math.min(attempts - 1, 20),
+			properties.getDeletionMaxBackoff());
+		deletion.setAttempts(attempts);
+		deletion.setNextAttemptDate(ZonedDateTime.now().plusSeconds(delay));
+		deletion.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+		return deletion;
+	}
+}
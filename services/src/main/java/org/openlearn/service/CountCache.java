@@ -0,0 +1,55 @@
+package org.openlearn.service;
+
+import org.openlearn.security.SecurityUtils;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the total counts reported next to the pages of the collection endpoints.
+ *
+ * A count is cached per collection and per organization, as users other than admins only count the
+ * entities of their own organization. Counts aren't evicted when entities are created or deleted, so they
+ * may be off by the changes of the last few seconds.
+ */
+@Component
+public class CountCache {
+
+	public static final String CACHE = CountCache.class.getName();
+
+	private static final String ALL_ORGANIZATIONS = "*";
+
+	private final Cache<String, Long> cache;
+
+	private final UserService userService;
+
+	public CountCache(final CacheManager cacheManager, final UserService userService) {
+		this.cache = cacheManager.getCache(CACHE);
+		this.userService = userService;
+	}
+
+	/**
+	 * Get the cached count of a collection as seen by the current user, counting it if it isn't cached.
+	 *
+	 * @param collection the name of the collection, unique across endpoints
+	 * @param count the query counting the collection
+	 * @return the count
+	 */
+	public long get(final String collection, final Supplier<Long> count) {
+		String key = collection + ":" + scope();
+		Long total = cache.get(key);
+		if (total == null) {
+			total = count.get();
+			cache.put(key, total);
+		}
+		return total;
+	}
+
+	private String scope() {
+		if (SecurityUtils.isAdmin()) return ALL_ORGANIZATIONS;
+		Long organizationId = userService.getCurrentUserOrganizationId();
+		return organizationId != null ? organizationId.toString() : "";
+	}
+}
@@ -0,0 +1,192 @@
+package org.openlearn.service;
+
+import org.openlearn.domain.Course;
+import org.openlearn.domain.Organization;
+import org.openlearn.domain.User;
+import org.openlearn.repository.CourseRepository;
+import org.openlearn.repository.StudentCourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service deciding what a user may do in a course, for the course scoped authorization checks.
+ *
+ * The decisions are cached by user and course. Changes to enrollments, courses and the sessions and programs
+ * they belong to evict the affected decisions once their transaction commits; a user moving to another
+ * organization is picked up by comparing the organization the decision was made for.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CoursePermissionService {
+
+	public static final String CACHE = CoursePermissionService.class.getName();
+
+	private static final Logger log = LoggerFactory.getLogger(CoursePermissionService.class);
+
+	private final CourseRepository courseRepository;
+
+	private final StudentCourseRepository studentCourseRepository;
+
+	private final UserService userService;
+
+	private final Cache<String, CoursePermissions> cache;
+
+	public CoursePermissionService(final CourseRepository courseRepository,
+								   final StudentCourseRepository studentCourseRepository,
+								   final UserService userService,
+								   final CacheManager cacheManager) {
+		this.courseRepository = courseRepository;
+		this.studentCourseRepository = studentCourseRepository;
+		this.userService = userService;
+		this.cache = cacheManager.getCache(CACHE);
+	}
+
+	/**
+	 * Get what the current user may do in a course.
+	 *
+	 * @param courseId the id of the course
+	 * @return the permissions of the current user in the course
+	 */
+	public CoursePermissions getCurrentUserPermissions(final Long courseId) {
+		return getPermissions(userService.getCurrentUser(), courseId);
+	}
+
+	/**
+	 * Get what a user may do in a course.
+	 *
+	 * @param user the user
+	 * @param courseId the id of the course
+	 * @return the permissions of the user in the course
+	 */
+	public CoursePermissions getPermissions(final User user, final Long courseId) {
+		if (user == null || courseId == null) return CoursePermissions.NONE;
+
+		String key = key(user.getId(), courseId);
+		Long organizationId = user.getOrganization() != null ? user.getOrganization().getId() : null;
+		CoursePermissions permissions = cache.get(key);
+		if (permissions != null && Objects.equals(permissions.organizationId, organizationId)) return permissions;
+
+		log.debug("Request to get permissions of User : {} in Course : {}", user.getId(), courseId);
+		Course course = courseRepository.findOne(courseId);
+		if (course == null) return CoursePermissions.NONE;
+
+		Organization organization = course.getSession().getProgram().getOrganization();
+		permissions = new CoursePermissions(organizationId,
+			studentCourseRepository.findByStudentAndCourse(user, course) != null,
+			course.getInstructor() != null && course.getInstructor().getId().equals(user.getId()),
+			organizationId != null && organization != null && organizationId.equals(organization.getId()));
+		cache.put(key, permissions);
+		return permissions;
+	}
+
+	/**
+	 * Evict the permissions of a user in a course once the current transaction commits, after enrolling or
+	 * unenrolling the user.
+	 *
+	 * @param userId the id of the user
+	 * @param courseId the id of the course
+	 */
+	public void evict(final Long userId, final Long courseId) {
+		afterCommit(() -> cache.remove(key(userId, courseId)));
+	}
+
+	/**
+	 * Evict the permissions of all users in a course once the current transaction commits, after changing
+	 * the instructor or organization of the course.
+	 *
+	 * @param courseId the id of the course
+	 */
+	public void evictCourse(final Long courseId) {
+		String suffix = ":" + courseId;
+		afterCommit(() -> {
+			List<String> keys = new ArrayList<>();
+			for (Cache.Entry<String, CoursePermissions> entry : cache) {
+				if (entry.getKey().endsWith(suffix)) keys.add(entry.getKey());
+			}
+			keys.forEach(cache::remove);
+		});
+	}
+
+	/**
+	 * Evict all permissions once the current transaction commits, after moving sessions or programs, which
+	 * may move whole courses to another organization.
+	 */
+	public void evictAll() {
+		afterCommit(cache::removeAll);
+	}
+
+	private static String key(final Long userId, final Long courseId) {
+		return userId + ":" + courseId;
+	}
+
+	private static void afterCommit(final Runnable eviction) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			eviction.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				eviction.run();
+			}
+		});
+	}
+
+	/**
+	 * What a user may do in a course.
+	 */
+	public static class CoursePermissions implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final CoursePermissions NONE = new CoursePermissions(null, false, false, false);
+
+		private final Long organizationId;
+
+		private final boolean enrolled;
+
+		private final boolean instructor;
+
+		private final boolean inOrganization;
+
+		private CoursePermissions(final Long organizationId, final boolean enrolled, final boolean instructor,
+								  final boolean inOrganization) {
+			this.organizationId = organizationId;
+			this.enrolled = enrolled;
+			this.instructor = instructor;
+			this.inOrganization = inOrganization;
+		}
+
+		/**
+		 * @return whether the user is enrolled in the course as a student
+		 */
+		public boolean isEnrolled() {
+			return enrolled;
+		}
+
+		/**
+		 * @return whether the user is the instructor of the course
+		 */
+		public boolean isInstructor() {
+			return instructor;
+		}
+
+		/**
+		 * @return whether the user belongs to the organization of the course
+		 */
+		public boolean isInOrganization() {
+			return inOrganization;
+		}
+	}
+}
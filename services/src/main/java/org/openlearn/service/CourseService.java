@@ -14,6 +14,8 @@ import org.openlearn.transformer.CourseTransformer;
 import org.openlearn.web.rest.errors.ItemHasChildrenException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -41,18 +43,26 @@ public class CourseService {
 
 	private final StudentCourseRepository studentCourseRepository;
 
+	private final CoursePermissionService coursePermissionService;
+
+	private final CountCache countCache;
+
 	public CourseService(final CourseRepository courseRepository,
 						 final CourseTransformer courseTransformer,
 	                     final SessionRepository sessionRepository,
 						 final UserService userService,
 						 final AssignmentRepository assignmentRepository,
-						 final StudentCourseRepository studentCourseRepository) {
+						 final StudentCourseRepository studentCourseRepository,
+						 final CoursePermissionService coursePermissionService,
+						 final CountCache countCache) {
 		this.courseRepository = courseRepository;
 		this.courseTransformer = courseTransformer;
 		this.sessionRepository = sessionRepository;
 		this.userService = userService;
 		this.assignmentRepository = assignmentRepository;
 		this.studentCourseRepository = studentCourseRepository;
+		this.coursePermissionService = coursePermissionService;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -67,6 +77,7 @@ public class CourseService {
 		boolean instructorCheck = true;
 		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) instructorCheck = user.getId() == courseDTO.getInstructorId();
 		if ((SecurityUtils.isAdmin() || inOrgOfCurrentUser(courseDTO)) && instructorCheck) {
+			if (courseDTO.getId() != null) coursePermissionService.evictCourse(courseDTO.getId());
 			return courseTransformer.transform(courseRepository.save(courseTransformer.transform(courseDTO)));
 		}
 		// TODO: Error handling / logging
@@ -81,18 +92,35 @@ public class CourseService {
 	@Transactional(readOnly = true)
 	public List<CourseDTO> findAll() {
 		log.debug("Request to get all Courses");
-		User user = userService.getCurrentUser();
-		if (SecurityUtils.isAdmin()) {
-			return courseRepository.findAll()
-				.stream()
-				.map(courseTransformer::transform)
-				.collect(Collectors.toList());
-		} else {
-			return courseRepository.findByOrganization(user.getOrganization())
-				.stream()
-				.map(courseTransformer::transform)
-				.collect(Collectors.toList());
-		}
+		// Users other than admins only read the courses of their organization through the organization filter
+		return courseRepository.findAllRows()
+			.stream()
+			.map(courseTransformer::transform)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a page of the courses.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of courses
+	 */
+	@Transactional(readOnly = true)
+	public Slice<CourseDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get courses after : {}", after);
+		return courseRepository.findRowsAfter(after, pageable)
+			.map(courseTransformer::transform);
+	}
+
+	/**
+	 * Count the courses.
+	 *
+	 * @return the number of courses, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		return countCache.get("courses", courseRepository::count);
 	}
 
 	/**
@@ -130,19 +158,18 @@ public class CourseService {
 			}
 
 			courseRepository.delete(id);
+			coursePermissionService.evictCourse(id);
 		} else {
 			// TODO: Error handling / logging
 		}
 	}
 
 	private boolean inOrgOfCurrentUser(final CourseDTO courseDTO) {
-		User user = userService.getCurrentUser();
 		Session session = sessionRepository.findOne(courseDTO.getSessionId());
-		return session != null && user.getOrganization().equals(session.getProgram().getOrganization());
+		return session != null && userService.isOrganizationOfCurrentUser(session.getProgram().getOrganization());
 	}
 
 	private boolean inOrgOfCurrentUser(final Course course) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(course.getSession().getProgram().getOrganization());
+		return userService.isOrganizationOfCurrentUser(course.getSession().getProgram().getOrganization());
 	}
 }
@@ -139,7 +139,6 @@ public class FileInformationService {
 	 */
 	public void deleteByPortfolioItem(PortfolioItem portfolioItem) {
 		storageService.deleteUploads(fileRepository.findByPortfolioItem(portfolioItem));
-		fileRepository.deleteByPortfolioItem(portfolioItem);
 	}
 
 	/**
@@ -149,7 +148,6 @@ public class FileInformationService {
 	 */
 	public void deleteByAssignment(Assignment assignment) {
 		storageService.deleteUploads(fileRepository.findByAssignment(assignment));
-		fileRepository.deleteByAssignment(assignment);
 	}
 
 	public Boolean isUploadedByCurrentUser(FileInformationDTO fileInformationDTO) {
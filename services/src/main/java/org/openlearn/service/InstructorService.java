@@ -7,9 +7,12 @@ import org.openlearn.repository.AddressRepository;
 import org.openlearn.repository.UserRepository;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
+import org.openlearn.security.UserDetailsCache;
 import org.openlearn.transformer.InstructorTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,14 +36,21 @@ public class InstructorService {
 
 	private final AddressRepository addressRepository;
 
+	private final UserDetailsCache userDetailsCache;
+
 	private final UserService userService;
 
+	private final CountCache countCache;
+
 	public InstructorService(final InstructorTransformer instructorTransformer, final UserRepository userRepository, final AddressRepository addressRepository,
-	                         final UserService userService) {
+	                         final UserService userService, final UserDetailsCache userDetailsCache,
+	                         final CountCache countCache) {
 		this.instructorTransformer = instructorTransformer;
 		this.userRepository = userRepository;
 		this.userService = userService;
 		this.addressRepository = addressRepository;
+		this.userDetailsCache = userDetailsCache;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -54,6 +64,7 @@ public class InstructorService {
 		if (AuthoritiesConstants.INSTRUCTOR.equals(instructorDTO.getAuthority())
 			&& (SecurityUtils.isAdmin() || inOrgOfCurrentUser(instructorDTO))) {
 			User user = userRepository.save(instructorTransformer.transform(instructorDTO));
+			userDetailsCache.evictAll();
 			if (user.getAddress() != null) addressRepository.save(user.getAddress());
 			return instructorTransformer.transform(user);
 		}
@@ -83,6 +94,39 @@ public class InstructorService {
 		}
 	}
 
+	/**
+	 * Get a page of the instructor users, filtered by organization.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of instructors
+	 */
+	@Transactional(readOnly = true)
+	public Slice<InstructorDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get instructor users after : {}", after);
+		User user = userService.getCurrentUser();
+		if (SecurityUtils.isAdmin()) {
+			return userRepository.findByAuthorityAndIdGreaterThanOrderByIdAsc(INSTRUCTOR, after, pageable)
+				.map(instructorTransformer::transform);
+		} else {
+			return userRepository.findByOrganizationAndAuthorityAndIdGreaterThanOrderByIdAsc(user.getOrganization(), INSTRUCTOR, after, pageable)
+				.map(instructorTransformer::transform);
+		}
+	}
+
+	/**
+	 * Count the instructor users, filtered by organization.
+	 *
+	 * @return the number of instructors, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		User user = userService.getCurrentUser();
+		return countCache.get("instructors", () -> SecurityUtils.isAdmin()
+			? userRepository.countByAuthority(INSTRUCTOR)
+			: userRepository.countByOrganizationAndAuthority(user.getOrganization(), INSTRUCTOR));
+	}
+
 	/**
 	 * Get one user by id.
 	 *
@@ -112,18 +156,17 @@ public class InstructorService {
 			// TODO: Use Address service
 			if (instructor.getAddress() != null) addressRepository.delete(instructor.getAddress().getId());
 			userRepository.delete(id);
+			userDetailsCache.evictAll();
 		} else {
 			// TODO: Error handling / logging
 		}
 	}
 
 	private boolean inOrgOfCurrentUser(final InstructorDTO instructorDTO) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().getId().equals(instructorDTO.getOrganizationId());
+		return userService.isOrganizationOfCurrentUser(instructorDTO.getOrganizationId());
 	}
 
 	private boolean inOrgOfCurrentUser(final User instructor) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(instructor.getOrganization());
+		return userService.isOrganizationOfCurrentUser(instructor.getOrganization());
 	}
 }
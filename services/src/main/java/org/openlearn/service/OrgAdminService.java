@@ -7,9 +7,12 @@ import org.openlearn.repository.AddressRepository;
 import org.openlearn.repository.UserRepository;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
+import org.openlearn.security.UserDetailsCache;
 import org.openlearn.transformer.OrgAdminTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,14 +36,21 @@ public class OrgAdminService {
 
 	private final AddressRepository addressRepository;
 
+	private final UserDetailsCache userDetailsCache;
+
 	private final UserService userService;
 
+	private final CountCache countCache;
+
 	public OrgAdminService(final OrgAdminTransformer orgAdminTransformer, final UserRepository userRepository, final AddressRepository addressRepository,
-	                       final UserService userService) {
+	                       final UserService userService, final UserDetailsCache userDetailsCache,
+	                       final CountCache countCache) {
 		this.orgAdminTransformer = orgAdminTransformer;
 		this.userRepository = userRepository;
 		this.userService = userService;
 		this.addressRepository = addressRepository;
+		this.userDetailsCache = userDetailsCache;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -54,6 +64,7 @@ public class OrgAdminService {
 		if (AuthoritiesConstants.ORG_ADMIN.equals(orgAdminDTO.getAuthority())
 			&& (SecurityUtils.isAdmin() || inOrgOfCurrentUser(orgAdminDTO))) {
 			User user = userRepository.save(orgAdminTransformer.transform(orgAdminDTO));
+			userDetailsCache.evictAll();
 			if (user.getAddress() != null) addressRepository.save(user.getAddress());
 			return orgAdminTransformer.transform(user);
 		}
@@ -83,6 +94,39 @@ public class OrgAdminService {
 		}
 	}
 
+	/**
+	 * Get a page of the org admin users, filtered by organization.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of org admins
+	 */
+	@Transactional(readOnly = true)
+	public Slice<OrgAdminDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get org admin users after : {}", after);
+		User user = userService.getCurrentUser();
+		if (SecurityUtils.isAdmin()) {
+			return userRepository.findByAuthorityAndIdGreaterThanOrderByIdAsc(ORG_ADMIN, after, pageable)
+				.map(orgAdminTransformer::transform);
+		} else {
+			return userRepository.findByOrganizationAndAuthorityAndIdGreaterThanOrderByIdAsc(user.getOrganization(), ORG_ADMIN, after, pageable)
+				.map(orgAdminTransformer::transform);
+		}
+	}
+
+	/**
+	 * Count the org admin users, filtered by organization.
+	 *
+	 * @return the number of org admins, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		User user = userService.getCurrentUser();
+		return countCache.get("org-admins", () -> SecurityUtils.isAdmin()
+			? userRepository.countByAuthority(ORG_ADMIN)
+			: userRepository.countByOrganizationAndAuthority(user.getOrganization(), ORG_ADMIN));
+	}
+
 	/**
 	 * Get one user by id.
 	 *
@@ -112,18 +156,17 @@ public class OrgAdminService {
 			// TODO: Use Address service
 			if (orgAdmin.getAddress() != null) addressRepository.delete(orgAdmin.getAddress().getId());
 			userRepository.delete(id);
+			userDetailsCache.evictAll();
 		} else {
 			// TODO: Error handling / logging
 		}
 	}
 
 	private boolean inOrgOfCurrentUser(final OrgAdminDTO orgAdminDTO) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().getId().equals(orgAdminDTO.getOrganizationId());
+		return userService.isOrganizationOfCurrentUser(orgAdminDTO.getOrganizationId());
 	}
 
 	private boolean inOrgOfCurrentUser(final User orgAdmin) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(orgAdmin.getOrganization());
+		return userService.isOrganizationOfCurrentUser(orgAdmin.getOrganization());
 	}
 }
@@ -120,12 +120,10 @@ public class OrganizationService {
 	}
 
 	private boolean isOrgOfCurrentUser(final OrganizationDTO organizationDTO) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().getId().equals(organizationDTO.getId());
+		return userService.isOrganizationOfCurrentUser(organizationDTO.getId());
 	}
 
 	private boolean isOrgOfCurrentUser(final Organization organization) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(organization);
+		return userService.isOrganizationOfCurrentUser(organization);
 	}
 }
@@ -13,6 +13,8 @@ import org.openlearn.web.rest.errors.AccessDeniedException;
 import org.openlearn.web.rest.errors.PortfolioItemNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,12 +46,15 @@ public class PortfolioItemService {
 
 	private final FileInformationService fileInformationService;
 
+	private final CountCache countCache;
+
 	public PortfolioItemService(final PortfolioItemRepository portfolioItemRepository,
 								final PortfolioItemTransformer portfolioItemTransformer,
 								final StudentAssignmentService studentAssignmentService,
 								final StudentCourseService studentCourseService, final UserRepository userRepository,
 								final UserService userService,
-								final FileInformationService fileInformationService) {
+								final FileInformationService fileInformationService,
+								final CountCache countCache) {
 		this.portfolioItemRepository = portfolioItemRepository;
 		this.portfolioItemTransformer = portfolioItemTransformer;
 		this.studentAssignmentService = studentAssignmentService;
@@ -57,6 +62,7 @@ public class PortfolioItemService {
 		this.userRepository = userRepository;
 		this.userService = userService;
 		this.fileInformationService = fileInformationService;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -82,18 +88,35 @@ public class PortfolioItemService {
 	@Transactional(readOnly = true)
 	public List<PortfolioItemDTO> findAll() {
 		log.debug("Request to get all portfolio items");
-		User user = userService.getCurrentUser();
-		if (SecurityUtils.isAdmin()) {
-			return portfolioItemRepository.findAll()
-				.stream()
-				.map(portfolioItemTransformer::transform)
-				.collect(Collectors.toList());
-		} else {
-			return portfolioItemRepository.findByOrganization(user.getOrganization())
-				.stream()
-				.map(portfolioItemTransformer::transform)
-				.collect(Collectors.toList());
-		}
+		// Users other than admins only read the portfolio items of their organization through the organization filter
+		return portfolioItemRepository.findAll()
+			.stream()
+			.map(portfolioItemTransformer::transform)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a page of the portfolio items.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of portfolio items
+	 */
+	@Transactional(readOnly = true)
+	public Slice<PortfolioItemDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get portfolio items after : {}", after);
+		return portfolioItemRepository.findByIdGreaterThanOrderByIdAsc(after, pageable)
+			.map(portfolioItemTransformer::transform);
+	}
+
+	/**
+	 * Count the portfolio items.
+	 *
+	 * @return the number of portfolio items, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		return countCache.get("portfolio-items", portfolioItemRepository::count);
 	}
 
 	/**
@@ -149,15 +172,13 @@ public class PortfolioItemService {
 	}
 
 	public boolean isOrgAdminOfCurrentUser(final PortfolioItemDTO portfolioItemDTO) {
-		User user = userService.getCurrentUser();
 		User student = userRepository.findOneByIdAndAuthority(portfolioItemDTO.getStudentId(), STUDENT);
 		return student != null && SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ORG_ADMIN) &&
-            user.getOrganization().equals(student.getOrganization());
+            userService.isOrganizationOfCurrentUser(student.getOrganization());
 	}
 
 	public boolean isOrgAdminOfCurrentUser(final PortfolioItem portfolioItem) {
-		User user = userService.getCurrentUser();
 		return SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.ORG_ADMIN) &&
-		user.getOrganization().equals(portfolioItem.getStudent().getOrganization());
+		userService.isOrganizationOfCurrentUser(portfolioItem.getStudent().getOrganization());
 	}
 }
@@ -1,7 +1,6 @@
 package org.openlearn.service;
 
 import org.openlearn.domain.Program;
-import org.openlearn.domain.User;
 import org.openlearn.dto.ProgramDTO;
 import org.openlearn.repository.ProgramRepository;
 import org.openlearn.repository.SessionRepository;
@@ -10,6 +9,8 @@ import org.openlearn.transformer.ProgramTransformer;
 import org.openlearn.web.rest.errors.ItemHasChildrenException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,14 +34,22 @@ public class ProgramService {
 
 	private final SessionRepository sessionRepository;
 
+	private final CoursePermissionService coursePermissionService;
+
+	private final CountCache countCache;
+
 	public ProgramService(final ProgramRepository programRepository,
 						  final ProgramTransformer programTransformer,
 	                      final UserService userService,
-						  final SessionRepository sessionRepository) {
+						  final SessionRepository sessionRepository,
+						  final CoursePermissionService coursePermissionService,
+						  final CountCache countCache) {
 		this.programRepository = programRepository;
 		this.programTransformer = programTransformer;
 		this.userService = userService;
 		this.sessionRepository = sessionRepository;
+		this.coursePermissionService = coursePermissionService;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -52,6 +61,7 @@ public class ProgramService {
 	public ProgramDTO save(final ProgramDTO programDTO) {
 		log.debug("Request to save Program : {}", programDTO);
 		if (SecurityUtils.isAdmin() || inOrgOfCurrentUser(programDTO)) {
+			if (programDTO.getId() != null) coursePermissionService.evictAll();
 			return programTransformer.transform(programRepository.save(programTransformer.transform(programDTO)));
 		}
 		// TODO: Error handling / logging
@@ -66,18 +76,35 @@ public class ProgramService {
 	@Transactional(readOnly = true)
 	public List<ProgramDTO> findAll() {
 		log.debug("Request to get all Programs");
-		User user = userService.getCurrentUser();
-		if (SecurityUtils.isAdmin()) {
-			return programRepository.findAll()
-				.stream()
-				.map(programTransformer::transform)
-				.collect(Collectors.toList());
-		} else {
-			return programRepository.findByOrganization(user.getOrganization())
-				.stream()
-				.map(programTransformer::transform)
-				.collect(Collectors.toList());
-		}
+		// Users other than admins only read the programs of their organization through the organization filter
+		return programRepository.findAll()
+			.stream()
+			.map(programTransformer::transform)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a page of the programs.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of programs
+	 */
+	@Transactional(readOnly = true)
+	public Slice<ProgramDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get programs after : {}", after);
+		return programRepository.findByIdGreaterThanOrderByIdAsc(after, pageable)
+			.map(programTransformer::transform);
+	}
+
+	/**
+	 * Count the programs.
+	 *
+	 * @return the number of programs, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		return countCache.get("programs", programRepository::count);
 	}
 
 	/**
@@ -118,12 +145,10 @@ public class ProgramService {
 	}
 
 	private boolean inOrgOfCurrentUser(final ProgramDTO programDTO) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().getId().equals(programDTO.getOrganizationId());
+		return userService.isOrganizationOfCurrentUser(programDTO.getOrganizationId());
 	}
 
 	private boolean inOrgOfCurrentUser(final Program program) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(program.getOrganization());
+		return userService.isOrganizationOfCurrentUser(program.getOrganization());
 	}
 }
@@ -2,7 +2,6 @@ package org.openlearn.service;
 
 import org.openlearn.domain.Program;
 import org.openlearn.domain.Session;
-import org.openlearn.domain.User;
 import org.openlearn.dto.SessionDTO;
 import org.openlearn.repository.CourseRepository;
 import org.openlearn.repository.ProgramRepository;
@@ -12,6 +11,8 @@ import org.openlearn.transformer.SessionTransformer;
 import org.openlearn.web.rest.errors.ItemHasChildrenException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,16 +38,24 @@ public class SessionService {
 
 	private final CourseRepository courseRepository;
 
+	private final CoursePermissionService coursePermissionService;
+
+	private final CountCache countCache;
+
 	public SessionService(final ProgramRepository programRepository,
 						  final SessionRepository sessionRepository,
 	                      final SessionTransformer sessionTransformer,
 						  final UserService userService,
-						  final CourseRepository courseRepository) {
+						  final CourseRepository courseRepository,
+						  final CoursePermissionService coursePermissionService,
+						  final CountCache countCache) {
 		this.programRepository = programRepository;
 		this.sessionRepository = sessionRepository;
 		this.sessionTransformer = sessionTransformer;
 		this.userService = userService;
 		this.courseRepository = courseRepository;
+		this.coursePermissionService = coursePermissionService;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -58,6 +67,7 @@ public class SessionService {
 	public SessionDTO save(final SessionDTO sessionDTO) {
 		log.debug("Request to save Session : {}", sessionDTO);
 		if (SecurityUtils.isAdmin() || inOrgOfCurrentUser(sessionDTO)) {
+			if (sessionDTO.getId() != null) coursePermissionService.evictAll();
 			return sessionTransformer.transform(sessionRepository.save(sessionTransformer.transform(sessionDTO)));
 		}
 		// TODO: Error handling / logging
@@ -72,18 +82,35 @@ public class SessionService {
 	@Transactional(readOnly = true)
 	public List<SessionDTO> findAll() {
 		log.debug("Request to get all Sessions");
-		User user = userService.getCurrentUser();
-		if (SecurityUtils.isAdmin()) {
-			return sessionRepository.findAll()
-				.stream()
-				.map(sessionTransformer::transform)
-				.collect(Collectors.toList());
-		} else {
-			return sessionRepository.findByOrganization(user.getOrganization())
-				.stream()
-				.map(sessionTransformer::transform)
-				.collect(Collectors.toList());
-		}
+		// Users other than admins only read the sessions of their organization through the organization filter
+		return sessionRepository.findAll()
+			.stream()
+			.map(sessionTransformer::transform)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a page of the sessions.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of sessions
+	 */
+	@Transactional(readOnly = true)
+	public Slice<SessionDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get sessions after : {}", after);
+		return sessionRepository.findByIdGreaterThanOrderByIdAsc(after, pageable)
+			.map(sessionTransformer::transform);
+	}
+
+	/**
+	 * Count the sessions.
+	 *
+	 * @return the number of sessions, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		return countCache.get("sessions", sessionRepository::count);
 	}
 
 	/**
@@ -124,13 +151,11 @@ public class SessionService {
 	}
 
 	private boolean inOrgOfCurrentUser(final SessionDTO sessionDTO) {
-		User user = userService.getCurrentUser();
 		Program program = programRepository.findOne(sessionDTO.getProgramId());
-		return program != null && user.getOrganization().equals(program.getOrganization());
+		return program != null && userService.isOrganizationOfCurrentUser(program.getOrganization());
 	}
 
 	private boolean inOrgOfCurrentUser(final Session session) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(session.getProgram().getOrganization());
+		return userService.isOrganizationOfCurrentUser(session.getProgram().getOrganization());
 	}
 }
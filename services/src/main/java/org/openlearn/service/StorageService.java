@@ -1,36 +1,45 @@
 package org.openlearn.service;
 
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.services.s3.model.*;
-import com.google.common.collect.Lists;
-import org.openlearn.client.S3Client;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
 import org.openlearn.config.ApplicationProperties;
 import org.openlearn.domain.*;
+import org.openlearn.dto.DirectUploadDTO;
 import org.openlearn.dto.FileInformationDTO;
+import org.openlearn.dto.PresignedUrlDTO;
 import org.openlearn.repository.AssignmentRepository;
 import org.openlearn.repository.CourseRepository;
+import org.openlearn.repository.FileBlobRepository;
 import org.openlearn.repository.FileRepository;
 import org.openlearn.repository.PortfolioItemRepository;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
+import org.openlearn.storage.BlobContent;
+import org.openlearn.storage.BlobMetadata;
+import org.openlearn.storage.BlobStore;
+import org.openlearn.storage.PresignedUrl;
+import org.openlearn.storage.PresigningBlobStore;
 import org.openlearn.transformer.FileInformationTransformer;
 import org.openlearn.web.rest.errors.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Service Implementation for managing File upload.
@@ -43,6 +52,8 @@ public class StorageService {
 
 	private final FileRepository fileRepository;
 
+	private final FileBlobRepository fileBlobRepository;
+
 	private final CourseRepository courseRepository;
 
 	private final AssignmentRepository assignmentRepository;
@@ -53,99 +64,224 @@ public class StorageService {
 
 	private final FileInformationTransformer fileInformationTransformer;
 
-	@Autowired
-	private ApplicationProperties props;
+	private final BlobStore blobStore;
+
+	private final ApplicationProperties applicationProperties;
+
+	private final BlobDeletionService blobDeletionService;
+
+	private final TransactionTemplate transactionTemplate;
 
 	public StorageService(final FileRepository fileRepository,
+							final FileBlobRepository fileBlobRepository,
 							final CourseRepository courseRepository,
 							final AssignmentRepository assignmentRepository,
 							final UserService userService,
 							final PortfolioItemRepository portfolioItemRepository,
-							final FileInformationTransformer fileInformationTransformer) {
+							final FileInformationTransformer fileInformationTransformer,
+							final BlobStore blobStore,
+							final ApplicationProperties applicationProperties,
+							final BlobDeletionService blobDeletionService,
+							final PlatformTransactionManager transactionManager) {
 		this.fileRepository = fileRepository;
+		this.fileBlobRepository = fileBlobRepository;
 		this.courseRepository = courseRepository;
 		this.assignmentRepository = assignmentRepository;
 		this.userService = userService;
 		this.portfolioItemRepository = portfolioItemRepository;
 		this.fileInformationTransformer = fileInformationTransformer;
+		this.blobStore = blobStore;
+		this.applicationProperties = applicationProperties;
+		this.blobDeletionService = blobDeletionService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
 	}
 
 	/**
-	 * Store a file.
+	 * Store a file. The file is transferred to storage outside of any transaction, so no database connection
+	 * is held while it is; only reading the upload target and saving the blob and the file information are
+	 * transactional.
 	 *
 	 * @return the persisted entity
 	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public FileInformationDTO store(final MultipartFile file, Long assignmentId, Long portfolioId) {
 		log.debug("Request to save f : {}", file); //TODO cbernal fix this log statement
-		Assignment assignment = null;
-		PortfolioItem portfolioItem = null;
-		User uploadedBy = null;
+		// The target is checked before anything is stored, and read again when the file information is saved
+		String locator = transactionTemplate.execute(status ->
+			resolveUploadTarget(assignmentId, portfolioId).locatorFor(file.getOriginalFilename()));
 
-		if (assignmentId != null) {
-			assignment = assignmentRepository.findOne(assignmentId);
+		FileBlob blob = storeBlob(file);
+		try {
+			return transactionTemplate.execute(status ->
+				saveFileInformation(resolveUploadTarget(assignmentId, portfolioId), locator, blob, file.getContentType()));
+		} catch (RuntimeException e) {
+			transactionTemplate.execute(status -> releaseBlob(blob));
+			throw e;
+		}
+	}
 
-			if (assignment == null) throw new AssignmentNotFoundException(assignmentId);
-			uploadedBy = getUploadedBy(assignment);
-		} else {
-			portfolioItem = portfolioItemRepository.findOne(portfolioId);
+	/**
+	 * @return whether clients can upload and download files directly from storage
+	 */
+	public boolean isDirectTransferEnabled() {
+		return applicationProperties.getUploads().isDirectTransfer() && blobStore instanceof PresigningBlobStore;
+	}
 
-			if (portfolioItem == null) throw new PortfolioItemNotFoundException(portfolioId);
-			uploadedBy = getUploadedBy(portfolioItem);
-		}
+	/**
+	 * Create a URL the client can upload a file to directly. The upload has to be confirmed through
+	 * {@link #completeDirectUpload} before it shows up.
+	 *
+	 * @param upload the file the client is going to upload
+	 * @return the URL to upload the file to
+	 */
+	@Transactional(readOnly = true)
+	public PresignedUrlDTO presignUpload(final DirectUploadDTO upload, Long assignmentId, Long portfolioId) {
+		log.debug("Request to presign upload : {}", upload);
+		PresigningBlobStore presigningBlobStore = presigningBlobStore();
+		UploadTarget target = resolveUploadTarget(assignmentId, portfolioId);
 
-		S3Client s3client = new S3Client(props);
-		String uploadBucketName = props.getUploadBucket();
-		String keyName = createS3FilePrefix(assignmentId, portfolioId, uploadedBy.getId()) + file.getOriginalFilename();
 		try {
-			ObjectMetadata metadata = new ObjectMetadata();
-			metadata.setContentLength(file.getSize());
-			s3client.putObject(new PutObjectRequest(uploadBucketName, keyName, file.getInputStream(), metadata));
-		} catch (AmazonServiceException e) {
-			log.error(e.getErrorMessage());
+			return toDTO(presigningBlobStore.presignPut(target.locatorFor(upload.getFileName()), upload.getContentType(), presignedUrlExpiry()));
+		} catch (IOException e) {
+			log.error(e.getMessage());
 			throw new FileInformationAccessFailedException();
+		}
+	}
+
+	/**
+	 * Record a file the client uploaded directly to storage. Completing the same upload again returns the
+	 * file information recorded the first time.
+	 *
+	 * @param upload the file the client uploaded
+	 * @return the persisted entity
+	 */
+	public FileInformationDTO completeDirectUpload(final DirectUploadDTO upload, Long assignmentId, Long portfolioId) {
+		log.debug("Request to complete upload : {}", upload);
+		PresigningBlobStore presigningBlobStore = presigningBlobStore();
+		UploadTarget target = resolveUploadTarget(assignmentId, portfolioId);
+
+		// The locator is derived again rather than taken from the client, so it can only confirm files it was allowed to upload
+		String locator = target.locatorFor(upload.getFileName());
+		// Only now is the file known to be replaced, so a copy of the old one cached in between isn't served anymore
+		presigningBlobStore.putCompleted(locator);
+		BlobMetadata metadata;
+		try {
+			metadata = blobStore.stat(locator);
 		} catch (IOException e) {
 			log.error(e.getMessage());
+			throw new FileInformationAccessFailedException();
+		}
+		if (metadata == null) {
+			log.info("Upload {} was completed but not found in storage", locator);
 			throw new UploadCouldNotBeConvertedException();
 		}
 
+		// A retried completion, or another upload replacing the same file, refers to the file information already recorded
+		FileInformation existing = fileRepository.findFirstByLocatorAndBlobIsNull(locator);
+		if (existing != null) return fileInformationTransformer.transform(existing);
+		return saveFileInformation(target, locator, null, metadata.getContentType());
+	}
 
-		FileInformation fileInformation = new FileInformation();
-		fileInformation.setFileUrl("https://s3.amazonaws.com/" + uploadBucketName + "/" + keyName);
-		fileInformation.setUploadedByUser(uploadedBy);
-		fileInformation.setCreatedDate(ZonedDateTime.now());
-		if (assignment != null) {
-			Course course = assignment.getCourse();
-			fileInformation.setAssignment(assignment);
-			fileInformation.setUser(course.getInstructor());
-			fileInformation.setFileType("Assignment");
-		} else {
-			fileInformation.setPortfolioItem(portfolioItem);
-			fileInformation.setUser(portfolioItem.getStudent());
-			fileInformation.setFileType("Portfolio");
+	/**
+	 * Create a URL the client can download an uploaded file from directly.
+	 *
+	 * @param fileInformationId the id of the file information entity
+	 * @param fileName the name the file is saved under by the client
+	 * @return the URL to download the file from
+	 */
+	@Transactional(readOnly = true)
+	public PresignedUrlDTO presignDownload(Long fileInformationId, String fileName) {
+		PresigningBlobStore presigningBlobStore = presigningBlobStore();
+		FileInformation fileInformation = fileRepository.findOne(fileInformationId);
+
+		if (fileInformation == null) throw new FileInformationNotFoundException(fileInformationId);
+
+		try {
+			return toDTO(presigningBlobStore.presignGet(fileInformation.getStorageLocator(), fileName, presignedUrlExpiry()));
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			throw new FileInformationAccessFailedException();
 		}
+	}
 
-		return fileInformationTransformer.transform(fileRepository.save(fileInformation));
+	/**
+	 * Open an uploaded file for streaming. The caller is responsible for closing the returned content.
+	 *
+	 * @param fileInformationId the id of the file information entity
+	 * @return the opened content of the upload
+	 */
+	public BlobContent getUpload(Long fileInformationId) {
+		FileInformation fileInformation = fileRepository.findOne(fileInformationId);
+
+		if (fileInformation == null) throw new FileInformationNotFoundException(fileInformationId);
+
+		log.debug("Retrieving file at " + fileInformation.getStorageLocator());
+
+		try {
+			return blobStore.get(fileInformation.getStorageLocator());
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			throw new FileInformationAccessFailedException();
+		}
 	}
 
-	public InputStream getUpload(Long fileInformationId) {
-		S3Client s3client = new S3Client(props);
+	/**
+	 * Open a range of bytes of an uploaded file for streaming. The caller is responsible for closing the returned content.
+	 *
+	 * @param fileInformationId the id of the file information entity
+	 * @param first the offset of the first byte of the range
+	 * @param last the offset of the last byte of the range, inclusive
+	 * @return the opened range of the upload
+	 */
+	public BlobContent getUpload(Long fileInformationId, long first, long last) {
 		FileInformation fileInformation = fileRepository.findOne(fileInformationId);
 
 		if (fileInformation == null) throw new FileInformationNotFoundException(fileInformationId);
 
-		String bucket = retrieveBucket(fileInformation);
-		String key = retrieveKeyName(fileInformation);
+		log.debug("Retrieving bytes {}-{} of file at {}", first, last, fileInformation.getStorageLocator());
 
-		log.debug("Retrieving file at " + bucket);
+		try {
+			return blobStore.get(fileInformation.getStorageLocator(), first, last);
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			throw new FileInformationAccessFailedException();
+		}
+	}
+
+	/**
+	 * Get the metadata of an uploaded file without opening it. The last modified date is the date the file
+	 * was uploaded, and the content type the one recorded with the upload, since not every store keeps one.
+	 *
+	 * @param fileInformationId the id of the file information entity
+	 * @return the metadata of the upload
+	 */
+	@Transactional(readOnly = true)
+	public BlobMetadata getUploadMetadata(Long fileInformationId) {
+		FileInformation fileInformation = fileRepository.findOne(fileInformationId);
 
+		if (fileInformation == null) throw new FileInformationNotFoundException(fileInformationId);
+
+		Instant uploaded = fileInformation.getCreatedDate().toInstant();
+		FileBlob blob = fileInformation.getBlob();
+		// The content of a shared blob never changes, so its hash is a strong entity tag known without asking the store
+		if (blob != null) {
+			String contentType = fileInformation.getContentType() != null ? fileInformation.getContentType() : blob.getContentType();
+			return new BlobMetadata(blob.getContentLength(), contentType, uploaded, "\"" + blob.getSha256() + "\"");
+		}
+
+		BlobMetadata metadata;
 		try {
-			S3Object s3Object = s3client.getObject(new GetObjectRequest(bucket, key));
-			InputStream objectData = s3Object.getObjectContent();
-			return objectData;
-		} catch (AmazonServiceException e) {
-			log.error(e.getErrorMessage());
+			metadata = blobStore.stat(fileInformation.getLocator());
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			throw new FileInformationAccessFailedException();
+		}
+		if (metadata == null) {
+			log.error("Upload {} is missing from storage", fileInformation.getLocator());
 			throw new FileInformationAccessFailedException();
 		}
+		String contentType = fileInformation.getContentType() != null ? fileInformation.getContentType() : metadata.getContentType();
+		return new BlobMetadata(metadata.getContentLength(), contentType, uploaded, metadata.getETag());
 	}
 
 	public void deleteUpload(Long fileInformationId) {
@@ -155,79 +291,183 @@ public class StorageService {
 		deleteUpload(fileInformation);
 	}
 
+	/**
+	 * Delete an uploaded file. Its stored file is queued for deletion like the ones of {@link #deleteUploads},
+	 * so a rolled back delete never leaves the file information pointing at a missing file.
+	 *
+	 * @param fileInformation the file information entity of the upload
+	 */
 	public void deleteUpload(FileInformation fileInformation) {
-		S3Client s3client = new S3Client(props);
-		String bucket = retrieveBucket(fileInformation);
-		String key = retrieveKeyName(fileInformation);
+		deleteUploads(Collections.singletonList(fileInformation));
+	}
+
+	/**
+	 * Delete uploaded files. Their shared blobs are released, and the stored files nothing references anymore
+	 * are queued for deletion from storage. They are deleted in the background once the current transaction
+	 * commits, see {@link BlobDeletionService}.
+	 *
+	 * @param files the file information entities of the uploads
+	 */
+	public void deleteUploads(List<FileInformation> files) {
+		fileRepository.delete(files);
+		// The file information has to be gone before a blob it references can be deleted
+		fileRepository.flush();
+
+		List<String> unreferenced = files.stream()
+			.filter(fileInformation -> fileInformation.getBlob() == null)
+			.map(FileInformation::getLocator)
+			.collect(Collectors.toList());
+		// Release blobs in a fixed order, so concurrent deletes lock them in the same order
+		Map<FileBlob, Long> references = files.stream()
+			.map(FileInformation::getBlob)
+			.filter(Objects::nonNull)
+			.collect(Collectors.groupingBy(blob -> blob, () -> new TreeMap<>(Comparator.comparing(FileBlob::getId)), Collectors.counting()));
+		references.forEach((blob, count) -> {
+			fileBlobRepository.decrementReferenceCount(blob.getId(), count.intValue());
+			if (fileBlobRepository.deleteIfUnreferenced(blob.getId()) == 1) unreferenced.add(blob.getLocator());
+		});
+		blobDeletionService.enqueue(unreferenced);
+	}
 
+	/**
+	 * Store the content of an uploaded file as a shared blob. The content is hashed before it is stored, so
+	 * content that is already stored is referenced again instead of being transferred. When uploads of the same
+	 * new content race, the blob saved first is referenced by all of them and the other copies are deleted.
+	 */
+	private FileBlob storeBlob(final MultipartFile file) {
+		String sha256;
 		try {
-			s3client.deleteObject(new DeleteObjectRequest(bucket, key));
-			fileRepository.delete(fileInformation);
-		} catch(AmazonServiceException e) {
-			log.error(e.getErrorMessage());
+			// Multipart files are buffered by the container, so the content can be read once to hash it and again to store it
+			sha256 = new ByteSource() {
+				@Override
+				public InputStream openStream() throws IOException {
+					return file.getInputStream();
+				}
+			}.hash(Hashing.sha256()).toString();
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			throw new UploadCouldNotBeConvertedException();
+		}
+
+		FileBlob existing = claimBlob(sha256);
+		if (existing != null) {
+			log.debug("Content of {} is already stored at {}", file.getOriginalFilename(), existing.getLocator());
+			return existing;
+		}
+
+		FileBlob blob = new FileBlob();
+		blob.setSha256(sha256);
+		// Every blob gets a locator of its own, so a queued deletion of a released blob with the same content can't remove it
+		blob.setLocator("sha256/" + sha256 + "/" + UUID.randomUUID());
+		blob.setContentLength(file.getSize());
+		blob.setContentType(file.getContentType());
+		blob.setReferenceCount(1);
+		blob.setCreatedDate(ZonedDateTime.now());
+
+		InputStream in;
+		try {
+			in = file.getInputStream();
+		} catch (IOException e) {
+			log.error(e.getMessage());
+			throw new UploadCouldNotBeConvertedException();
+		}
+		// Blocks until the whole file is stored, so the blob is only saved for complete uploads
+		try (InputStream upload = in) {
+			blobStore.put(blob.getLocator(), upload, file.getSize(), file.getContentType());
+		} catch (IOException e) {
+			log.error(e.getMessage());
 			throw new FileInformationAccessFailedException();
 		}
+		try {
+			return transactionTemplate.execute(status -> fileBlobRepository.saveAndFlush(blob));
+		} catch (DataIntegrityViolationException e) {
+			FileBlob winner = claimBlob(sha256);
+			if (winner == null) throw e;
+			log.debug("Content of {} was stored concurrently at {}, dropping {}", file.getOriginalFilename(), winner.getLocator(), blob.getLocator());
+			blobDeletionService.enqueue(Collections.singletonList(blob.getLocator()));
+			return winner;
+		}
 	}
 
-	public void deleteUploads(List<FileInformation> files) {
-		S3Client s3client = new S3Client(props);
+	/**
+	 * Take a reference on the stored blob with the given content, if there is one.
+	 */
+	private FileBlob claimBlob(String sha256) {
+		return transactionTemplate.execute(status -> {
+			FileBlob blob = fileBlobRepository.findBySha256(sha256);
+			// The blob may have been released and deleted since it was read, in which case it is stored again
+			return blob != null && fileBlobRepository.incrementReferenceCount(blob.getId()) == 1 ? blob : null;
+		});
+	}
 
-		Map<String, List<String>> bucketToKeyMapping = buildBucketToKeyMapping(files);
+	/**
+	 * Release the reference an upload that failed to be recorded took on its blob, queueing the blob for
+	 * deletion if nothing else references it.
+	 */
+	private FileBlob releaseBlob(FileBlob blob) {
+		fileBlobRepository.decrementReferenceCount(blob.getId(), 1);
+		if (fileBlobRepository.deleteIfUnreferenced(blob.getId()) == 1) {
+			blobDeletionService.enqueue(Collections.singletonList(blob.getLocator()));
+		}
+		return blob;
+	}
 
-		bucketToKeyMapping.forEach((bucket, keys) -> {
-			DeleteObjectsRequest request = buildDeleteObjectsRequest(bucket, keys);
+	private UploadTarget resolveUploadTarget(Long assignmentId, Long portfolioId) {
+		if (assignmentId != null) {
+			Assignment assignment = assignmentRepository.findOne(assignmentId);
 
-			try {
-				s3client.deleteObjects(request);
-			} catch(AmazonServiceException e) {
-				log.error(e.getErrorMessage());
-				throw new FileInformationAccessFailedException();
-			}
-		});
+			if (assignment == null) throw new AssignmentNotFoundException(assignmentId);
+			return new UploadTarget(assignment, null, getUploadedBy(assignment));
+		} else {
+			PortfolioItem portfolioItem = portfolioItemRepository.findOne(portfolioId);
+
+			if (portfolioItem == null) throw new PortfolioItemNotFoundException(portfolioId);
+			return new UploadTarget(null, portfolioItem, getUploadedBy(portfolioItem));
+		}
 	}
 
-	private Map<String, List<String>> buildBucketToKeyMapping(List<FileInformation> files) {
-		List<String> buckets = Lists.transform(files, this::retrieveBucket);
-		List<String> keys = Lists.transform(files, this::retrieveKeyName);
-
-		Map<String, List<String>> bucketToKeys = new HashMap<>();
-
-		// Test if there's only one bucket (which will be the typical case)
-		Set<String> uniqueBuckets = new HashSet<>(buckets);
-		if (uniqueBuckets.size() == 1) {
-			bucketToKeys.put(buckets.get(0), keys);
-		} else { // There are multiple buckets in the given file set
-
-			for (int index = 0; index < buckets.size(); index++) {
-				String bucket = buckets.get(index);
-				String key = keys.get(index);
-				if (bucketToKeys.containsKey(bucket)) {
-					bucketToKeys.get(bucket).add(key);
-				} else {
-					List<String> list = new ArrayList<>();
-					list.add(key);
-					bucketToKeys.put(bucket, list);
-				}
-			}
+	private FileInformationDTO saveFileInformation(UploadTarget target, String locator, FileBlob blob, String contentType) {
+		FileInformation fileInformation = new FileInformation();
+		fileInformation.setLocator(locator);
+		fileInformation.setBlob(blob);
+		fileInformation.setContentType(contentType);
+		fileInformation.setUploadedByUser(target.uploadedBy);
+		fileInformation.setCreatedDate(ZonedDateTime.now());
+		if (target.assignment != null) {
+			Course course = target.assignment.getCourse();
+			fileInformation.setAssignment(target.assignment);
+			fileInformation.setUser(course.getInstructor());
+			fileInformation.setFileType("Assignment");
+		} else {
+			fileInformation.setPortfolioItem(target.portfolioItem);
+			fileInformation.setUser(target.portfolioItem.getStudent());
+			fileInformation.setFileType("Portfolio");
 		}
 
-		return bucketToKeys;
+		return fileInformationTransformer.transform(fileRepository.save(fileInformation));
 	}
 
-	private DeleteObjectsRequest buildDeleteObjectsRequest(String bucket, List<String> keys) {
-		DeleteObjectsRequest request = new DeleteObjectsRequest(bucket);
-		List<DeleteObjectsRequest.KeyVersion> keyVersions = new ArrayList<>(keys.size());
+	private PresigningBlobStore presigningBlobStore() {
+		if (!isDirectTransferEnabled()) throw new DirectTransferNotEnabledException();
+		return (PresigningBlobStore) blobStore;
+	}
 
-		for (String key : keys)
-			keyVersions.add(new DeleteObjectsRequest.KeyVersion(key));
+	private Duration presignedUrlExpiry() {
+		return Duration.ofSeconds(applicationProperties.getUploads().getPresignedUrlExpiry());
+	}
 
-		request.setKeys(keyVersions);
-		return request;
+	private PresignedUrlDTO toDTO(PresignedUrl presignedUrl) {
+		PresignedUrlDTO presignedUrlDTO = new PresignedUrlDTO();
+		presignedUrlDTO.setUrl(presignedUrl.getUrl().toString());
+		presignedUrlDTO.setMethod(presignedUrl.getMethod());
+		presignedUrlDTO.setExpiresAt(presignedUrl.getExpiresAt().atZone(ZoneId.systemDefault()));
+		presignedUrlDTO.setHeaders(presignedUrl.getHeaders());
+		return presignedUrlDTO;
 	}
 
-	private String createS3FilePrefix(Long assignmentId, Long portfolioId, Long uploadedByUserId) {
-		// s3 file name is a_[assignmentId]_[filename] for assignments and p_[portfolioId]_[filename] for portfolios
-		// and the user uploading the file's hash.
+	private static String createLocatorPrefix(Long assignmentId, Long portfolioId, Long uploadedByUserId) {
+		// the locator is a_[assignmentId]/[userId]/[filename] for assignments and p_[portfolioId]/[userId]/[filename]
+		// for portfolios, where the user is the one uploading the file.
 		String assignmentStr = assignmentId != null ? "a_" + assignmentId.toString() + "/" : "";
 		String portfolioStr = portfolioId != null ? "p_" + portfolioId.toString() + "/" : "";
 		String userStr = uploadedByUserId.toString();
@@ -249,35 +489,37 @@ public class StorageService {
 			return userService.getCurrentUser();
 	}
 
-	private String retrieveBucket(FileInformation fileInformation) {
-		String bucketAndKey = retrieveFullPath(fileInformation);
-		int separatingIndex = bucketAndKey.indexOf("/");
-		return bucketAndKey.substring(0, separatingIndex);
-	}
+	/**
+	 * The assignment or portfolio item a file is uploaded to, along with the user it is uploaded as.
+	 */
+	private static class UploadTarget {
 
-	private String retrieveKeyName(FileInformation fileInformation) {
-		String bucketAndKey = retrieveFullPath(fileInformation);
-		int separatingIndex = bucketAndKey.indexOf("/");
-		return bucketAndKey.substring(separatingIndex+1);
-	}
+		private final Assignment assignment;
 
-	private String retrieveFullPath(FileInformation fileInformation) {
-		String bucketAndKey;
-		try {
-			bucketAndKey = new URL(fileInformation.getFileUrl()).getPath()
-				.replaceFirst("/", "");
-		} catch (MalformedURLException e) {
-			log.warn("File URL is malformed, Falling back on prefix and bucket logic");
-			Assignment assignment = fileInformation.getAssignment();
-			PortfolioItem portfolioItem = fileInformation.getPortfolioItem();
-			String bucket = props.getUploadBucket();
-			String key = fileInformation.getFileUrl().substring(
-				fileInformation.getFileUrl().lastIndexOf("/")+1
-			);
-			bucketAndKey = bucket + "/" + key;
+		private final PortfolioItem portfolioItem;
+
+		private final User uploadedBy;
+
+		private UploadTarget(Assignment assignment, PortfolioItem portfolioItem, User uploadedBy) {
+			this.assignment = assignment;
+			this.portfolioItem = portfolioItem;
+			this.uploadedBy = uploadedBy;
 		}
 
-		return bucketAndKey;
+		private String locatorFor(String fileName) {
+			return createLocatorPrefix(assignment != null ? assignment.getId() : null,
+				portfolioItem != null ? portfolioItem.getId() : null, uploadedBy.getId()) + baseName(fileName);
+		}
+
+		/**
+		 * Reduce a file name sent by the client to its last path segment, so it can't reach the locator of
+		 * another upload.
+		 */
+		private static String baseName(String fileName) {
+			if (fileName == null) throw new UploadCouldNotBeConvertedException();
+			String baseName = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+			if (baseName.isEmpty() || baseName.equals(".") || baseName.equals("..")) throw new UploadCouldNotBeConvertedException();
+			return baseName;
+		}
 	}
 }
-
@@ -5,7 +5,6 @@ import java.util.stream.Collectors;
 
 import org.openlearn.domain.Assignment;
 import org.openlearn.domain.Authority;
-import org.openlearn.domain.Course;
 import org.openlearn.domain.StudentAssignment;
 import org.openlearn.domain.User;
 import org.openlearn.dto.StudentAssignmentDTO;
@@ -44,18 +43,22 @@ public class StudentAssignmentService {
 
 	private final UserService userService;
 
+	private final CoursePermissionService coursePermissionService;
+
 	public StudentAssignmentService(final AssignmentRepository assignmentRepository,
 	                                final CourseRepository courseRepository,
 	                                final StudentAssignmentRepository studentAssignmentRepository,
 	                                final StudentAssignmentTransformer studentAssignmentTransformer,
 	                                final UserRepository userRepository,
-									final UserService userService) {
+									final UserService userService,
+									final CoursePermissionService coursePermissionService) {
 		this.assignmentRepository = assignmentRepository;
 		this.courseRepository = courseRepository;
 		this.studentAssignmentRepository = studentAssignmentRepository;
 		this.studentAssignmentTransformer = studentAssignmentTransformer;
 		this.userRepository = userRepository;
 		this.userService = userService;
+		this.coursePermissionService = coursePermissionService;
 	}
 
 	/**
@@ -66,12 +69,10 @@ public class StudentAssignmentService {
 	 */
 	public StudentAssignmentDTO save(final StudentAssignmentDTO studentAssignmentDTO) {
 		log.debug("Request to save StudentAssignment : {}", studentAssignmentDTO);
-		User user = userService.getCurrentUser();
 		boolean instructorCheck = true;
 		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
 			StudentAssignment studentAssignment = studentAssignmentRepository.findOne(studentAssignmentDTO.getId());
-			Course course = studentAssignment.getAssignment().getCourse();
-			instructorCheck = user.getId() == course.getInstructor().getId();
+			instructorCheck = studentAssignment != null && isCourseInstructor(studentAssignment.getAssignment());
 		}
 
 		if (instructorCheck && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(studentAssignmentDTO))) {
@@ -171,9 +172,8 @@ public class StudentAssignmentService {
 		log.debug("Request to get StudentAssignments by Assignment : {}", id);
 		Assignment assignment = assignmentRepository.findOne(id);
 		if (assignment != null && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(assignment))) {
-			return studentAssignmentRepository.findByAssignment(assignment).stream()
-				.map((StudentAssignment studentAssignment) ->
-					studentAssignmentTransformer.transform(studentAssignment, true, false))
+			return studentAssignmentRepository.findRowsByAssignmentId(assignment.getId()).stream()
+				.map(studentAssignmentTransformer::transform)
 				.collect(Collectors.toList());
 		}
 		// TODO: Error handling / logging
@@ -189,10 +189,8 @@ public class StudentAssignmentService {
 		log.debug("Request to delete StudentAssignment : {}", id);
 		StudentAssignment studentAssignment = studentAssignmentRepository.findOne(id);
 		boolean instructorCheck = true;
-		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
-			User user = userService.getCurrentUser();
-			Course course = studentAssignment.getAssignment().getCourse();
-			instructorCheck = user.getId() == course.getInstructor().getId();
+		if (studentAssignment != null && SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
+			instructorCheck = isCourseInstructor(studentAssignment.getAssignment());
 		}
 
 		if (studentAssignment != null && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(studentAssignment)) && instructorCheck) {
@@ -202,27 +200,25 @@ public class StudentAssignmentService {
 		}
 	}
 
+	private boolean isCourseInstructor(final Assignment assignment) {
+		return coursePermissionService.getCurrentUserPermissions(assignment.getCourse().getId()).isInstructor();
+	}
+
 	private boolean inOrgOfCurrentUser(final StudentAssignmentDTO studentAssignmentDTO) {
-		User user = userService.getCurrentUser();
 		User student = userRepository.findOneByIdAndAuthority(studentAssignmentDTO.getStudentId(), STUDENT);
 		Assignment assignment = assignmentRepository.findOne(studentAssignmentDTO.getAssignmentId());
-		return user.getOrganization().getId().equals(student.getOrganization().getId())
-			&& user.getOrganization().getId().equals(assignment.getOrganization().getId());
+		return student != null && assignment != null && inOrgOfCurrentUser(student) && inOrgOfCurrentUser(assignment);
 	}
 
 	private boolean inOrgOfCurrentUser(final StudentAssignment studentAssignment) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(studentAssignment.getStudent().getOrganization())
-			&& user.getOrganization().equals(studentAssignment.getAssignment().getOrganization());
+		return inOrgOfCurrentUser(studentAssignment.getStudent()) && inOrgOfCurrentUser(studentAssignment.getAssignment());
 	}
 
 	private boolean inOrgOfCurrentUser(final User student) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(student.getOrganization());
+		return userService.isOrganizationOfCurrentUser(student.getOrganization());
 	}
 
 	private boolean inOrgOfCurrentUser(final Assignment assignment) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(assignment.getOrganization());
+		return coursePermissionService.getCurrentUserPermissions(assignment.getCourse().getId()).isInOrganization();
 	}
 }
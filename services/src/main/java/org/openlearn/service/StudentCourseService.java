@@ -1,18 +1,27 @@
 package org.openlearn.service;
 
 import org.openlearn.domain.*;
+import org.openlearn.dto.BulkEnrollmentDTO;
+import org.openlearn.dto.BulkEnrollmentResultDTO;
 import org.openlearn.dto.StudentCourseDTO;
 import org.openlearn.repository.*;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
+import org.openlearn.service.CoursePermissionService.CoursePermissions;
 import org.openlearn.transformer.StudentCourseTransformer;
+import org.openlearn.web.rest.errors.AccessDeniedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -40,13 +49,19 @@ public class StudentCourseService {
 
 	private final UserService userService;
 
+	private final CoursePermissionService coursePermissionService;
+
+	private final CountCache countCache;
+
 	public StudentCourseService(final CourseRepository courseRepository,
 			final AssignmentRepository assignmentRepository,
 			final StudentAssignmentRepository studentAssignmentRepository,
 			final StudentCourseRepository studentCourseRepository,
 			final StudentCourseTransformer studentCourseTransformer,
 			final UserRepository userRepository,
-			final UserService userService) {
+			final UserService userService,
+			final CoursePermissionService coursePermissionService,
+			final CountCache countCache) {
 		this.assignmentRepository = assignmentRepository;
 		this.studentAssignmentRepository = studentAssignmentRepository;
 		this.courseRepository = courseRepository;
@@ -54,6 +69,8 @@ public class StudentCourseService {
 		this.studentCourseTransformer = studentCourseTransformer;
 		this.userRepository = userRepository;
 		this.userService = userService;
+		this.coursePermissionService = coursePermissionService;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -64,12 +81,10 @@ public class StudentCourseService {
 	 */
 	public StudentCourseDTO create(final StudentCourseDTO studentCourseDTO) {
 		log.debug("Request to save StudentCourse : {}", studentCourseDTO);
-		User user = userService.getCurrentUser();
 		boolean instructorCheck = true;
 		StudentCourse studentCourse = studentCourseTransformer.transform(studentCourseDTO);
 		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
-			Course course = studentCourse.getCourse();
-			instructorCheck = user.getId() == course.getInstructor().getId();
+			instructorCheck = isCourseInstructor(studentCourse.getCourse());
 		}
 
 		if (instructorCheck && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(studentCourseDTO))) {
@@ -83,6 +98,7 @@ public class StudentCourseService {
 			studentCourse.setOnPortfolio(false);
 
 			studentCourse = studentCourseRepository.save(studentCourse);
+			coursePermissionService.evict(studentCourse.getStudent().getId(), studentCourse.getCourse().getId());
 
 			for (Assignment assignment : assignmentRepository.findByCourse(studentCourse.getCourse())) {
 				StudentAssignment studentAssignment = new StudentAssignment();
@@ -99,17 +115,103 @@ public class StudentCourseService {
 		return null;
 	}
 
+	/**
+	 * Enroll many students in a course at once.
+	 *
+	 * The permissions are checked once for the course, the existing enrollments are found with one query, and
+	 * the new enrollments and their student assignments are inserted in batches.
+	 *
+	 * @param bulkEnrollmentDTO the course and the students to enroll
+	 * @return the outcome for each student, in the order of the request
+	 * @throws ConcurrencyFailureException if some of the students were enrolled in the course concurrently; the
+	 * request can be retried
+	 */
+	public List<BulkEnrollmentResultDTO> createBulk(final BulkEnrollmentDTO bulkEnrollmentDTO) {
+		log.debug("Request to enroll Students : {}", bulkEnrollmentDTO);
+		Course course = courseRepository.findOne(bulkEnrollmentDTO.getCourseId());
+		if (course == null || !canEnrollIn(course)) throw new AccessDeniedException();
+
+		Set<Long> studentIds = new LinkedHashSet<>(bulkEnrollmentDTO.getStudentIds());
+		studentIds.remove(null);
+		// An empty in list isn't valid SQL, and there is nobody to enroll
+		if (studentIds.isEmpty()) return Collections.emptyList();
+
+		Map<Long, User> students = userRepository.findByIdInAndAuthority(studentIds, STUDENT).stream()
+			.filter(student -> student.getOrganization() != null
+				&& student.getOrganization().getId().equals(course.getOrganization().getId()))
+			.collect(Collectors.toMap(User::getId, Function.identity()));
+		// None of the ids may be a student of the organization of the course either
+		Map<Long, StudentCourse> existing = students.isEmpty() ? Collections.emptyMap()
+			: studentCourseRepository.findByCourseAndStudentIdIn(course, students.keySet()).stream()
+				.collect(Collectors.toMap(studentCourse -> studentCourse.getStudent().getId(), Function.identity()));
+
+		ZonedDateTime now = ZonedDateTime.now();
+		List<StudentCourse> enrollments = new ArrayList<>();
+		for (Long studentId : studentIds) {
+			if (students.containsKey(studentId) && !existing.containsKey(studentId)) {
+				StudentCourse studentCourse = new StudentCourse();
+				studentCourse.setStudent(students.get(studentId));
+				studentCourse.setCourse(course);
+				studentCourse.setGrade("-");
+				studentCourse.setEnrollDate(now);
+				studentCourse.setComplete(false);
+				studentCourse.setOnPortfolio(false);
+				enrollments.add(studentCourse);
+			}
+		}
+		try {
+			enrollments = studentCourseRepository.save(enrollments);
+			// A student enrolled concurrently fails the unique constraint here rather than on commit
+			studentCourseRepository.flush();
+		} catch (DataIntegrityViolationException e) {
+			throw new ConcurrencyFailureException("Students were enrolled in Course " + course.getId() + " concurrently", e);
+		}
+
+		List<Assignment> assignments = assignmentRepository.findByCourse(course);
+		List<StudentAssignment> studentAssignments = new ArrayList<>(enrollments.size() * assignments.size());
+		for (StudentCourse studentCourse : enrollments) {
+			for (Assignment assignment : assignments) {
+				StudentAssignment studentAssignment = new StudentAssignment();
+				studentAssignment.setAssignment(assignment);
+				studentAssignment.setComplete(false);
+				studentAssignment.setOnPortfolio(false);
+				studentAssignment.setStudent(studentCourse.getStudent());
+				studentAssignments.add(studentAssignment);
+			}
+		}
+		studentAssignmentRepository.save(studentAssignments);
+		if (!enrollments.isEmpty()) coursePermissionService.evictCourse(course.getId());
+
+		Map<Long, StudentCourse> enrolled = enrollments.stream()
+			.collect(Collectors.toMap(studentCourse -> studentCourse.getStudent().getId(), Function.identity()));
+		List<BulkEnrollmentResultDTO> results = new ArrayList<>(studentIds.size());
+		for (Long studentId : studentIds) {
+			if (enrolled.containsKey(studentId)) {
+				results.add(new BulkEnrollmentResultDTO(studentId, enrolled.get(studentId).getId(), BulkEnrollmentResultDTO.Status.ENROLLED));
+			} else if (existing.containsKey(studentId)) {
+				results.add(new BulkEnrollmentResultDTO(studentId, existing.get(studentId).getId(), BulkEnrollmentResultDTO.Status.ALREADY_ENROLLED));
+			} else {
+				results.add(new BulkEnrollmentResultDTO(studentId, null, BulkEnrollmentResultDTO.Status.NOT_FOUND));
+			}
+		}
+		return results;
+	}
+
 	public StudentCourseDTO update(final StudentCourseDTO studentCourseDTO) {
 		log.debug("Request to save StudentCourse : {}", studentCourseDTO);
-		User user = userService.getCurrentUser();
 		boolean instructorCheck = true;
+		// The transformer updates the existing enrollment in place, so note who was enrolled where first
+		StudentCourse existing = studentCourseDTO.getId() != null ? studentCourseRepository.findOne(studentCourseDTO.getId()) : null;
+		Long previousStudentId = existing != null ? existing.getStudent().getId() : null;
+		Long previousCourseId = existing != null ? existing.getCourse().getId() : null;
 		StudentCourse studentCourse = studentCourseTransformer.transform(studentCourseDTO);
 		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
-			Course course = studentCourse.getCourse();
-			instructorCheck = user.getId() == course.getInstructor().getId();
+			instructorCheck = isCourseInstructor(studentCourse.getCourse());
 		}
 
 		if (instructorCheck && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(studentCourseDTO))) {
+			if (existing != null) coursePermissionService.evict(previousStudentId, previousCourseId);
+			coursePermissionService.evict(studentCourse.getStudent().getId(), studentCourse.getCourse().getId());
 			return studentCourseTransformer.transform(studentCourseRepository.save(studentCourse));
 		}
 		// TODO: Error handling / logging
@@ -144,9 +246,8 @@ public class StudentCourseService {
 		log.debug("Request to get StudentCourses by Student : {}", id);
 		User student = userRepository.findOneByIdAndAuthority(id, STUDENT);
 		if (student != null && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(student))) {
-			return studentCourseRepository.findByStudent(student).stream()
-					.map((StudentCourse studentCourse) ->
-					studentCourseTransformer.transform(studentCourse, false, true))
+			return studentCourseRepository.findRowsByStudentId(student.getId()).stream()
+					.map(studentCourseTransformer::transform)
 					.collect(Collectors.toList());
 		}
 		// TODO: Error handling / logging
@@ -181,15 +282,45 @@ public class StudentCourseService {
 		log.debug("Request to get StudentCourses by Course : {}", id);
 		Course course = courseRepository.findOne(id);
 		if (course != null && (SecurityUtils.isAdmin() || inOrgOfCurrentUser(course))) {
-			return studentCourseRepository.findByCourse(course).stream()
-					.map((StudentCourse studentCourse) ->
-					studentCourseTransformer.transform(studentCourse, true, false))
+			return studentCourseRepository.findRowsByCourseId(course.getId()).stream()
+					.map(studentCourseTransformer::transform)
 					.collect(Collectors.toList());
 		}
 		// TODO: Error handling / logging
 		return null;
 	}
 
+	/**
+	 * Get a page of the studentCourses of a course.
+	 *
+	 * @param id the id of the course
+	 * @param after the id of the studentCourse the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of student courses
+	 */
+	@Transactional(readOnly = true)
+	public Slice<StudentCourseDTO> findByCourse(final Long id, final Long after, final Pageable pageable) {
+		log.debug("Request to get StudentCourses by Course : {} after : {}", id, after);
+		Course course = courseRepository.findOne(id);
+		if (course == null || !(SecurityUtils.isAdmin() || inOrgOfCurrentUser(course))) throw new AccessDeniedException();
+		return studentCourseRepository.findRowsByCourseIdAfter(course.getId(), after, pageable)
+			.map(studentCourseTransformer::transform);
+	}
+
+	/**
+	 * Count the studentCourses of a course.
+	 *
+	 * @param id the id of the course
+	 * @return the number of student courses, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long countByCourse(final Long id) {
+		return countCache.get("student-courses:course:" + id, () -> {
+			Course course = courseRepository.findOne(id);
+			return course != null ? studentCourseRepository.countByCourse(course) : 0L;
+		});
+	}
+
 	/**
 	 * Delete the studentCourse by id.
 	 *
@@ -198,41 +329,45 @@ public class StudentCourseService {
 	public void delete(final Long id) {
 		log.debug("Request to delete StudentCourse : {}", id);
 		StudentCourse studentCourse = studentCourseRepository.findOne(id);
-		User user = userService.getCurrentUser();
 		boolean instructorCheck = true;
-		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
-			Course course = studentCourse.getCourse();
-			instructorCheck = user.getId() == course.getInstructor().getId();
+		if (studentCourse != null && SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR)) {
+			instructorCheck = isCourseInstructor(studentCourse.getCourse());
 		}
 
 		if (studentCourse != null && instructorCheck &&  (SecurityUtils.isAdmin() || inOrgOfCurrentUser(studentCourse))) {
 			studentCourseRepository.delete(id);
+			coursePermissionService.evict(studentCourse.getStudent().getId(), studentCourse.getCourse().getId());
 		} else {
 			// TODO: Error handling / logging
 		}
 	}
 
+	private boolean canEnrollIn(final Course course) {
+		if (SecurityUtils.isAdmin()) return true;
+		CoursePermissions permissions = coursePermissionService.getCurrentUserPermissions(course.getId());
+		if (SecurityUtils.isCurrentUserInRole(AuthoritiesConstants.INSTRUCTOR) && !permissions.isInstructor()) return false;
+		return permissions.isInOrganization();
+	}
+
+	private boolean isCourseInstructor(final Course course) {
+		return course != null && coursePermissionService.getCurrentUserPermissions(course.getId()).isInstructor();
+	}
+
 	private boolean inOrgOfCurrentUser(final StudentCourseDTO studentCourseDTO) {
-		User user = userService.getCurrentUser();
 		User student = userRepository.findOneByIdAndAuthority(studentCourseDTO.getStudentId(), STUDENT);
-		Course course = courseRepository.findOne(studentCourseDTO.getCourseId());
-		return user.getOrganization().getId().equals(student.getOrganization().getId())
-				&& user.getOrganization().getId().equals(course.getOrganization().getId());
+		return student != null && inOrgOfCurrentUser(student)
+				&& coursePermissionService.getCurrentUserPermissions(studentCourseDTO.getCourseId()).isInOrganization();
 	}
 
 	private boolean inOrgOfCurrentUser(final StudentCourse studentCourse) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(studentCourse.getStudent().getOrganization())
-				&& user.getOrganization().equals(studentCourse.getCourse().getOrganization());
+		return inOrgOfCurrentUser(studentCourse.getStudent()) && inOrgOfCurrentUser(studentCourse.getCourse());
 	}
 
 	private boolean inOrgOfCurrentUser(final User student) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(student.getOrganization());
+		return userService.isOrganizationOfCurrentUser(student.getOrganization());
 	}
 
 	private boolean inOrgOfCurrentUser(final Course course) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(course.getOrganization());
+		return coursePermissionService.getCurrentUserPermissions(course.getId()).isInOrganization();
 	}
 }
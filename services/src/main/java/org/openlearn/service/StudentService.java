@@ -8,14 +8,18 @@ import org.openlearn.repository.AddressRepository;
 import org.openlearn.repository.UserRepository;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
+import org.openlearn.security.UserDetailsCache;
 import org.openlearn.transformer.StudentTransformer;
 import org.openlearn.web.rest.errors.StudentEmailForUnderFourteenException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -35,14 +39,21 @@ public class StudentService {
 
 	private final AddressRepository addressRepository;
 
+	private final UserDetailsCache userDetailsCache;
+
 	private final UserService userService;
 
+	private final CountCache countCache;
+
 	public StudentService(final StudentTransformer studentTransformer, final UserRepository userRepository, final AddressRepository addressRepository,
-	                      final UserService userService) {
+	                      final UserService userService, final UserDetailsCache userDetailsCache,
+	                      final CountCache countCache) {
 		this.studentTransformer = studentTransformer;
 		this.userRepository = userRepository;
 		this.userService = userService;
 		this.addressRepository = addressRepository;
+		this.userDetailsCache = userDetailsCache;
+		this.countCache = countCache;
 	}
 
 	/**
@@ -61,6 +72,7 @@ public class StudentService {
                throw new StudentEmailForUnderFourteenException("Student is under the age of fourteen cannot have an email address");
 
 			User user = userRepository.save(studentTransformer.transform(studentDTO));
+			userDetailsCache.evictAll();
 			if (user.getAddress() != null) addressRepository.save(user.getAddress());
 			return studentTransformer.transform(user);
 		}
@@ -90,23 +102,73 @@ public class StudentService {
 		}
 	}
 
+	/**
+	 * Get a page of the student users, filtered by organization.
+	 *
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of students
+	 */
 	@Transactional(readOnly = true)
-	public List<StudentDTO> findStudentsNotInCourse(final Long courseId) {
-		log.debug("Request to get all StudentsNotInCourseByOrganization");
+	public Slice<StudentDTO> findAll(final Long after, final Pageable pageable) {
+		log.debug("Request to get student users after : {}", after);
+		User user = userService.getCurrentUser();
 		if (SecurityUtils.isAdmin()) {
-			return userRepository.findStudentsNotInCourse(courseId)
-				.stream()
-				.map(studentTransformer::transform)
-				.collect(Collectors.toList());
+			return userRepository.findByAuthorityAndIdGreaterThanOrderByIdAsc(STUDENT, after, pageable)
+				.map(studentTransformer::transform);
 		} else {
-			User user = userService.getCurrentUser();
-			return userRepository.findStudentsNotInCourseByOrganization(courseId,user.getOrganization().getId())
-				.stream()
-				.map(studentTransformer::transform)
-				.collect(Collectors.toList());
+			return userRepository.findByOrganizationAndAuthorityAndIdGreaterThanOrderByIdAsc(user.getOrganization(), STUDENT, after, pageable)
+				.map(studentTransformer::transform);
 		}
 	}
 
+	/**
+	 * Count the student users, filtered by organization.
+	 *
+	 * @return the number of students, as of the last few seconds
+	 */
+	@Transactional(readOnly = true)
+	public long count() {
+		User user = userService.getCurrentUser();
+		return countCache.get("students", () -> SecurityUtils.isAdmin()
+			? userRepository.countByAuthority(STUDENT)
+			: userRepository.countByOrganizationAndAuthority(user.getOrganization(), STUDENT));
+	}
+
+	/**
+	 * Get the students not enrolled in a course, filtered by organization.
+	 *
+	 * @param courseId the id of the course
+	 * @return the list of students
+	 */
+	@Transactional(readOnly = true)
+	public List<StudentDTO> findStudentsNotInCourse(final Long courseId) {
+		log.debug("Request to get students not in Course : {}", courseId);
+		// Users other than admins only read the students of their organization through the organization filter
+		return userRepository.findRowsNotInCourse(courseId, STUDENT)
+			.stream()
+			.map(studentTransformer::transform)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a page of the students not enrolled in a course whose first name, last name or login start with a
+	 * prefix, filtered by organization.
+	 *
+	 * @param courseId the id of the course
+	 * @param prefix the prefix to match, ignoring case; all students match an empty prefix
+	 * @param after the id the page starts after
+	 * @param pageable the size of the page
+	 * @return the page of students
+	 */
+	@Transactional(readOnly = true)
+	public Slice<StudentDTO> findStudentsNotInCourse(final Long courseId, final String prefix, final Long after,
+	                                                 final Pageable pageable) {
+		log.debug("Request to get students not in Course : {} starting with : {} after : {}", courseId, prefix, after);
+		return userRepository.findRowsNotInCourse(courseId, STUDENT, likePrefix(prefix), after, pageable)
+			.map(studentTransformer::transform);
+	}
+
 	/**
 	 * Get one user by id.
 	 *
@@ -136,18 +198,22 @@ public class StudentService {
 			// TODO: Use Address service
 			if (student.getAddress() != null) addressRepository.delete(student.getAddress().getId());
 			userRepository.delete(id);
+			userDetailsCache.evictAll();
 		} else {
 			// TODO: Error handling / logging
 		}
 	}
 
 	private boolean inOrgOfCurrentUser(final StudentDTO studentDTO) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().getId().equals(studentDTO.getOrganizationId());
+		return userService.isOrganizationOfCurrentUser(studentDTO.getOrganizationId());
 	}
 
 	private boolean inOrgOfCurrentUser(final User student) {
-		User user = userService.getCurrentUser();
-		return user.getOrganization().equals(student.getOrganization());
+		return userService.isOrganizationOfCurrentUser(student.getOrganization());
+	}
+
+	private static String likePrefix(final String prefix) {
+		if (prefix == null) return "%";
+		return prefix.trim().toLowerCase(Locale.ENGLISH).replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
 	}
 }
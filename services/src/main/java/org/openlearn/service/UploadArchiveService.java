@@ -0,0 +1,218 @@
+package org.openlearn.service;
+
+import org.openlearn.config.ApplicationProperties;
+import org.openlearn.domain.Assignment;
+import org.openlearn.domain.FileInformation;
+import org.openlearn.repository.AssignmentRepository;
+import org.openlearn.repository.FileRepository;
+import org.openlearn.storage.BlobContent;
+import org.openlearn.storage.BlobStore;
+import org.openlearn.web.rest.errors.AssignmentNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for exporting the uploads of an assignment as a single ZIP archive.
+ *
+ * The archive is streamed as it is written. While one file is written, the next few are fetched from
+ * storage into temporary files, so the memory held doesn't depend on the size of the archive and the
+ * disk space held is bounded by the prefetch window.
+ */
+@Service
+public class UploadArchiveService {
+
+	private static final Logger log = LoggerFactory.getLogger(UploadArchiveService.class);
+
+	private static final String MISSING_FILES_ENTRY = "missing-files.txt";
+
+	private final AssignmentRepository assignmentRepository;
+
+	private final FileRepository fileRepository;
+
+	private final BlobStore blobStore;
+
+	private final ThreadPoolTaskExecutor archiveTaskExecutor;
+
+	private final int prefetch;
+
+	public UploadArchiveService(final AssignmentRepository assignmentRepository,
+								final FileRepository fileRepository,
+								final BlobStore blobStore,
+								@Qualifier("archiveTaskExecutor") final ThreadPoolTaskExecutor archiveTaskExecutor,
+								final ApplicationProperties applicationProperties) {
+		this.assignmentRepository = assignmentRepository;
+		this.fileRepository = fileRepository;
+		this.blobStore = blobStore;
+		this.archiveTaskExecutor = archiveTaskExecutor;
+		this.prefetch = Math.max(1, applicationProperties.getUploads().getArchivePrefetch());
+	}
+
+	/**
+	 * Get the entries of the archive of all uploads for an assignment, named [login]/[fileName] after the
+	 * user that uploaded them.
+	 *
+	 * @param assignmentId the id of the assignment
+	 * @return the list of entries
+	 */
+	@Transactional(readOnly = true)
+	public List<Entry> findEntriesForAssignment(final Long assignmentId) {
+		log.debug("Request to get archive entries for Assignment : {}", assignmentId);
+		Assignment assignment = assignmentRepository.findOne(assignmentId);
+		if (assignment == null) throw new AssignmentNotFoundException(assignmentId);
+
+		Set<String> names = new HashSet<>();
+		List<Entry> entries = new ArrayList<>();
+		for (FileInformation fileInformation : fileRepository.findByAssignment(assignment)) {
+			String path = fileInformation.getLocator();
+			String name = uniqueName(names, fileInformation.getUploadedByUser().getLogin() + "/" + path.substring(path.lastIndexOf('/') + 1));
+			entries.add(new Entry(name, fileInformation.getStorageLocator()));
+		}
+		return entries;
+	}
+
+	/**
+	 * Write a ZIP archive of the given entries. Files that can't be fetched are left out and listed in a
+	 * {@value #MISSING_FILES_ENTRY} entry instead of failing the whole archive.
+	 *
+	 * @param entries the entries to write
+	 * @param out the stream to write the archive to; it is not closed
+	 * @throws IOException if the archive could not be written
+	 */
+	public void write(final List<Entry> entries, final OutputStream out) throws IOException {
+		AtomicBoolean aborted = new AtomicBoolean();
+		Deque<CompletableFuture<Path>> fetched = new ArrayDeque<>();
+		Iterator<Entry> toFetch = entries.iterator();
+		List<String> missing = new ArrayList<>();
+
+		ZipOutputStream zip = new ZipOutputStream(out);
+		// Most uploads are already compressed documents, so a fast level saves CPU for little size
+		zip.setLevel(Deflater.BEST_SPEED);
+		try {
+			for (Entry entry : entries) {
+				while (fetched.size() < prefetch && toFetch.hasNext()) {
+					Entry next = toFetch.next();
+					fetched.add(CompletableFuture.supplyAsync(() -> fetch(next, aborted), archiveTaskExecutor));
+				}
+
+				Path file = await(fetched.poll(), entry, missing);
+				if (file == null) continue;
+				try {
+					zip.putNextEntry(new ZipEntry(entry.getName()));
+					Files.copy(file, zip);
+					zip.closeEntry();
+				} finally {
+					Files.deleteIfExists(file);
+				}
+			}
+
+			if (!missing.isEmpty()) {
+				zip.putNextEntry(new ZipEntry(MISSING_FILES_ENTRY));
+				zip.write(String.join("\n", missing).getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+			zip.finish();
+		} finally {
+			// The client may have gone away mid archive, so stop fetching and clean up whatever was fetched
+			aborted.set(true);
+			fetched.forEach(future -> future.thenAccept(this::deleteQuietly));
+		}
+	}
+
+	private Path fetch(final Entry entry, final AtomicBoolean aborted) {
+		if (aborted.get()) return null;
+		try {
+			Path file = Files.createTempFile("openlearn-archive-", null);
+			// Archives read every upload once, so they bypass the download cache rather than flush it
+			try (BlobContent content = blobStore.getUncached(entry.getLocator());
+				 OutputStream out = Files.newOutputStream(file)) {
+				content.writeTo(out);
+			} catch (IOException e) {
+				Files.deleteIfExists(file);
+				throw e;
+			}
+			return file;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Path await(final CompletableFuture<Path> future, final Entry entry, final List<String> missing) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.thenAccept(this::deleteQuietly);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while fetching " + entry.getLocator());
+		} catch (ExecutionException e) {
+			log.warn("Could not fetch {} for archive: {}", entry.getLocator(), e.getCause().getMessage());
+			missing.add(entry.getName());
+			return null;
+		}
+	}
+
+	private void deleteQuietly(final Path file) {
+		if (file == null) return;
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Could not delete {}: {}", file, e.getMessage());
+		}
+	}
+
+	private static String uniqueName(final Set<String> names, final String name) {
+		String unique = name;
+		int extension = name.lastIndexOf('.') > name.lastIndexOf('/') ? name.lastIndexOf('.') : name.length();
+		for (int i = 2; !names.add(unique); i++) {
+			unique = name.substring(0, extension) + " (" + i + ")" + name.substring(extension);
+		}
+		return unique;
+	}
+
+	/**
+	 * A file in an archive.
+	 */
+	public static class Entry {
+
+		private final String name;
+
+		private final String locator;
+
+		public Entry(final String name, final String locator) {
+			this.name = name;
+			this.locator = locator;
+		}
+
+		/**
+		 * @return the path of the file in the archive
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the locator the file is stored under
+		 */
+		public String getLocator() {
+			return locator;
+		}
+	}
+}
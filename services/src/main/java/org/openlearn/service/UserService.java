@@ -1,15 +1,24 @@
 package org.openlearn.service;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import org.openlearn.domain.Organization;
 import org.openlearn.domain.User;
 import org.openlearn.dto.AccountDTO;
 import org.openlearn.repository.UserRepository;
 import org.openlearn.security.SecurityUtils;
+import org.openlearn.security.UserDetailsCache;
 import org.openlearn.service.exception.OpenLearnException;
 import org.openlearn.transformer.AccountTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Objects;
 
 /**
  * Service Implementation for managing User.
@@ -20,24 +29,82 @@ public class UserService {
 
 	private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
+	private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".CURRENT_USER";
+
+	private static final String METRIC_PREFIX = "users.current";
+
 	private final AccountTransformer accountTransformer;
 
 	private final UserRepository userRepository;
 
-	public UserService(final AccountTransformer accountTransformer, final UserRepository userRepository) {
+	private final UserDetailsCache userDetailsCache;
+
+	private final Counter lookups;
+
+	private final Counter savedLookups;
+
+	private final Histogram savedLookupsPerRequest;
+
+	public UserService(final AccountTransformer accountTransformer, final UserRepository userRepository,
+					   final UserDetailsCache userDetailsCache, final MetricRegistry metricRegistry) {
 		this.accountTransformer = accountTransformer;
 		this.userRepository = userRepository;
+		this.userDetailsCache = userDetailsCache;
+		this.lookups = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "lookups"));
+		this.savedLookups = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "lookups", "saved"));
+		this.savedLookupsPerRequest = metricRegistry.histogram(MetricRegistry.name(METRIC_PREFIX, "lookups", "saved-per-request"));
 	}
 
 	/**
-	 * Get the current logged in user
+	 * Get the current logged in user. Within a request the login is only looked up once; later calls load the
+	 * user by id, from the persistence context or the second level cache, so the user returned always belongs
+	 * to the calling transaction and its lazy associations can still be read.
 	 *
 	 * @return the current logged in user object
 	 */
 	@Transactional(readOnly = true)
 	public User getCurrentUser() {
-		log.debug("Request to get current user");
-		return userRepository.findOneByLogin(SecurityUtils.getCurrentUserLogin());
+		String login = SecurityUtils.getCurrentUserLogin();
+		CurrentUser current = memoizedCurrentUser(login);
+		if (current == null) return memoize(login, findCurrentUser(login));
+		return current.id != null ? userRepository.findOne(current.id) : null;
+	}
+
+	/**
+	 * Get the id of the organization of the current logged in user, looked up once per request along with the
+	 * user.
+	 *
+	 * @return the id of the organization, or null if the user has none
+	 */
+	@Transactional(readOnly = true)
+	public Long getCurrentUserOrganizationId() {
+		String login = SecurityUtils.getCurrentUserLogin();
+		CurrentUser current = memoizedCurrentUser(login);
+		if (current != null) return current.organizationId;
+		User user = memoize(login, findCurrentUser(login));
+		return user != null && user.getOrganization() != null ? user.getOrganization().getId() : null;
+	}
+
+	/**
+	 * Check whether an organization is the one of the current logged in user, comparing their ids.
+	 *
+	 * @param organization the organization to check
+	 * @return true if the current user belongs to the organization
+	 */
+	@Transactional(readOnly = true)
+	public boolean isOrganizationOfCurrentUser(final Organization organization) {
+		return organization != null && isOrganizationOfCurrentUser(organization.getId());
+	}
+
+	/**
+	 * Check whether an organization is the one of the current logged in user.
+	 *
+	 * @param organizationId the id of the organization to check
+	 * @return true if the current user belongs to the organization
+	 */
+	@Transactional(readOnly = true)
+	public boolean isOrganizationOfCurrentUser(final Long organizationId) {
+		return organizationId != null && organizationId.equals(getCurrentUserOrganizationId());
 	}
 
 	/**
@@ -59,7 +126,59 @@ public class UserService {
 	 */
 	public AccountDTO updateCurrentUserAccount(final AccountDTO accountDTO) throws OpenLearnException {
 		log.debug("Request to update current user account information");
-		User user = accountTransformer.transform(accountDTO, getCurrentUser());
-		return accountTransformer.transform(userRepository.save(user));
+		User user = accountTransformer.transform(accountDTO, findCurrentUser(SecurityUtils.getCurrentUserLogin()));
+		User saved = userRepository.save(user);
+		userDetailsCache.evictAll();
+		return accountTransformer.transform(saved);
+	}
+
+	// The current user is looked up once per request and shared by every service and resource handling it
+	private CurrentUser memoizedCurrentUser(String login) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) return null;
+
+		CurrentUser current = (CurrentUser) attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (current == null || !Objects.equals(current.login, login)) return null;
+		current.savedLookups++;
+		savedLookups.inc();
+		return current;
+	}
+
+	// Only the ids are kept, as the user itself would be detached in the later transactions of the request
+	private User memoize(String login, User user) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) return user;
+
+		CurrentUser resolved = new CurrentUser(login, user);
+		attributes.setAttribute(CURRENT_USER_ATTRIBUTE, resolved, RequestAttributes.SCOPE_REQUEST);
+		attributes.registerDestructionCallback(CURRENT_USER_ATTRIBUTE,
+			() -> savedLookupsPerRequest.update(resolved.savedLookups), RequestAttributes.SCOPE_REQUEST);
+		return user;
+	}
+
+	private User findCurrentUser(String login) {
+		log.debug("Request to get current user");
+		lookups.inc();
+		return userRepository.findOneByLogin(login);
+	}
+
+	/**
+	 * The user a request is made by.
+	 */
+	private static class CurrentUser {
+
+		private final String login;
+
+		private final Long id;
+
+		private final Long organizationId;
+
+		private int savedLookups;
+
+		private CurrentUser(String login, User user) {
+			this.login = login;
+			this.id = user != null ? user.getId() : null;
+			this.organizationId = user != null && user.getOrganization() != null ? user.getOrganization().getId() : null;
+		}
 	}
 }
@@ -0,0 +1,221 @@
+package org.openlearn.storage;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.hash.Hashing;
+import org.openlearn.config.ApplicationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Node local, size bounded cache of uploaded files on disk, keyed by bucket and key.
+ *
+ * Files are evicted least recently used first once the cache grows past its maximum size. Entries also
+ * expire after a configurable time to live, which bounds how long a node can serve a file that was
+ * replaced through another node. The cache directory is cleared on startup.
+ */
+public class BlobCache {
+
+	private static final Logger log = LoggerFactory.getLogger(BlobCache.class);
+
+	private static final String METRIC_PREFIX = "uploads.cache";
+
+	private final Path directory;
+
+	private final long maxSize;
+
+	private final long maxEntrySize;
+
+	private final long timeToLive;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long size;
+
+	private final Counter hits;
+
+	private final Counter misses;
+
+	private final Counter evictions;
+
+	public BlobCache(final ApplicationProperties properties, final MetricRegistry metricRegistry) throws IOException {
+		ApplicationProperties.Uploads uploads = properties.getUploads();
+		this.directory = Paths.get(uploads.getCacheDirectory());
+		this.maxSize = uploads.getCacheMaxSize();
+		this.maxEntrySize = Math.min(uploads.getCacheMaxEntrySize(), maxSize);
+		this.timeToLive = uploads.getCacheTimeToLive() * 1000;
+
+		this.hits = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+		this.misses = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+		this.evictions = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "evictions"));
+		metricRegistry.register(MetricRegistry.name(METRIC_PREFIX, "size"), (Gauge<Long>) this::getSize);
+
+		if (isEnabled()) {
+			log.debug("Caching uploads up to {} bytes in {}", maxSize, directory);
+			Files.createDirectories(directory);
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path file : files) Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	public boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	/**
+	 * Open a cached file.
+	 *
+	 * @param bucket the bucket the file is stored in
+	 * @param key the key of the file
+	 * @return the cached content, or null if the file isn't cached
+	 */
+	public FileBlobContent get(final String bucket, final String key) {
+		if (!isEnabled()) return null;
+
+		String id = id(bucket, key);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(id);
+			if (entry != null && entry.isExpired(timeToLive)) {
+				remove(id);
+				entry = null;
+			}
+		}
+
+		if (entry != null) {
+			try {
+				FileBlobContent content = new FileBlobContent(entry.path, entry.contentType);
+				hits.inc();
+				return content;
+			} catch (IOException e) {
+				// Evicted between the lookup and the open
+				log.debug("Cached file {} could not be opened: {}", entry.path, e.getMessage());
+				synchronized (this) {
+					if (entries.get(id) == entry) remove(id);
+				}
+			}
+		}
+		misses.inc();
+		return null;
+	}
+
+	/**
+	 * Copy content into the cache, if it is small enough to be cached. The given content is consumed
+	 * either way, so the returned content must be served instead.
+	 *
+	 * @param bucket the bucket the file is stored in
+	 * @param key the key of the file
+	 * @param content the content read from the store
+	 * @return the cached content, or the given content if it isn't cached
+	 * @throws IOException if the content could not be copied into the cache
+	 */
+	public BlobContent cache(final String bucket, final String key, final BlobContent content) throws IOException {
+		if (!isEnabled() || content.getContentLength() > maxEntrySize) return content;
+
+		String id = id(bucket, key);
+		Path target = directory.resolve(fileName(id));
+		Path temp = null;
+		// The content is closed even when the temporary file can't be created
+		try (BlobContent source = content) {
+			temp = Files.createTempFile(directory, "fill-", ".tmp");
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				source.writeTo(out);
+			}
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			if (temp != null) Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		BlobContent cached = new FileBlobContent(target, content.getContentType());
+		synchronized (this) {
+			Entry previous = entries.put(id, new Entry(target, cached.getContentLength(), content.getContentType()));
+			if (previous != null) size -= previous.size;
+			size += cached.getContentLength();
+			evictOverflow();
+		}
+		return cached;
+	}
+
+	/**
+	 * Drop a file from the cache, e.g. because it was replaced or deleted.
+	 *
+	 * @param bucket the bucket the file is stored in
+	 * @param key the key of the file
+	 */
+	public synchronized void evict(final String bucket, final String key) {
+		if (isEnabled()) remove(id(bucket, key));
+	}
+
+	private synchronized long getSize() {
+		return size;
+	}
+
+	private void evictOverflow() {
+		Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+		while (size > maxSize && eldest.hasNext()) {
+			Entry entry = eldest.next().getValue();
+			eldest.remove();
+			delete(entry);
+			evictions.inc();
+		}
+	}
+
+	private void remove(final String id) {
+		Entry entry = entries.remove(id);
+		if (entry != null) delete(entry);
+	}
+
+	private void delete(final Entry entry) {
+		size -= entry.size;
+		try {
+			// Readers that already opened the file keep their handle and finish normally
+			Files.deleteIfExists(entry.path);
+		} catch (IOException e) {
+			log.warn("Could not delete cached file {}: {}", entry.path, e.getMessage());
+		}
+	}
+
+	private static String id(final String bucket, final String key) {
+		return bucket + "/" + key;
+	}
+
+	private static String fileName(final String id) {
+		return Hashing.sha256().hashString(id, StandardCharsets.UTF_8).toString();
+	}
+
+	private static class Entry {
+
+		private final Path path;
+
+		private final long size;
+
+		private final String contentType;
+
+		private final long createdAt = System.currentTimeMillis();
+
+		Entry(final Path path, final long size, final String contentType) {
+			this.path = path;
+			this.size = size;
+			this.contentType = contentType;
+		}
+
+		boolean isExpired(final long timeToLive) {
+			return timeToLive > 0 && System.currentTimeMillis() - createdAt > timeToLive;
+		}
+	}
+}
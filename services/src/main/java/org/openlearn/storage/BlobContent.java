@@ -0,0 +1,32 @@
+package org.openlearn.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The content of a stored upload, opened for reading.
+ *
+ * The content is streamed to the caller rather than buffered, so an instance holds an open
+ * connection (or file handle) until it is either written out or closed.
+ */
+public interface BlobContent extends Closeable {
+
+	/**
+	 * @return the length of the content in bytes
+	 */
+	long getContentLength();
+
+	/**
+	 * @return the media type the content was stored with, or null if it is unknown
+	 */
+	String getContentType();
+
+	/**
+	 * Copy the content to the given stream using a fixed size buffer.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if the content could not be read or the stream could not be written to
+	 */
+	void writeTo(OutputStream out) throws IOException;
+}
@@ -0,0 +1,25 @@
+package org.openlearn.storage;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Thrown when some of the files passed to {@link BlobStore#deleteAll} could not be deleted, while the others were.
+ */
+public class BlobDeletionException extends IOException {
+
+	private final Collection<String> failedLocators;
+
+	public BlobDeletionException(final String message, final Collection<String> failedLocators) {
+		super(message);
+		this.failedLocators = Collections.unmodifiableCollection(failedLocators);
+	}
+
+	/**
+	 * @return the locators of the files that were not deleted
+	 */
+	public Collection<String> getFailedLocators() {
+		return failedLocators;
+	}
+}
@@ -0,0 +1,53 @@
+package org.openlearn.storage;
+
+import java.time.Instant;
+
+/**
+ * Metadata of a stored file.
+ */
+public class BlobMetadata {
+
+	private final long contentLength;
+
+	private final String contentType;
+
+	private final Instant lastModified;
+
+	private final String eTag;
+
+	public BlobMetadata(final long contentLength, final String contentType, final Instant lastModified, final String eTag) {
+		this.contentLength = contentLength;
+		this.contentType = contentType;
+		this.lastModified = lastModified;
+		this.eTag = eTag;
+	}
+
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return the quoted entity tag of the content, which changes whenever the content does, or null if it is unknown
+	 */
+	public String getETag() {
+		return eTag;
+	}
+
+	@Override
+	public String toString() {
+		return "BlobMetadata{" +
+			"contentLength=" + contentLength +
+			", contentType='" + contentType + "'" +
+			", lastModified=" + lastModified +
+			", eTag=" + eTag +
+			"}";
+	}
+}
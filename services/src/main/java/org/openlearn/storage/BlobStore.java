@@ -0,0 +1,85 @@
+package org.openlearn.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+/**
+ * Storage backend for uploaded files.
+ *
+ * Files are addressed by a locator, a relative, slash separated path such as {@code a_12/34/essay.pdf}
+ * that doesn't depend on the backend it is stored in. The backend in use is selected through
+ * {@code application.uploads.store}.
+ */
+public interface BlobStore {
+
+	/**
+	 * Store a file, replacing any file stored under the same locator.
+	 *
+	 * @param locator the locator to store the file under
+	 * @param in the content of the file; it is not closed
+	 * @param contentLength the length of the content in bytes
+	 * @param contentType the media type of the content, or null if it is unknown
+	 * @throws IOException if the file could not be stored
+	 */
+	void put(String locator, InputStream in, long contentLength, String contentType) throws IOException;
+
+	/**
+	 * Open a stored file for streaming. The caller is responsible for closing the returned content.
+	 *
+	 * @param locator the locator of the file
+	 * @return the opened content of the file
+	 * @throws IOException if the file doesn't exist or could not be opened
+	 */
+	BlobContent get(String locator) throws IOException;
+
+	/**
+	 * Open a stored file for a one-off read, such as a bulk export, without filling any cache the backend
+	 * keeps, so the read doesn't push out the files that are read often. The caller is responsible for
+	 * closing the returned content.
+	 *
+	 * @param locator the locator of the file
+	 * @return the opened content of the file
+	 * @throws IOException if the file doesn't exist or could not be opened
+	 */
+	default BlobContent getUncached(String locator) throws IOException {
+		return get(locator);
+	}
+
+	/**
+	 * Open a range of bytes of a stored file for streaming. The caller is responsible for closing the returned content.
+	 *
+	 * @param locator the locator of the file
+	 * @param first the offset of the first byte of the range
+	 * @param last the offset of the last byte of the range, inclusive; it must be within the file
+	 * @return the opened range of the file
+	 * @throws IOException if the file doesn't exist or could not be opened
+	 */
+	BlobContent get(String locator, long first, long last) throws IOException;
+
+	/**
+	 * Delete a stored file. Deleting a file that doesn't exist is not an error.
+	 *
+	 * @param locator the locator of the file
+	 * @throws IOException if the file could not be deleted
+	 */
+	void delete(String locator) throws IOException;
+
+	/**
+	 * Delete several stored files at once.
+	 *
+	 * @param locators the locators of the files
+	 * @throws BlobDeletionException if some of the files could not be deleted, listing which
+	 * @throws IOException if the files could not be deleted
+	 */
+	void deleteAll(Collection<String> locators) throws IOException;
+
+	/**
+	 * Get the metadata of a stored file without opening it.
+	 *
+	 * @param locator the locator of the file
+	 * @return the metadata of the file, or null if it doesn't exist
+	 * @throws IOException if the metadata could not be read
+	 */
+	BlobMetadata stat(String locator) throws IOException;
+}
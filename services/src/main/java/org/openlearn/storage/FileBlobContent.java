@@ -0,0 +1,74 @@
+package org.openlearn.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Content of a file on the local disk, copied to the client with {@link FileChannel#transferTo}. Reads are
+ * served from the page cache, but on its way into an output stream the content is still copied through small
+ * buffers, one of them on the heap, so this is not a zero-copy transfer.
+ */
+public class FileBlobContent implements BlobContent {
+
+	private final FileChannel channel;
+
+	private long position;
+
+	private long contentLength;
+
+	private final String contentType;
+
+	public FileBlobContent(final Path path, final String contentType) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.contentLength = channel.size();
+		this.contentType = contentType;
+	}
+
+	/**
+	 * Narrow the content down to a range of bytes.
+	 *
+	 * @param first the offset of the first byte of the range
+	 * @param last the offset of the last byte of the range, inclusive
+	 * @return this content
+	 * @throws IOException if the range is not within the content, in which case the content is closed
+	 */
+	public FileBlobContent range(final long first, final long last) throws IOException {
+		if (first < 0 || last < first || last >= contentLength) {
+			close();
+			throw new IOException("Invalid range " + first + "-" + last + " of " + contentLength + " bytes");
+		}
+		this.position += first;
+		this.contentLength = last - first + 1;
+		return this;
+	}
+
+	@Override
+	public long getContentLength() {
+		return contentLength;
+	}
+
+	@Override
+	public String getContentType() {
+		return contentType;
+	}
+
+	@Override
+	public void writeTo(final OutputStream out) throws IOException {
+		WritableByteChannel target = Channels.newChannel(out);
+		long written = 0;
+		while (written < contentLength) {
+			written += channel.transferTo(position + written, contentLength - written, target);
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
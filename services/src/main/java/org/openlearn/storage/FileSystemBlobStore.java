@@ -0,0 +1,120 @@
+package org.openlearn.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Stores files in a directory on the local filesystem, using the locator as the relative path of the file.
+ *
+ * Files are written to a temporary file next to their target and atomically moved into place, so readers
+ * never see a partially written file. Meant for self hosted installs and for load testing without AWS.
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+	private static final Logger log = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+	private final Path root;
+
+	public FileSystemBlobStore(final Path root) throws IOException {
+		this.root = root.toAbsolutePath().normalize();
+		Files.createDirectories(this.root);
+		log.debug("Storing uploads in {}", this.root);
+	}
+
+	@Override
+	public void put(final String locator, final InputStream in, final long contentLength, final String contentType) throws IOException {
+		Path target = resolve(locator);
+		Files.createDirectories(target.getParent());
+		Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+		try {
+			try (ReadableByteChannel source = Channels.newChannel(in);
+				 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				long position = 0;
+				while (position < contentLength) {
+					long transferred = out.transferFrom(source, position, contentLength - position);
+					if (transferred <= 0) throw new EOFException("Upload of " + locator + " ended after " + position + " bytes");
+					position += transferred;
+				}
+			}
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	@Override
+	public BlobContent get(final String locator) throws IOException {
+		return new FileBlobContent(resolve(locator), contentType(locator));
+	}
+
+	@Override
+	public BlobContent get(final String locator, final long first, final long last) throws IOException {
+		return new FileBlobContent(resolve(locator), contentType(locator)).range(first, last);
+	}
+
+	@Override
+	public void delete(final String locator) throws IOException {
+		Files.deleteIfExists(resolve(locator));
+	}
+
+	@Override
+	public void deleteAll(final Collection<String> locators) throws IOException {
+		List<String> failed = new ArrayList<>();
+		for (String locator : locators) {
+			try {
+				delete(locator);
+			} catch (IOException e) {
+				log.warn("Could not delete {}: {}", locator, e.getMessage());
+				failed.add(locator);
+			}
+		}
+		if (!failed.isEmpty()) throw new BlobDeletionException("Could not delete " + failed.size() + " files", failed);
+	}
+
+	@Override
+	public BlobMetadata stat(final String locator) throws IOException {
+		Path path = resolve(locator);
+		if (!Files.exists(path)) return null;
+
+		BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		Instant lastModified = attributes.lastModifiedTime().toInstant();
+		// Files are only ever replaced as a whole, so their size and modification time identify their content
+		String eTag = "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified.toEpochMilli()) + "\"";
+		return new BlobMetadata(attributes.size(), contentType(locator), lastModified, eTag);
+	}
+
+	private Path resolve(final String locator) throws IOException {
+		// Locators end in a client supplied file name, so make sure it stays in the directory of its own prefix,
+		// rather than only in the root, where it could still reach the uploads of another user
+		Path directory = root.resolve(locator.substring(0, locator.lastIndexOf('/') + 1));
+		Path path = root.resolve(locator).normalize();
+		if (!directory.equals(directory.normalize()) || !directory.startsWith(root) || !directory.equals(path.getParent())) {
+			throw new IOException("Invalid locator: " + locator);
+		}
+		return path;
+	}
+
+	// The filesystem keeps no content type, so it is guessed from the name; content addressed locators have no
+	// extension, so theirs is null and the content type recorded with the upload is served instead
+	private String contentType(final String locator) {
+		return URLConnection.guessContentTypeFromName(locator);
+	}
+}
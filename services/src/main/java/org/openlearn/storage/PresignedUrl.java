@@ -0,0 +1,54 @@
+package org.openlearn.storage;
+
+import java.net.URL;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A short lived URL that lets a client transfer a stored file directly, without going through the application.
+ */
+public class PresignedUrl {
+
+	private final URL url;
+
+	private final String method;
+
+	private final Instant expiresAt;
+
+	private final Map<String, String> headers;
+
+	public PresignedUrl(final URL url, final String method, final Instant expiresAt, final Map<String, String> headers) {
+		this.url = url;
+		this.method = method;
+		this.expiresAt = expiresAt;
+		this.headers = Collections.unmodifiableMap(headers);
+	}
+
+	public URL getUrl() {
+		return url;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @return the headers the client has to send along with the request, as they are part of the signature
+	 */
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	@Override
+	public String toString() {
+		return "PresignedUrl{" +
+			"method='" + method + "'" +
+			", expiresAt=" + expiresAt +
+			"}";
+	}
+}
@@ -0,0 +1,42 @@
+package org.openlearn.storage;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Storage backend clients can transfer files to and from directly, through presigned URLs, without the
+ * content passing through the application.
+ */
+public interface PresigningBlobStore extends BlobStore {
+
+	/**
+	 * Create a URL a client can use to store a file directly, replacing any file stored under the same locator.
+	 * The client has to report back once it is done, see {@link #putCompleted}.
+	 *
+	 * @param locator the locator to store the file under
+	 * @param contentType the media type the client will send, or null if it is unknown
+	 * @param expiry how long the URL stays valid
+	 * @return the URL along with the headers the client has to send
+	 * @throws IOException if the URL could not be created
+	 */
+	PresignedUrl presignPut(String locator, String contentType, Duration expiry) throws IOException;
+
+	/**
+	 * Create a URL a client can use to download a stored file directly, as an attachment with the given name.
+	 *
+	 * @param locator the locator of the file
+	 * @param fileName the name the file is saved under by the client
+	 * @param expiry how long the URL stays valid
+	 * @return the URL along with the headers the client has to send
+	 * @throws IOException if the URL could not be created
+	 */
+	PresignedUrl presignGet(String locator, String fileName, Duration expiry) throws IOException;
+
+	/**
+	 * Take note that a client finished storing a file through a URL from {@link #presignPut}, so any copy
+	 * of the file it replaced is no longer served.
+	 *
+	 * @param locator the locator of the file
+	 */
+	void putCompleted(String locator);
+}
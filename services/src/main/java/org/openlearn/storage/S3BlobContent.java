@@ -0,0 +1,54 @@
+package org.openlearn.storage;
+
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Content of an S3 object, streamed straight from the open GET connection.
+ */
+public class S3BlobContent implements BlobContent {
+
+	private static final int BUFFER_SIZE = 8 * 1024;
+
+	private final S3Object s3Object;
+
+	public S3BlobContent(final S3Object s3Object) {
+		this.s3Object = s3Object;
+	}
+
+	@Override
+	public long getContentLength() {
+		return s3Object.getObjectMetadata().getContentLength();
+	}
+
+	@Override
+	public String getContentType() {
+		return s3Object.getObjectMetadata().getContentType();
+	}
+
+	@Override
+	public void writeTo(final OutputStream out) throws IOException {
+		S3ObjectInputStream in = s3Object.getObjectContent();
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			out.flush();
+		} catch (IOException e) {
+			// Most likely the client went away. Drop the connection rather than letting close() drain the
+			// rest of the object into the void.
+			in.abort();
+			throw e;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		s3Object.close();
+	}
+}
@@ -0,0 +1,241 @@
+package org.openlearn.storage;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.*;
+import com.google.common.collect.Lists;
+import org.openlearn.client.S3Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Stores files in an S3 bucket, using the locator as the object key. Downloads go through the node
+ * local {@link BlobCache}, except for uncached reads.
+ */
+public class S3BlobStore implements PresigningBlobStore {
+
+	private static final Logger log = LoggerFactory.getLogger(S3BlobStore.class);
+
+	/** The maximum number of keys S3 accepts in a single delete request */
+	private static final int MAX_KEYS_PER_DELETE = 1000;
+
+	private final S3Client s3client;
+
+	private final BlobCache blobCache;
+
+	private final String bucket;
+
+	private final long multipartThreshold;
+
+	public S3BlobStore(final S3Client s3client, final BlobCache blobCache, final String bucket,
+					   final long multipartThreshold) {
+		this.s3client = s3client;
+		this.blobCache = blobCache;
+		this.bucket = bucket;
+		this.multipartThreshold = multipartThreshold;
+	}
+
+	@Override
+	public void put(final String locator, final InputStream in, final long contentLength, final String contentType) throws IOException {
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentType(contentType);
+		File spooled = null;
+		try {
+			PutObjectRequest request;
+			if (contentLength > multipartThreshold) {
+				// Parts can only be sent in parallel from a file, so large uploads are spooled to disk first
+				spooled = spool(in);
+				request = new PutObjectRequest(bucket, locator, spooled).withMetadata(metadata);
+			} else {
+				metadata.setContentLength(contentLength);
+				request = new PutObjectRequest(bucket, locator, in, metadata);
+			}
+			// Blocks until every part is stored
+			s3client.upload(request);
+			blobCache.evict(bucket, locator);
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while uploading " + locator);
+		} finally {
+			if (spooled != null && !spooled.delete()) log.warn("Could not delete spooled upload {}", spooled);
+		}
+	}
+
+	@Override
+	public BlobContent get(final String locator) throws IOException {
+		BlobContent cached = blobCache.get(bucket, locator);
+		if (cached != null) return cached;
+
+		try {
+			S3Object s3Object = s3client.getObject(new GetObjectRequest(bucket, locator));
+			return blobCache.cache(bucket, locator, new S3BlobContent(s3Object));
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		} catch (IOException e) {
+			// The cache fill consumed the stream, so fetch the file again and serve it without caching
+			log.warn("Could not cache {}: {}", locator, e.getMessage());
+			try {
+				return new S3BlobContent(s3client.getObject(new GetObjectRequest(bucket, locator)));
+			} catch (AmazonClientException retryException) {
+				throw storeException(retryException);
+			}
+		}
+	}
+
+	@Override
+	public BlobContent getUncached(final String locator) throws IOException {
+		try {
+			return new S3BlobContent(s3client.getObject(new GetObjectRequest(bucket, locator)));
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		}
+	}
+
+	@Override
+	public BlobContent get(final String locator, final long first, final long last) throws IOException {
+		FileBlobContent cached = blobCache.get(bucket, locator);
+		if (cached != null) return cached.range(first, last);
+
+		// Ranges are passed through to S3 and not cached, so only the requested bytes are transferred
+		try {
+			return new S3BlobContent(s3client.getObject(new GetObjectRequest(bucket, locator).withRange(first, last)));
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		}
+	}
+
+	@Override
+	public void delete(final String locator) throws IOException {
+		try {
+			s3client.deleteObject(new DeleteObjectRequest(bucket, locator));
+			blobCache.evict(bucket, locator);
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		}
+	}
+
+	@Override
+	public void deleteAll(final Collection<String> locators) throws IOException {
+		List<String> failed = new ArrayList<>();
+		for (List<String> batch : Lists.partition(new ArrayList<>(locators), MAX_KEYS_PER_DELETE)) {
+			DeleteObjectsRequest request = new DeleteObjectsRequest(bucket)
+				.withKeys(batch.stream().map(DeleteObjectsRequest.KeyVersion::new).collect(Collectors.toList()))
+				.withQuiet(true);
+			try {
+				s3client.deleteObjects(request);
+			} catch (MultiObjectDeleteException e) {
+				// The rest of the batch was deleted, only the keys listed in the errors are left
+				e.getErrors().forEach(error -> {
+					log.warn("Could not delete {}: {}", error.getKey(), error.getMessage());
+					failed.add(error.getKey());
+				});
+			} catch (AmazonClientException e) {
+				throw storeException(e);
+			} finally {
+				batch.forEach(locator -> blobCache.evict(bucket, locator));
+			}
+		}
+		if (!failed.isEmpty()) throw new BlobDeletionException("Could not delete " + failed.size() + " files", failed);
+	}
+
+	@Override
+	public BlobMetadata stat(final String locator) throws IOException {
+		try {
+			ObjectMetadata metadata = s3client.getObjectMetadata(new GetObjectMetadataRequest(bucket, locator));
+			return new BlobMetadata(metadata.getContentLength(), metadata.getContentType(),
+				metadata.getLastModified() != null ? metadata.getLastModified().toInstant() : null,
+				metadata.getETag() != null ? "\"" + metadata.getETag() + "\"" : null);
+		} catch (AmazonServiceException e) {
+			if (e.getStatusCode() == 404) return null;
+			throw storeException(e);
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		}
+	}
+
+	@Override
+	public PresignedUrl presignPut(final String locator, final String contentType, final Duration expiry) throws IOException {
+		Instant expiresAt = Instant.now().plus(expiry);
+		GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucket, locator, HttpMethod.PUT)
+			.withExpiration(Date.from(expiresAt))
+			.withContentType(contentType);
+		Map<String, String> headers = new LinkedHashMap<>(s3client.getEncryptionHeaders());
+		if (contentType != null) headers.put(Headers.CONTENT_TYPE, contentType);
+		try {
+			return new PresignedUrl(s3client.generatePresignedUrl(request), HttpMethod.PUT.name(), expiresAt, headers);
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		}
+	}
+
+	@Override
+	public PresignedUrl presignGet(final String locator, final String fileName, final Duration expiry) throws IOException {
+		Instant expiresAt = Instant.now().plus(expiry);
+		GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucket, locator, HttpMethod.GET)
+			.withExpiration(Date.from(expiresAt))
+			.withResponseHeaders(new ResponseHeaderOverrides()
+				.withContentDisposition("attachment; filename=" + fileName));
+		try {
+			return new PresignedUrl(s3client.generatePresignedUrl(request), HttpMethod.GET.name(), expiresAt,
+				Collections.emptyMap());
+		} catch (AmazonClientException e) {
+			throw storeException(e);
+		}
+	}
+
+	@Override
+	public void putCompleted(final String locator) {
+		blobCache.evict(bucket, locator);
+	}
+
+	/**
+	 * Abort multipart uploads that were started more than a day ago and never completed, e.g. because the
+	 * node uploading them went down.
+	 * <p>
+	 * This is scheduled to get fired everyday, at 04:00 (am).
+	 */
+	@Scheduled(cron = "0 0 4 * * ?")
+	public void abortStaleMultipartUploads() {
+		Date before = Date.from(Instant.now().minus(1, ChronoUnit.DAYS));
+		log.debug("Aborting multipart uploads started before {}", before);
+		try {
+			s3client.abortMultipartUploads(bucket, before);
+		} catch (AmazonClientException e) {
+			log.error("Could not abort stale multipart uploads: {}", e.getMessage());
+		}
+	}
+
+	private File spool(final InputStream in) throws IOException {
+		File spooled = File.createTempFile("openlearn-upload-", null);
+		try {
+			Files.copy(in, spooled.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			spooled.delete();
+			throw e;
+		}
+		return spooled;
+	}
+
+	private IOException storeException(final AmazonClientException e) {
+		String message = e instanceof AmazonServiceException ? ((AmazonServiceException) e).getErrorMessage() : e.getMessage();
+		log.error(message);
+		return new IOException(message, e);
+	}
+}
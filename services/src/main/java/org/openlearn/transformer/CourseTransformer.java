@@ -4,9 +4,11 @@ import org.openlearn.domain.Authority;
 import org.openlearn.domain.Course;
 import org.openlearn.dto.CourseDTO;
 import org.openlearn.dto.InstructorDTO;
+import org.openlearn.dto.SessionDTO;
 import org.openlearn.repository.CourseRepository;
 import org.openlearn.repository.SessionRepository;
 import org.openlearn.repository.UserRepository;
+import org.openlearn.repository.projection.CourseRow;
 import org.openlearn.security.AuthoritiesConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +66,53 @@ public class CourseTransformer {
 		return courseDTO;
 	}
 
+	/**
+	 * Transforms a row of a list query into a DTO
+	 *
+	 * @param row the row to transform
+	 * @return the new DTO with its session and instructor DTOs
+	 */
+	public CourseDTO transform(final CourseRow row) {
+		CourseDTO courseDTO = new CourseDTO();
+		courseDTO.setId(row.getCourseId());
+		courseDTO.setName(row.getCourseName());
+		courseDTO.setDescription(row.getCourseDescription());
+		courseDTO.setStartDate(row.getCourseStartDate());
+		courseDTO.setEndDate(row.getCourseEndDate());
+		courseDTO.setSessionId(row.getSessionId());
+		courseDTO.setInstructorId(row.getInstructorId());
+		courseDTO.setLocations(row.getCourseLocations());
+		courseDTO.setTimes(row.getCourseTimes());
+
+		SessionDTO sessionDTO = new SessionDTO();
+		sessionDTO.setId(row.getSessionId());
+		sessionDTO.setName(row.getSessionName());
+		sessionDTO.setDescription(row.getSessionDescription());
+		sessionDTO.setStartDate(row.getSessionStartDate());
+		sessionDTO.setEndDate(row.getSessionEndDate());
+		sessionDTO.setProgramId(row.getSessionProgramId());
+		courseDTO.setSession(sessionDTO);
+
+		InstructorDTO instructorDTO = new InstructorDTO();
+		instructorDTO.setId(row.getInstructorId());
+		instructorDTO.setFirstName(row.getInstructorFirstName());
+		instructorDTO.setLastName(row.getInstructorLastName());
+		instructorDTO.setLogin(row.getInstructorLogin());
+		instructorDTO.setAuthority(row.getInstructorAuthority());
+		instructorDTO.setEmail(row.getInstructorEmail());
+		instructorDTO.setPhoneNumber(row.getInstructorPhoneNumber());
+		instructorDTO.setNotes(row.getInstructorNotes());
+		if (row.getInstructorState() != null) {
+			instructorDTO.setStreetAddress1(row.getInstructorStreetAddress1());
+			instructorDTO.setStreetAddress2(row.getInstructorStreetAddress2());
+			instructorDTO.setCity(row.getInstructorCity());
+			instructorDTO.setState(row.getInstructorState().name());
+			instructorDTO.setPostalCode(row.getInstructorPostalCode());
+		}
+		courseDTO.setInstructor(instructorDTO);
+		return courseDTO;
+	}
+
 	/**
 	 * Transforms a DTO into an entity
 	 *
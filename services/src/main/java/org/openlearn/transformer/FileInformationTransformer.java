@@ -56,7 +56,7 @@ public class FileInformationTransformer {
 		log.debug("Transforming file information to file information DTO : {}", fileInformation);
 		FileInformationDTO fileInformationDTO = new FileInformationDTO();
 		fileInformationDTO.setId(fileInformation.getId());
-		fileInformationDTO.setFileUrl(fileInformation.getFileUrl());
+		fileInformationDTO.setFileUrl(fileInformation.getLocator());
 		fileInformationDTO.setFileType(fileInformation.getFileType());
 		fileInformationDTO.setCreatedDate(fileInformation.getCreatedDate());
 		fileInformationDTO.setUploadedByUserId(fileInformation.getUploadedByUser().getId());
@@ -85,7 +85,7 @@ public class FileInformationTransformer {
 		log.debug("Transforming file information DTO to file information : {}", fileInformationDTO);
 		FileInformation fileInformation = fileInformationDTO.getId() == null ? new FileInformation() : fileRepository.findOne(fileInformationDTO.getId());
 		fileInformation.setId(fileInformationDTO.getId());
-		fileInformation.setFileUrl(fileInformationDTO.getFileUrl());
+		fileInformation.setLocator(fileInformationDTO.getFileUrl());
 		fileInformation.setFileType(fileInformationDTO.getFileType());
 		fileInformation.setCreatedDate(fileInformationDTO.getCreatedDate());
 		fileInformation.setUploadedByUser(userRepository.findOne(fileInformationDTO.getUploadedByUserId()));
@@ -6,6 +6,7 @@ import org.openlearn.dto.StudentAssignmentDTO;
 import org.openlearn.repository.AssignmentRepository;
 import org.openlearn.repository.StudentAssignmentRepository;
 import org.openlearn.repository.UserRepository;
+import org.openlearn.repository.projection.SubmissionRow;
 import org.openlearn.security.AuthoritiesConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +80,24 @@ public class StudentAssignmentTransformer {
 		return studentAssignmentDTO;
 	}
 
+	/**
+	 * Transforms a row of the student assignments of an assignment into a DTO
+	 *
+	 * @param row the row to transform
+	 * @return the new DTO with its student DTO
+	 */
+	public StudentAssignmentDTO transform(final SubmissionRow row) {
+		StudentAssignmentDTO studentAssignmentDTO = new StudentAssignmentDTO();
+		studentAssignmentDTO.setId(row.getId());
+		studentAssignmentDTO.setStudentId(row.getStudentId());
+		studentAssignmentDTO.setAssignmentId(row.getAssignmentId());
+		studentAssignmentDTO.setStudent(studentTransformer.transform(row));
+		studentAssignmentDTO.setGrade(row.getGrade());
+		studentAssignmentDTO.setComplete(row.getComplete());
+		studentAssignmentDTO.setOnPortfolio(row.getOnPortfolio());
+		return studentAssignmentDTO;
+	}
+
 	/**
 	 * Transforms a DTO into an entity
 	 *
@@ -6,6 +6,8 @@ import org.openlearn.dto.StudentCourseDTO;
 import org.openlearn.repository.CourseRepository;
 import org.openlearn.repository.StudentCourseRepository;
 import org.openlearn.repository.UserRepository;
+import org.openlearn.repository.projection.CourseEnrollmentRow;
+import org.openlearn.repository.projection.StudentEnrollmentRow;
 import org.openlearn.security.AuthoritiesConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -79,6 +81,46 @@ public class StudentCourseTransformer {
 		return studentCourseDTO;
 	}
 
+	/**
+	 * Transforms a row of the enrollments of a student into a DTO
+	 *
+	 * @param row the row to transform
+	 * @return the new DTO with its course DTO
+	 */
+	public StudentCourseDTO transform(final StudentEnrollmentRow row) {
+		StudentCourseDTO studentCourseDTO = new StudentCourseDTO();
+		studentCourseDTO.setId(row.getId());
+		studentCourseDTO.setStudentId(row.getStudentId());
+		studentCourseDTO.setCourseId(row.getCourseId());
+		studentCourseDTO.setCourse(courseTransformer.transform(row));
+		studentCourseDTO.setGrade(row.getGrade());
+		studentCourseDTO.setEnrollDate(row.getEnrollDate());
+		studentCourseDTO.setDropDate(row.getDropDate());
+		studentCourseDTO.setComplete(row.getComplete());
+		studentCourseDTO.setOnPortfolio(row.getOnPortfolio());
+		return studentCourseDTO;
+	}
+
+	/**
+	 * Transforms a row of the enrollments in a course into a DTO
+	 *
+	 * @param row the row to transform
+	 * @return the new DTO with its student DTO
+	 */
+	public StudentCourseDTO transform(final CourseEnrollmentRow row) {
+		StudentCourseDTO studentCourseDTO = new StudentCourseDTO();
+		studentCourseDTO.setId(row.getId());
+		studentCourseDTO.setStudentId(row.getStudentId());
+		studentCourseDTO.setCourseId(row.getCourseId());
+		studentCourseDTO.setStudent(studentTransformer.transform(row));
+		studentCourseDTO.setGrade(row.getGrade());
+		studentCourseDTO.setEnrollDate(row.getEnrollDate());
+		studentCourseDTO.setDropDate(row.getDropDate());
+		studentCourseDTO.setComplete(row.getComplete());
+		studentCourseDTO.setOnPortfolio(row.getOnPortfolio());
+		return studentCourseDTO;
+	}
+
 	/**
 	 * Transforms a DTO into an entity
 	 *
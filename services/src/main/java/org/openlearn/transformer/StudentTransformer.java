@@ -5,6 +5,7 @@ import org.openlearn.domain.enumeration.GradeLevel;
 import org.openlearn.dto.StudentDTO;
 import org.openlearn.repository.OrganizationRepository;
 import org.openlearn.repository.UserRepository;
+import org.openlearn.repository.projection.StudentRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -50,6 +51,42 @@ public class StudentTransformer {
 		return studentDTO;
 	}
 
+	/**
+	 * Transforms a row of a list query into a DTO
+	 *
+	 * @param row the row to transform
+	 * @return the new DTO
+	 */
+	public StudentDTO transform(final StudentRow row) {
+		StudentDTO studentDTO = new StudentDTO();
+		studentDTO.setId(row.getStudentId());
+		studentDTO.setFirstName(row.getStudentFirstName());
+		studentDTO.setLastName(row.getStudentLastName());
+		studentDTO.setLogin(row.getStudentLogin());
+		studentDTO.setAuthority(row.getStudentAuthority());
+		studentDTO.setEmail(row.getStudentEmail());
+		studentDTO.setPhoneNumber(row.getStudentPhoneNumber());
+		studentDTO.setNotes(row.getStudentNotes());
+		if (row.getStudentState() != null) {
+			studentDTO.setStreetAddress1(row.getStudentStreetAddress1());
+			studentDTO.setStreetAddress2(row.getStudentStreetAddress2());
+			studentDTO.setCity(row.getStudentCity());
+			studentDTO.setState(row.getStudentState().name());
+			studentDTO.setPostalCode(row.getStudentPostalCode());
+		}
+		studentDTO.setOrganizationId(row.getStudentOrganizationId());
+		studentDTO.setFourteenPlus(row.getStudentFourteenPlus());
+		studentDTO.setGuardianFirstName(row.getStudentGuardianFirstName());
+		studentDTO.setGuardianLastName(row.getStudentGuardianLastName());
+		studentDTO.setGuardianEmail(row.getStudentGuardianEmail());
+		studentDTO.setGuardianPhone(row.getStudentGuardianPhone());
+		studentDTO.setSchool(row.getStudentSchool());
+		studentDTO.setGradeLevel(row.getStudentGradeLevel() == null ? null : row.getStudentGradeLevel().name());
+		studentDTO.setStateStudentId(row.getStudentStateStudentId());
+		studentDTO.setOrgStudentId(row.getStudentStateStudentId());
+		return studentDTO;
+	}
+
 	/**
 	 * Transforms a DTO into an entity
 	 *
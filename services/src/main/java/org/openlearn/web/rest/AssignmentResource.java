@@ -2,27 +2,34 @@ package org.openlearn.web.rest;
 
 import io.swagger.annotations.ApiParam;
 import org.openlearn.dto.AssignmentDTO;
+import org.openlearn.dto.DirectUploadDTO;
 import org.openlearn.dto.FileInformationDTO;
+import org.openlearn.dto.PresignedUrlDTO;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
 import org.openlearn.service.AssignmentService;
 import org.openlearn.service.FileInformationService;
 import org.openlearn.service.StorageService;
+import org.openlearn.service.UploadArchiveService;
+import org.openlearn.storage.BlobMetadata;
 import org.openlearn.web.rest.errors.AssignmentNotFoundException;
 import org.openlearn.web.rest.errors.FileInformationNotFoundException;
+import org.openlearn.web.rest.util.DownloadUtil;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -33,6 +40,8 @@ public class AssignmentResource {
 
 	private static final String ENDPOINT = "/api/assignments/";
 
+	private static final MediaType ARCHIVE_MEDIA_TYPE = MediaType.parseMediaType("application/zip");
+
 	private static final Logger log = LoggerFactory.getLogger(AssignmentResource.class);
 
 	private final AssignmentService assignmentService;
@@ -41,12 +50,16 @@ public class AssignmentResource {
 
 	private final FileInformationService fileInformationService;
 
+	private final UploadArchiveService uploadArchiveService;
+
 	public AssignmentResource(final AssignmentService assignmentService,
 							  final FileInformationService fileInformationService,
-							  final StorageService storageService) {
+							  final StorageService storageService,
+							  final UploadArchiveService uploadArchiveService) {
 		this.assignmentService = assignmentService;
 		this.fileInformationService = fileInformationService;
 		this.storageService = storageService;
+		this.uploadArchiveService = uploadArchiveService;
 	}
 
 	/**
@@ -66,14 +79,23 @@ public class AssignmentResource {
 	/**
 	 * GET  / : get a list of all assignment, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all assignments are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of assignments in the body
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all assignments");
-		List<AssignmentDTO> response = assignmentService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all assignments");
+			List<AssignmentDTO> response = assignmentService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for assignments after : {}", after);
+		Slice<AssignmentDTO> page = assignmentService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, AssignmentDTO::getId, assignmentService.count(), "/api/assignments");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
@@ -174,6 +196,57 @@ public class AssignmentResource {
 		}
 	}
 
+	/**
+	 * POST /:assignmentId/upload/presign : get a URL to upload a course file directly to storage
+	 *
+	 * @param assignmentId
+	 * @param directUploadDTO the file that is going to be uploaded
+	 * @return the ResponseEntity with status 200 (OK) and the presigned URL in the body, or with status 404
+	 * (Not Found) if direct transfer is not enabled
+	 */
+	@PostMapping(path="/{assignmentId}/upload/presign")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
+	public ResponseEntity presignUpload(@PathVariable final Long assignmentId,
+										@RequestBody @Valid final DirectUploadDTO directUploadDTO) {
+		log.debug("POST request to presign upload for assignment {} : {}", assignmentId, directUploadDTO);
+		AssignmentDTO assignmentDTO = assignmentService.findOne(assignmentId);
+		if (assignmentDTO == null) throw new AssignmentNotFoundException(assignmentId);
+
+		if (canUploadFilesToAssignment(assignmentDTO)) {
+			PresignedUrlDTO response = storageService.presignUpload(directUploadDTO, assignmentId, null);
+			return ResponseEntity.ok(response);
+		} else {
+			log.info("User is not authorized to upload files for assignment: {}.", assignmentId);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
+
+	/**
+	 * POST /:assignmentId/upload/complete : record a course file that was uploaded directly to storage
+	 *
+	 * @param assignmentId
+	 * @param directUploadDTO the file that was uploaded
+	 * @return the ResponseEntity with status 201 (Created) and the File Information in the body, or with
+	 * status 422 (Unprocessable Entity) if the file was not uploaded
+	 * @throws URISyntaxException if the Location URI syntax is incorrect
+	 */
+	@PostMapping(path="/{assignmentId}/upload/complete")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
+	public ResponseEntity completeUpload(@PathVariable final Long assignmentId,
+										 @RequestBody @Valid final DirectUploadDTO directUploadDTO) throws URISyntaxException {
+		log.debug("POST request to complete upload for assignment {} : {}", assignmentId, directUploadDTO);
+		AssignmentDTO assignmentDTO = assignmentService.findOne(assignmentId);
+		if (assignmentDTO == null) throw new AssignmentNotFoundException(assignmentId);
+
+		if (canUploadFilesToAssignment(assignmentDTO)) {
+			FileInformationDTO response = storageService.completeDirectUpload(directUploadDTO, assignmentId, null);
+			return ResponseEntity.created(new URI(ENDPOINT + response.getId())).body(response);
+		} else {
+			log.info("User is not authorized to upload files for assignment: {}.", assignmentId);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
+
 	/**
 	 * GET /:assignmentId/uploads : get uploaded course files
 	 * @param assignmentId
@@ -196,6 +269,30 @@ public class AssignmentResource {
 		}
 	}
 
+	/**
+	 * GET /:assignmentId/uploads/archive : get all uploaded course files as a ZIP archive
+	 *
+	 * @param assignmentId
+	 * @return the ResponseEntity with status 200 (OK) and the streamed archive in the body
+	 */
+	@GetMapping(path="/{assignmentId}/uploads/archive")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
+	public ResponseEntity getUploadsArchive(@PathVariable final Long assignmentId) {
+		log.debug("GET request to get course uploads archive for assignment " + assignmentId);
+
+		AssignmentDTO assignmentDTO = assignmentService.findOne(assignmentId);
+		if (assignmentDTO == null) throw new AssignmentNotFoundException(assignmentId);
+
+		if (hasCreateUpdateDeleteAuthority(assignmentDTO)) {
+			List<UploadArchiveService.Entry> entries = uploadArchiveService.findEntriesForAssignment(assignmentId);
+			return DownloadUtil.attachment(out -> uploadArchiveService.write(entries, out),
+				"assignment-" + assignmentId + ".zip", ARCHIVE_MEDIA_TYPE);
+		} else {
+			log.info("User is not authorized to retrieve uploaded files for assignment: {}.", assignmentId);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
+
 	@GetMapping(path="/{assignmentId}/instructor/uploads")
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
 	public ResponseEntity getInstructorUploads(@PathVariable final Long assignmentId) {
@@ -223,7 +320,8 @@ public class AssignmentResource {
 	@GetMapping(path="/{assignmentId}/upload/{id}")
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
 	public ResponseEntity getUpload(@PathVariable final Long assignmentId,
-									@PathVariable final Long id) {
+									@PathVariable final Long id,
+									final WebRequest request) {
 		log.debug("GET request to get course upload : {}", id);
 		AssignmentDTO assignmentDTO = assignmentService.findOne(assignmentId);
 		FileInformationDTO fileInformationDTO = fileInformationService.findOne(id);
@@ -233,19 +331,38 @@ public class AssignmentResource {
 
 		if (canGetUploadedFile(fileInformationDTO, assignmentDTO)) {
 			String fileName = fileInformationService.getFileNameFor(id);
-			InputStream response = storageService.getUpload(id);
-			try {
-				byte[] out = org.apache.commons.io.IOUtils.toByteArray(response);
+			BlobMetadata metadata = storageService.getUploadMetadata(id);
+			return DownloadUtil.attachment(request, metadata, fileName,
+				() -> storageService.getUpload(id), (first, last) -> storageService.getUpload(id, first, last));
+		} else {
+			log.info("User is not authorized to retrieve upload file {}.", id);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
 
-				HttpHeaders responseHeaders = new HttpHeaders();
-				responseHeaders.add("content-disposition", "attachment; filename=" + fileName);
+	/**
+	 * GET /:assignmentId/upload/:id/url : get a URL to download a specific uploaded course file directly from storage
+	 *
+	 * @param assignmentId
+	 * @param id
+	 * @return the ResponseEntity with status 200 (OK) and the presigned URL in the body, or with status 404
+	 * (Not Found) if direct transfer is not enabled
+	 */
+	@GetMapping(path="/{assignmentId}/upload/{id}/url")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
+	public ResponseEntity getUploadUrl(@PathVariable final Long assignmentId,
+									   @PathVariable final Long id) {
+		log.debug("GET request to get course upload URL : {}", id);
+		AssignmentDTO assignmentDTO = assignmentService.findOne(assignmentId);
+		FileInformationDTO fileInformationDTO = fileInformationService.findOne(id);
 
-				return new ResponseEntity(out, responseHeaders, HttpStatus.OK);
-			} catch (IOException e) {
-				log.error(e.getMessage());
-				log.error("File entity '{}' could not be converted to a Byte Array.", id);
-				return new ResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR);
-			}
+		if (assignmentDTO == null) throw new AssignmentNotFoundException(assignmentId);
+		if (fileInformationDTO == null) throw new FileInformationNotFoundException(id);
+
+		if (canGetUploadedFile(fileInformationDTO, assignmentDTO)) {
+			String fileName = fileInformationService.getFileNameFor(id);
+			PresignedUrlDTO response = storageService.presignDownload(id, fileName);
+			return ResponseEntity.ok(response);
 		} else {
 			log.info("User is not authorized to retrieve upload file {}.", id);
 			return new ResponseEntity(HttpStatus.FORBIDDEN);
@@ -5,8 +5,12 @@ import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.service.CourseService;
 import org.openlearn.service.StorageService;
 import org.openlearn.web.rest.errors.ItemHasChildrenException;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
@@ -51,15 +55,24 @@ public class CourseResource {
 	/**
 	 * GET  / : get a list of all course, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all courses are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of courses in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all courses");
-		List<CourseDTO> response = courseService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all courses");
+			List<CourseDTO> response = courseService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for courses after : {}", after);
+		Slice<CourseDTO> page = courseService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, CourseDTO::getId, courseService.count(), "/api/courses");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
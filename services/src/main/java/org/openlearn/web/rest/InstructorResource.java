@@ -6,8 +6,12 @@ import org.openlearn.security.SecurityUtils;
 import org.openlearn.service.InstructorService;
 import org.openlearn.service.UserService;
 import org.openlearn.web.rest.errors.AccessDeniedException;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
@@ -55,15 +59,24 @@ public class InstructorResource {
 	/**
 	 * GET  / : get a list of all instructor users, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all instructors are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of instructors in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all instructors");
-		List<InstructorDTO> response = instructorService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all instructors");
+			List<InstructorDTO> response = instructorService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for instructors after : {}", after);
+		Slice<InstructorDTO> page = instructorService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, InstructorDTO::getId, instructorService.count(), "/api/instructors");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
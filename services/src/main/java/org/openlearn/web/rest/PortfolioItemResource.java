@@ -1,29 +1,34 @@
 package org.openlearn.web.rest;
 
+import org.openlearn.dto.DirectUploadDTO;
 import org.openlearn.dto.FileInformationDTO;
 import org.openlearn.dto.PortfolioItemDTO;
+import org.openlearn.dto.PresignedUrlDTO;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
 import org.openlearn.service.FileInformationService;
 import org.openlearn.service.PortfolioItemService;
 import org.openlearn.service.StorageService;
 import org.openlearn.service.UserService;
+import org.openlearn.storage.BlobMetadata;
 import org.openlearn.web.rest.errors.AccessDeniedException;
 import org.openlearn.web.rest.errors.FileInformationNotFoundException;
 import org.openlearn.web.rest.errors.PortfolioItemNotFoundException;
+import org.openlearn.web.rest.util.DownloadUtil;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -74,15 +79,24 @@ public class PortfolioItemResource {
 	/**
 	 * GET  / : get a list of all portfolio item, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all portfolio items are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of portfolio items in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all portfolio items");
-		List<PortfolioItemDTO> response = portfolioItemService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all portfolio items");
+			List<PortfolioItemDTO> response = portfolioItemService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for portfolio items after : {}", after);
+		Slice<PortfolioItemDTO> page = portfolioItemService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, PortfolioItemDTO::getId, portfolioItemService.count(), "/api/portfolio-items");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
@@ -196,6 +210,57 @@ public class PortfolioItemResource {
 		}
 	}
 
+	/**
+	 * POST /:portfolioId/upload/presign : get a URL to upload a portfolio file directly to storage
+	 *
+	 * @param portfolioId
+	 * @param directUploadDTO the file that is going to be uploaded
+	 * @return the ResponseEntity with status 200 (OK) and the presigned URL in the body, or with status 404
+	 * (Not Found) if direct transfer is not enabled
+	 */
+	@PostMapping(path="/{portfolioId}/upload/presign")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
+	public ResponseEntity presignUpload(@PathVariable final Long portfolioId,
+										@RequestBody @Valid final DirectUploadDTO directUploadDTO) {
+		log.debug("POST request to presign upload for portfolio item {} : {}", portfolioId, directUploadDTO);
+		PortfolioItemDTO portfolioItem = portfolioItemService.findOne(portfolioId);
+		if (portfolioItem == null) throw new PortfolioItemNotFoundException(portfolioId);
+
+		if (canUploadFilesToPortfolio(portfolioItem)) {
+			PresignedUrlDTO response = storageService.presignUpload(directUploadDTO, null, portfolioId);
+			return ResponseEntity.ok(response);
+		} else {
+			log.info("User is not authorized to upload files for portfolio item: {}.", portfolioId);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
+
+	/**
+	 * POST /:portfolioId/upload/complete : record a portfolio file that was uploaded directly to storage
+	 *
+	 * @param portfolioId
+	 * @param directUploadDTO the file that was uploaded
+	 * @return the ResponseEntity with status 201 (Created) and the File Information in the body, or with
+	 * status 422 (Unprocessable Entity) if the file was not uploaded
+	 * @throws URISyntaxException if the Location URI syntax is incorrect
+	 */
+	@PostMapping(path="/{portfolioId}/upload/complete")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
+	public ResponseEntity completeUpload(@PathVariable final Long portfolioId,
+										 @RequestBody @Valid final DirectUploadDTO directUploadDTO) throws URISyntaxException {
+		log.debug("POST request to complete upload for portfolio item {} : {}", portfolioId, directUploadDTO);
+		PortfolioItemDTO portfolioItem = portfolioItemService.findOne(portfolioId);
+		if (portfolioItem == null) throw new PortfolioItemNotFoundException(portfolioId);
+
+		if (canUploadFilesToPortfolio(portfolioItem)) {
+			FileInformationDTO response = storageService.completeDirectUpload(directUploadDTO, null, portfolioId);
+			return ResponseEntity.created(new URI(ENDPOINT + response.getId())).body(response);
+		} else {
+			log.info("User is not authorized to upload files for portfolio item: {}.", portfolioId);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
+
 	@GetMapping(path="/{portfolioId}/uploads")
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
 	public ResponseEntity getUploads(@PathVariable final Long portfolioId) {
@@ -215,7 +280,8 @@ public class PortfolioItemResource {
 	@GetMapping(path="/{portfolioId}/upload/{id}")
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
 	public ResponseEntity getUpload(@PathVariable final Long portfolioId,
-									@PathVariable final Long id) {
+									@PathVariable final Long id,
+									final WebRequest request) {
 		log.debug("GET request to get portfolio upload : {}", id);
 		PortfolioItemDTO portfolioItem = portfolioItemService.findOne(portfolioId);
 		FileInformationDTO fileInformationDTO = fileInformationService.findOne(id);
@@ -225,19 +291,30 @@ public class PortfolioItemResource {
 
 		if (canUploadFilesToPortfolio(portfolioItem) && fileInformationDTO.getPortfolioItemId().equals(portfolioId)) {
 			String fileName = fileInformationService.getFileNameFor(id);
-			InputStream response = storageService.getUpload(id);
-			try {
-				byte[] out = org.apache.commons.io.IOUtils.toByteArray(response);
+			BlobMetadata metadata = storageService.getUploadMetadata(id);
+			return DownloadUtil.attachment(request, metadata, fileName,
+				() -> storageService.getUpload(id), (first, last) -> storageService.getUpload(id, first, last));
+		} else {
+			log.info("User is not authorized to retrieve uploaded file {}.", id);
+			return new ResponseEntity(HttpStatus.FORBIDDEN);
+		}
+	}
 
-				HttpHeaders responseHeaders = new HttpHeaders();
-				responseHeaders.add("content-disposition", "attachment; filename=" + fileName);
+	@GetMapping(path="/{portfolioId}/upload/{id}/url")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR, AuthoritiesConstants.STUDENT})
+	public ResponseEntity getUploadUrl(@PathVariable final Long portfolioId,
+									   @PathVariable final Long id) {
+		log.debug("GET request to get portfolio upload URL : {}", id);
+		PortfolioItemDTO portfolioItem = portfolioItemService.findOne(portfolioId);
+		FileInformationDTO fileInformationDTO = fileInformationService.findOne(id);
 
-				return new ResponseEntity(out, responseHeaders, HttpStatus.OK);
-			} catch (IOException e) {
-				log.error(e.getMessage());
-				log.error("File entity '{}' could not be converted to a Byte Array.", id);
-				return new ResponseEntity(HttpStatus.INTERNAL_SERVER_ERROR);
-			}
+		if (portfolioItem == null) throw new PortfolioItemNotFoundException(portfolioId);
+		if (fileInformationDTO == null) throw new FileInformationNotFoundException(id);
+
+		if (canUploadFilesToPortfolio(portfolioItem) && fileInformationDTO.getPortfolioItemId().equals(portfolioId)) {
+			String fileName = fileInformationService.getFileNameFor(id);
+			PresignedUrlDTO response = storageService.presignDownload(id, fileName);
+			return ResponseEntity.ok(response);
 		} else {
 			log.info("User is not authorized to retrieve uploaded file {}.", id);
 			return new ResponseEntity(HttpStatus.FORBIDDEN);
@@ -3,8 +3,12 @@ package org.openlearn.web.rest;
 import org.openlearn.dto.ProgramDTO;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.service.ProgramService;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
@@ -48,15 +52,24 @@ public class ProgramResource {
 	/**
 	 * GET  / : get a list of all program, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all programs are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of programs in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all programs");
-		List<ProgramDTO> response = programService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all programs");
+			List<ProgramDTO> response = programService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for programs after : {}", after);
+		Slice<ProgramDTO> page = programService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, ProgramDTO::getId, programService.count(), "/api/programs");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
@@ -3,8 +3,12 @@ package org.openlearn.web.rest;
 import org.openlearn.dto.SessionDTO;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.service.SessionService;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
@@ -48,15 +52,24 @@ public class SessionResource {
 	/**
 	 * GET  / : get a list of all session, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all sessions are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of sessions in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all sessions");
-		List<SessionDTO> response = sessionService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all sessions");
+			List<SessionDTO> response = sessionService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for sessions after : {}", after);
+		Slice<SessionDTO> page = sessionService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, SessionDTO::getId, sessionService.count(), "/api/sessions");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
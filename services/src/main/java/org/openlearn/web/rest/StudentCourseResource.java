@@ -1,13 +1,19 @@
 package org.openlearn.web.rest;
 
+import org.openlearn.dto.BulkEnrollmentDTO;
+import org.openlearn.dto.BulkEnrollmentResultDTO;
 import org.openlearn.dto.StudentCourseDTO;
 import org.openlearn.security.AuthoritiesConstants;
 import org.openlearn.security.SecurityUtils;
 import org.openlearn.service.StudentCourseService;
 import org.openlearn.service.UserService;
 import org.openlearn.web.rest.errors.AccessDeniedException;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
@@ -79,15 +85,26 @@ public class StudentCourseResource {
 	 * GET  /course/:id : get a list of studentCourse by course
 	 *
 	 * @param id the ID of the course
+	 * @param after the id of the studentCourse the page starts after, when paging
+	 * @param size the size of the page; without it all studentCourses of the course are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of studentCourse with student objects in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping(path = "/course/{id}")
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity getByCourse(@PathVariable final Long id) {
-		log.debug("GET request to get studentCourses by course : {}", id);
-		List<StudentCourseDTO> response = studentCourseService.findByCourse(id);
-		return ResponseEntity.ok(response);
+	public ResponseEntity getByCourse(@PathVariable final Long id,
+									  @RequestParam(required = false, defaultValue = "0") final Long after,
+									  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request to get studentCourses by course : {}", id);
+			List<StudentCourseDTO> response = studentCourseService.findByCourse(id);
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request to get studentCourses by course : {} after : {}", id, after);
+		Slice<StudentCourseDTO> page = studentCourseService.findByCourse(id, after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, StudentCourseDTO::getId,
+			studentCourseService.countByCourse(id), "/api/student-courses/course/" + id);
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
@@ -106,6 +123,22 @@ public class StudentCourseResource {
 		return ResponseEntity.created(new URI(ENDPOINT + response.getId())).body(response);
 	}
 
+	/**
+	 * POST  /bulk : enroll many students in a course
+	 *
+	 * @param bulkEnrollmentDTO the course and the IDs of the students to enroll
+	 * @return the ResponseEntity with status 200 (OK) and the outcome for each student in the body,
+	 *      with status 403 (Forbidden) if the current user may not enroll students in the course,
+	 *      or with status 409 (Conflict) if some of the students were enrolled concurrently
+	 */
+	@PostMapping(path = "/bulk")
+	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
+	public ResponseEntity createBulk(@RequestBody @Valid final BulkEnrollmentDTO bulkEnrollmentDTO) {
+		log.debug("POST request to enroll students : {}", bulkEnrollmentDTO);
+		List<BulkEnrollmentResultDTO> response = studentCourseService.createBulk(bulkEnrollmentDTO);
+		return ResponseEntity.ok(response);
+	}
+
 	/**
 	 * PUT  / : update a studentCourse
 	 *
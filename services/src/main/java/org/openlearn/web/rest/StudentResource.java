@@ -6,11 +6,16 @@ import org.openlearn.security.SecurityUtils;
 import org.openlearn.service.StudentService;
 import org.openlearn.service.UserService;
 import org.openlearn.web.rest.errors.AccessDeniedException;
+import org.openlearn.web.rest.util.PaginationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.Valid;
 import java.net.URI;
@@ -63,23 +68,52 @@ public class StudentResource {
 	/**
 	 * GET  / : get a list of all student users, filtered by organization
 	 *
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all students are returned
 	 * @return the ResponseEntity with status 200 (OK) and a list of students in the body
 	 *      or with ... TODO: Error handling
 	 */
 	@GetMapping
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity get() {
-		log.debug("GET request for all students");
-		List<StudentDTO> response = studentService.findAll();
-		return ResponseEntity.ok(response);
+	public ResponseEntity get(@RequestParam(required = false, defaultValue = "0") final Long after,
+							  @RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for all students");
+			List<StudentDTO> response = studentService.findAll();
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for students after : {}", after);
+		Slice<StudentDTO> page = studentService.findAll(after, PaginationUtil.keysetPageable(size));
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, StudentDTO::getId, studentService.count(), "/api/students");
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
+	/**
+	 * GET  /notInCourse/:id : get a list of the student users not enrolled in a course, filtered by organization
+	 *
+	 * @param id the ID of the course
+	 * @param q the prefix of the first name, last name or login of the students, when paging
+	 * @param after the id the page starts after, when paging
+	 * @param size the size of the page; without it all students not in the course are returned
+	 * @return the ResponseEntity with status 200 (OK) and a list of students in the body
+	 */
 	@GetMapping(path = "/notInCourse/{id}")
 	@Secured({AuthoritiesConstants.ADMIN, AuthoritiesConstants.ORG_ADMIN, AuthoritiesConstants.INSTRUCTOR})
-	public ResponseEntity getStudentNotInCourse(@PathVariable final Long id) {
-		log.debug("GET request for students not in course: " + id.toString());
-		List<StudentDTO> response = studentService.findStudentsNotInCourse(id);
-		return ResponseEntity.ok(response);
+	public ResponseEntity getStudentNotInCourse(@PathVariable final Long id,
+												@RequestParam(required = false) final String q,
+												@RequestParam(required = false, defaultValue = "0") final Long after,
+												@RequestParam(required = false) final Integer size) {
+		if (size == null) {
+			log.debug("GET request for students not in course: " + id.toString());
+			List<StudentDTO> response = studentService.findStudentsNotInCourse(id);
+			return ResponseEntity.ok(response);
+		}
+		log.debug("GET request for students not in course : {} starting with : {} after : {}", id, q, after);
+		Slice<StudentDTO> page = studentService.findStudentsNotInCourse(id, q, after, PaginationUtil.keysetPageable(size));
+		UriComponentsBuilder base = UriComponentsBuilder.fromPath(ENDPOINT + "notInCourse/" + id);
+		if (q != null) base.queryParam("q", q);
+		HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, StudentDTO::getId, base);
+		return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
 	}
 
 	/**
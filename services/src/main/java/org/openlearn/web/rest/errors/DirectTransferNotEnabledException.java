@@ -0,0 +1,12 @@
+package org.openlearn.web.rest.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value= HttpStatus.NOT_FOUND, reason="Direct file transfer is not enabled")
+public class DirectTransferNotEnabledException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public DirectTransferNotEnabledException() { super(); }
+}
@@ -0,0 +1,142 @@
+package org.openlearn.web.rest.util;
+
+import org.openlearn.storage.BlobContent;
+import org.openlearn.storage.BlobMetadata;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Utility class for streaming stored uploads back to the client.
+ */
+public final class DownloadUtil {
+
+	// Lets browsers keep uploads, but only use them after checking they are current; this also keeps the
+	// default no-store header of Spring Security from being added
+	private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+	private DownloadUtil() {
+	}
+
+	/**
+	 * Build a response that streams a stored upload as a file attachment, answering conditional and range
+	 * requests. The content is only opened once it is known to be needed; it is written with a fixed size
+	 * buffer off the request thread and closed once the response is complete.
+	 * <p>
+	 * A single byte range is answered with 206 (Partial Content). Multiple ranges, and ranges with an
+	 * {@code If-Range} that isn't the current entity tag, are answered with the whole file.
+	 *
+	 * @param request the request to answer
+	 * @param metadata the metadata of the upload
+	 * @param fileName the name to offer the file under
+	 * @param content opens the whole upload
+	 * @param range opens a range of bytes of the upload
+	 * @return the ResponseEntity with status 200 (OK) and the streamed content as the body, with status 206
+	 * (Partial Content) and the requested range as the body, with status 304 (Not Modified) if the client's
+	 * copy is current, or with status 416 (Requested Range Not Satisfiable) if the range is outside the file
+	 */
+	public static ResponseEntity<StreamingResponseBody> attachment(final WebRequest request, final BlobMetadata metadata,
+																   final String fileName, final Supplier<BlobContent> content,
+																   final RangeOpener range) {
+		long lastModified = metadata.getLastModified() != null ? metadata.getLastModified().toEpochMilli() : -1;
+		// Also sets the ETag and Last-Modified headers of the response
+		if (request.checkNotModified(metadata.getETag(), lastModified)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+		}
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("content-disposition", "attachment; filename=" + fileName);
+		headers.setCacheControl(REVALIDATE.getHeaderValue());
+		headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+		headers.setContentType(contentType(metadata.getContentType()));
+
+		List<HttpRange> ranges;
+		try {
+			ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+		} catch (IllegalArgumentException e) {
+			ranges = Collections.emptyList();
+		}
+		long length = metadata.getContentLength();
+		if (ranges.size() == 1 && isRangeCurrent(request, metadata)) {
+			long first = ranges.get(0).getRangeStart(length);
+			long last = Math.min(ranges.get(0).getRangeEnd(length), length - 1);
+			if (first >= length || first > last) {
+				headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+				return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+			}
+			headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + length);
+			headers.setContentLength(last - first + 1);
+			return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(stream(range.open(first, last)));
+		}
+
+		headers.setContentLength(length);
+		return ResponseEntity.ok().headers(headers).body(stream(content.get()));
+	}
+
+	/**
+	 * Build a response that streams a file attachment of unknown length, written off the request thread
+	 * by the given body.
+	 *
+	 * @param body writes the content of the file
+	 * @param fileName the name to offer the file under
+	 * @param contentType the media type of the file
+	 * @return the ResponseEntity with status 200 (OK) and the streamed content as the body
+	 */
+	public static ResponseEntity<StreamingResponseBody> attachment(final StreamingResponseBody body, final String fileName,
+																   final MediaType contentType) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("content-disposition", "attachment; filename=" + fileName);
+		headers.setContentType(contentType);
+		return ResponseEntity.ok().headers(headers).body(body);
+	}
+
+	// The content type comes from the client that uploaded the file, so it may not parse
+	private static MediaType contentType(final String contentType) {
+		if (contentType == null) return MediaType.APPLICATION_OCTET_STREAM;
+		try {
+			return MediaType.parseMediaType(contentType);
+		} catch (InvalidMediaTypeException e) {
+			return MediaType.APPLICATION_OCTET_STREAM;
+		}
+	}
+
+	private static boolean isRangeCurrent(final WebRequest request, final BlobMetadata metadata) {
+		String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+		// An If-Range date is treated as stale, so the whole file is sent, which is always allowed
+		return ifRange == null || (metadata.getETag() != null && ifRange.trim().equals(metadata.getETag()));
+	}
+
+	private static StreamingResponseBody stream(final BlobContent content) {
+		return out -> {
+			try {
+				content.writeTo(out);
+			} finally {
+				content.close();
+			}
+		};
+	}
+
+	/**
+	 * Opens a range of bytes of an upload.
+	 */
+	@FunctionalInterface
+	public interface RangeOpener {
+
+		/**
+		 * @param first the offset of the first byte of the range
+		 * @param last the offset of the last byte of the range, inclusive
+		 * @return the opened range
+		 */
+		BlobContent open(long first, long last);
+	}
+}
@@ -1,18 +1,30 @@
 package org.openlearn.web.rest.util;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * Utility class for handling pagination.
  *
  * <p>
  * Pagination uses the same principles as the <a href="https://developer.github.com/v3/#pagination">Github API</a>,
  * and follow <a href="http://tools.ietf.org/html/rfc5988">RFC 5988 (Link header)</a>.
+ *
+ * <p>
+ * Collections that grow large are paged by keyset: a page holds the first {@code size} entities with an id
+ * greater than {@code after}, and the next page starts after the last id of the page.
  */
 public final class PaginationUtil {
 
+	public static final int MAX_KEYSET_SIZE = 500;
+
 	private PaginationUtil() {
 	}
 
@@ -39,4 +51,48 @@ public final class PaginationUtil {
 	private static String generateUri(final String baseUrl, final int page, final int size) {
 		return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
 	}
+
+	/**
+	 * @param size the requested size of a keyset page
+	 * @return the page request for the first {@code size} entities after a key, at most {@link #MAX_KEYSET_SIZE}
+	 */
+	public static Pageable keysetPageable(final int size) {
+		return new PageRequest(0, Math.max(1, Math.min(size, MAX_KEYSET_SIZE)));
+	}
+
+	public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(final Slice<T> slice, final Function<T, Long> id,
+	                                                                  final long totalCount, final String baseUrl) {
+
+		final HttpHeaders headers = generateKeysetPaginationHttpHeaders(slice, id, UriComponentsBuilder.fromUriString(baseUrl));
+		headers.add("X-Total-Count", Long.toString(totalCount));
+		return headers;
+	}
+
+	/**
+	 * Generate the links of a keyset page without a total count, for lists that are too costly to count on every
+	 * request.
+	 *
+	 * @param slice the page
+	 * @param id the id of an entity of the page
+	 * @param base the URI of the page, with any query parameters other than the paging ones
+	 * @return the headers with the next and first links
+	 */
+	public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(final Slice<T> slice, final Function<T, Long> id,
+	                                                                  final UriComponentsBuilder base) {
+
+		final HttpHeaders headers = new HttpHeaders();
+		String link = "";
+		List<T> content = slice.getContent();
+		if (slice.hasNext() && !content.isEmpty()) {
+			long after = id.apply(content.get(content.size() - 1));
+			link = "<" + generateKeysetUri(base, after, slice.getSize()) + ">; rel=\"next\",";
+		}
+		link += "<" + base.cloneBuilder().queryParam("size", slice.getSize()).toUriString() + ">; rel=\"first\"";
+		headers.add(HttpHeaders.LINK, link);
+		return headers;
+	}
+
+	private static String generateKeysetUri(final UriComponentsBuilder base, final long after, final int size) {
+		return base.cloneBuilder().queryParam("after", after).queryParam("size", size).toUriString();
+	}
 }
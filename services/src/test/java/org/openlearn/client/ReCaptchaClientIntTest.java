@@ -0,0 +1,164 @@
+package org.openlearn.client;
+
+import com.codahale.metrics.MetricRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openlearn.config.ApplicationProperties;
+import org.openlearn.domain.recaptcha.ReCaptchaResponse;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Test class for the {@link ReCaptchaClient}, against a stub verification service.
+ */
+public class ReCaptchaClientIntTest {
+
+	private HttpServer server;
+
+	private ExecutorService serverExecutor;
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private volatile long delay;
+
+	private volatile boolean success = true;
+
+	private ApplicationProperties applicationProperties;
+
+	private CacheManager cacheManager;
+
+	private MetricRegistry metricRegistry;
+
+	private ReCaptchaClient client;
+
+	@Before
+	public void setup() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.createContext("/siteverify", exchange -> {
+			requests.incrementAndGet();
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = ("{\"success\":" + success + "}").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			} catch (IOException e) {
+				// The client gave up waiting
+			}
+		});
+		server.start();
+
+		applicationProperties = new ApplicationProperties();
+		ApplicationProperties.Recaptcha recaptcha = applicationProperties.getRecaptcha();
+		recaptcha.setSiteSecret("secret");
+		recaptcha.setVerificationUrl("http://localhost:" + server.getAddress().getPort() + "/siteverify");
+		recaptcha.setReadTimeout(500);
+		recaptcha.setMaxConcurrentVerifications(1);
+		recaptcha.setAcquireTimeout(100);
+
+		cacheManager = Caching.getCachingProvider().getCacheManager();
+		cacheManager.createCache(ReCaptchaClient.CACHE, Eh107Configuration.fromEhcacheCacheConfiguration(
+			CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(100)).build()));
+		metricRegistry = new MetricRegistry();
+		client = new ReCaptchaClient(new RestTemplateBuilder(), applicationProperties, cacheManager, metricRegistry);
+	}
+
+	@After
+	public void tearDown() {
+		client.close();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+		cacheManager.destroyCache(ReCaptchaClient.CACHE);
+	}
+
+	@Test
+	public void verifiesResponse() {
+		assertThat(client.verify("response").isSuccess()).isTrue();
+		assertThat(requests.get()).isEqualTo(1);
+
+		success = false;
+		assertThat(client.verify("other").isSuccess()).isFalse();
+		assertThat(requests.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void acceptsVerifiedResponseOnlyOnceMore() {
+		client.verify("response");
+		assertThat(client.verify("response").isSuccess()).isTrue();
+		assertThat(requests.get()).isEqualTo(1);
+		assertThat(metricRegistry.counter("recaptcha.cached").getCount()).isEqualTo(1);
+
+		// The verification service rejects responses it has seen before
+		success = false;
+		assertThat(client.verify("response").isSuccess()).isFalse();
+		assertThat(requests.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void doesNotRememberFailedVerification() {
+		success = false;
+		client.verify("response");
+		client.verify("response");
+
+		assertThat(requests.get()).isEqualTo(2);
+		assertThat(metricRegistry.counter("recaptcha.cached").getCount()).isZero();
+	}
+
+	@Test
+	public void failsWhenVerificationTimesOut() {
+		delay = 2000;
+		try {
+			client.verify("response");
+			fail("Expected the verification to time out");
+		} catch (ReCaptchaUnavailableException e) {
+			assertThat(metricRegistry.counter("recaptcha.failed").getCount()).isEqualTo(1);
+		}
+
+		// The permit of the timed out verification is released
+		delay = 0;
+		assertThat(client.verify("other").isSuccess()).isTrue();
+	}
+
+	@Test
+	public void rejectsVerificationWhenTooManyAreInProgress() throws Exception {
+		delay = 400;
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<ReCaptchaResponse> first = executor.submit(() -> client.verify("first"));
+			while (requests.get() == 0) Thread.sleep(10);
+
+			try {
+				client.verify("second");
+				fail("Expected the verification to be rejected");
+			} catch (ReCaptchaUnavailableException e) {
+				assertThat(metricRegistry.counter("recaptcha.rejected").getCount()).isEqualTo(1);
+			}
+			assertThat(first.get(5, TimeUnit.SECONDS).isSuccess()).isTrue();
+			assertThat(requests.get()).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package org.openlearn.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the ReplicaRoutingDataSource, routing the transactions of an
+ * OrganizationFilterTransactionManager between a primary and a replica H2 database.
+ *
+ * @see ReplicaRoutingDataSource
+ */
+public class ReplicaRoutingDataSourceIntTest {
+
+    private static final AtomicInteger databases = new AtomicInteger();
+
+    private HikariDataSource primary;
+
+    private HikariDataSource replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate transaction;
+
+    @Before
+    public void setup() {
+        int database = databases.incrementAndGet();
+        primary = pool("primary", "jdbc:h2:mem:primary-" + database + ";DB_CLOSE_DELAY=-1");
+        replica = pool("replica-0", "jdbc:h2:mem:replica-" + database + ";DB_CLOSE_DELAY=-1");
+        createNode(primary, "primary");
+        createNode(replica, "replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_status (seconds_behind_master BIGINT)");
+        setReplicaLag(0L);
+
+        ApplicationProperties.Datasource properties = new ApplicationProperties.Datasource();
+        properties.setMaxLag(10);
+        properties.setLagQuery("SELECT seconds_behind_master FROM replica_status");
+        routingDataSource = new ReplicaRoutingDataSource(primary, Collections.singletonList(replica), properties);
+        routingDataSource.afterPropertiesSet();
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(routingDataSource);
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setPackagesToScan(ReplicaRoutingDataSourceIntTest.class.getPackage().getName());
+        entityManagerFactoryBean.getJpaPropertyMap().put("hibernate.dialect", "io.github.jhipster.domain.util.FixedH2Dialect");
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        OrganizationFilterTransactionManager transactionManager =
+            new OrganizationFilterTransactionManager(entityManagerFactoryBean.getObject());
+        transaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @After
+    public void teardown() {
+        entityManagerFactoryBean.destroy();
+        routingDataSource.close();
+        primary.close();
+    }
+
+    @Test
+    public void readsFromThePrimaryBeforeTheFirstLagCheck() {
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    public void readsFromTheReplica() {
+        routingDataSource.checkLag();
+
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    public void writesToThePrimary() {
+        routingDataSource.checkLag();
+
+        assertThat(currentNode(transaction)).isEqualTo("primary");
+        transaction.execute(status -> entityManager().createNativeQuery("UPDATE node SET name = 'written'").executeUpdate());
+        assertThat(new JdbcTemplate(primary).queryForObject("SELECT name FROM node", String.class)).isEqualTo("written");
+        assertThat(new JdbcTemplate(replica).queryForObject("SELECT name FROM node", String.class)).isEqualTo("replica");
+    }
+
+    @Test
+    public void readsFromThePrimaryWhileTheReplicaLags() {
+        routingDataSource.checkLag();
+        setReplicaLag(60L);
+        routingDataSource.checkLag();
+
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("primary");
+
+        setReplicaLag(5L);
+        routingDataSource.checkLag();
+
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    public void readsFromThePrimaryWhileTheReplicaStoppedReplicating() {
+        routingDataSource.checkLag();
+        setReplicaLag(null);
+        routingDataSource.checkLag();
+
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    public void readsFromThePrimaryWhenTheReplicaRefusesConnections() {
+        routingDataSource.checkLag();
+        replica.close();
+
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("primary");
+        routingDataSource.checkLag();
+        assertThat(currentNode(readOnlyTransaction)).isEqualTo("primary");
+    }
+
+    private String currentNode(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status ->
+            (String) entityManager().createNativeQuery("SELECT name FROM node").getSingleResult());
+    }
+
+    private EntityManager entityManager() {
+        return EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactoryBean.getObject());
+    }
+
+    private void setReplicaLag(Long seconds) {
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.update("DELETE FROM replica_status");
+        replicaTemplate.update("INSERT INTO replica_status VALUES (?)", seconds);
+    }
+
+    private static void createNode(HikariDataSource dataSource, String name) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(10))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+    }
+
+    private static HikariDataSource pool(String name, String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
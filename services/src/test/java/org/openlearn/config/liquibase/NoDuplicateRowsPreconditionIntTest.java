@@ -0,0 +1,70 @@
+package org.openlearn.config.liquibase;
+
+import liquibase.database.Database;
+import liquibase.database.core.H2Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomPreconditionFailedException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Test class for the NoDuplicateRowsPrecondition.
+ *
+ * @see NoDuplicateRowsPrecondition
+ */
+public class NoDuplicateRowsPreconditionIntTest {
+
+    private Connection connection;
+
+    private Database database;
+
+    private NoDuplicateRowsPrecondition precondition;
+
+    @Before
+    public void setup() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:no-duplicate-rows", "", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE student_course (id BIGINT PRIMARY KEY, student_id BIGINT, course_id BIGINT)");
+            statement.execute("INSERT INTO student_course VALUES (1, 1, 1), (2, 1, 2), (3, 2, 1)");
+        }
+        database = new H2Database();
+        database.setConnection(new JdbcConnection(connection));
+        precondition = new NoDuplicateRowsPrecondition();
+        precondition.setTableName("student_course");
+        precondition.setColumnNames("student_id, course_id");
+    }
+
+    @After
+    public void teardown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void passesWithoutDuplicates() throws Exception {
+        precondition.check(database);
+    }
+
+    @Test
+    public void failsListingDuplicates() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO student_course VALUES (4, 1, 2), (5, 1, 2), (6, 2, 1)");
+        }
+
+        try {
+            precondition.check(database);
+            fail("Duplicate rows were not reported");
+        } catch (CustomPreconditionFailedException e) {
+            assertThat(e.getMessage())
+                .startsWith("2 values of (student_id, course_id) occur more than once in student_course")
+                .contains("(1, 2) x3, (2, 1) x2");
+        }
+    }
+}
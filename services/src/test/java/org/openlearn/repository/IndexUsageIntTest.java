@@ -0,0 +1,298 @@
+package org.openlearn.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlearn.domain.*;
+import org.openlearn.security.AuthoritiesConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression tests for the indexes behind the hot repository queries: records the SQL Hibernate generates for
+ * each query, with the parameters bound to it, and checks through EXPLAIN that it is answered from the expected
+ * index and never by a full scan, on the test schema and data of the test liquibase context.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = {RepositoryIntTestConfiguration.class, IndexUsageIntTest.StatementRecorder.class})
+public class IndexUsageIntTest {
+
+	private static final Authority STUDENT = new Authority(AuthoritiesConstants.STUDENT);
+
+	private static final String FULL_SCAN = "tableScan";
+
+	private static final String KEYSET = "PRIMARY_KEY_\\w+: ID > ";
+
+	@Autowired
+	private StatementRecorder recorder;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private AssignmentRepository assignmentRepository;
+
+	@Autowired
+	private CourseRepository courseRepository;
+
+	@Autowired
+	private FileRepository fileRepository;
+
+	@Autowired
+	private OrganizationRepository organizationRepository;
+
+	@Autowired
+	private PortfolioItemRepository portfolioItemRepository;
+
+	@Autowired
+	private ProgramRepository programRepository;
+
+	@Autowired
+	private SessionRepository sessionRepository;
+
+	@Autowired
+	private StudentAssignmentRepository studentAssignmentRepository;
+
+	@Autowired
+	private StudentCourseRepository studentCourseRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Course course;
+
+	private User student;
+
+	@Before
+	public void setup() {
+		course = courseRepository.findOne(1L);
+		student = studentCourseRepository.findByCourse(course).get(0).getStudent();
+	}
+
+	@Test
+	public void findsEnrollmentOfStudentInCourseByUniqueIndex() {
+		assertThat(plans(() -> studentCourseRepository.findByStudentAndCourse(student, course)))
+			.contains("UX_STUDENT_COURSE_STUDENT_COURSE");
+		assertThat(plans(() -> studentCourseRepository.findByCourseAndStudentIdIn(course, Arrays.asList(1L, 2L, 3L))))
+			.containsPattern("(UX_STUDENT_COURSE_STUDENT_COURSE|IDX_STUDENT_COURSE_COURSE_STUDENT)\\w*: ");
+	}
+
+	@Test
+	public void findsEnrollmentsOfCourseByCourseIndex() {
+		assertThat(plans(() -> studentCourseRepository.findRowsByCourseId(course.getId())))
+			.containsPattern("STUDENT_COURSE_\\w+: COURSE_ID = ");
+		assertThat(plans(() -> studentCourseRepository.findRowsByCourseIdAfter(course.getId(), 0L, new PageRequest(0, 20))))
+			.containsPattern("STUDENT_COURSE_\\w+: COURSE_ID = ");
+	}
+
+	@Test
+	public void findsEnrollmentsOfStudentByStudentIndex() {
+		assertThat(plans(() -> studentCourseRepository.findRowsByStudentId(student.getId())))
+			.containsPattern("STUDENT_COURSE_\\w+: STUDENT_ID = ");
+	}
+
+	@Test
+	public void findsPortfolioCoursesOfStudentByPortfolioIndex() {
+		assertThat(plans(() -> studentCourseRepository.findByStudentAndOnPortfolio(student, true)))
+			.contains("IDX_STUDENT_COURSE_STUDENT_ON_PORTFOLIO");
+	}
+
+	@Test
+	public void findsPortfolioAssignmentsOfStudentByPortfolioIndex() {
+		assertThat(plans(() -> studentAssignmentRepository.findByStudentAndAndOnPortfolio(student, true)))
+			.contains("IDX_STUDENT_ASSIGNMENT_STUDENT_ON_PORTFOLIO");
+	}
+
+	@Test
+	public void findsSubmissionsOfAssignmentByAssignmentIndex() {
+		assertThat(plans(() -> studentAssignmentRepository.findRowsByAssignmentId(1L)))
+			.containsPattern("STUDENT_ASSIGNMENT_\\w+: ASSIGNMENT_ID = ");
+	}
+
+	@Test
+	public void findsUploadsOfUserForAssignmentByUploadIndex() {
+		Assignment assignment = assignmentRepository.findOne(1L);
+		assertThat(plans(() -> fileRepository.findByAssignmentAndUploadedByUser(assignment, student)))
+			.contains("IDX_FILE_INFORMATION_ASSIGNMENT_UPLOADED_BY");
+	}
+
+	@Test
+	public void findsUsersOfOrganizationByRoleByAuthorityIndex() {
+		Organization organization = organizationRepository.findOne(1L);
+		assertThat(plans(() -> userRepository.findByOrganizationAndAuthority(organization, STUDENT)))
+			.contains("IDX_USER_ORGANIZATION_AUTHORITY");
+		assertThat(plans(() -> userRepository.findByOrganizationAndAuthorityAndIdGreaterThanOrderByIdAsc(organization,
+			STUDENT, 0L, new PageRequest(0, 20))))
+			.contains("IDX_USER_ORGANIZATION_AUTHORITY");
+		assertThat(plans(() -> userRepository.countByOrganizationAndAuthority(organization, STUDENT)))
+			.contains("IDX_USER_ORGANIZATION_AUTHORITY");
+	}
+
+	@Test
+	public void findsStudentsNotInCourseByAntiJoinOnEnrollmentIndex() {
+		assertThat(plans(() -> userRepository.findRowsNotInCourse(course.getId(), STUDENT)))
+			.containsPattern("(UX_STUDENT_COURSE_STUDENT_COURSE|IDX_STUDENT_COURSE_COURSE_STUDENT)\\w*: ");
+		assertThat(plans(() -> userRepository.findRowsNotInCourse(course.getId(), STUDENT, "jo%", 0L, new PageRequest(0, 20))))
+			.containsPattern("(UX_STUDENT_COURSE_STUDENT_COURSE|IDX_STUDENT_COURSE_COURSE_STUDENT)\\w*: ");
+	}
+
+	@Test
+	public void pagesThroughKeysetByPrimaryKey() {
+		PageRequest page = new PageRequest(0, 20);
+		assertThat(plans(() -> assignmentRepository.findByIdGreaterThanOrderByIdAsc(0L, page))).containsPattern(KEYSET);
+		assertThat(plans(() -> courseRepository.findRowsAfter(0L, page))).containsPattern(KEYSET);
+		assertThat(plans(() -> portfolioItemRepository.findByIdGreaterThanOrderByIdAsc(0L, page))).containsPattern(KEYSET);
+		assertThat(plans(() -> programRepository.findByIdGreaterThanOrderByIdAsc(0L, page))).containsPattern(KEYSET);
+		assertThat(plans(() -> sessionRepository.findByIdGreaterThanOrderByIdAsc(0L, page))).containsPattern(KEYSET);
+	}
+
+	@Test
+	public void pagesThroughUsersOfRoleByAuthorityIndex() {
+		assertThat(plans(() -> userRepository.findByAuthorityAndIdGreaterThanOrderByIdAsc(STUDENT, 0L, new PageRequest(0, 20))))
+			.containsPattern("USER_\\w+: AUTHORITY = ");
+	}
+
+	/**
+	 * Run a repository call and EXPLAIN every query it executed, failing on any full scan.
+	 *
+	 * @return the plans of the queries, one per line
+	 */
+	private String plans(Runnable call) {
+		List<RecordedStatement> statements = recorder.record(call);
+		assertThat(statements).as("queries executed").isNotEmpty();
+		StringBuilder plans = new StringBuilder();
+		for (RecordedStatement statement : statements) {
+			String plan = explain(statement);
+			assertThat(plan).as("plan of " + statement.sql).doesNotContain(FULL_SCAN);
+			plans.append(plan).append('\n');
+		}
+		return plans.toString();
+	}
+
+	private String explain(RecordedStatement statement) {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql)) {
+			for (int i = 0; i < statement.parameters.size(); i++) {
+				explain.setObject(i + 1, statement.parameters.get(i));
+			}
+			try (ResultSet plan = explain.executeQuery()) {
+				plan.next();
+				return plan.getString(1);
+			}
+		} catch (SQLException e) {
+			throw new IllegalStateException("Could not explain " + statement.sql, e);
+		}
+	}
+
+	/**
+	 * A query as it was sent to the database.
+	 */
+	private static class RecordedStatement {
+
+		private final String sql;
+
+		private final List<Object> parameters;
+
+		private RecordedStatement(String sql, Collection<Object> parameters) {
+			this.sql = sql;
+			this.parameters = new ArrayList<>(parameters);
+		}
+	}
+
+	/**
+	 * Wraps the data source to record the queries prepared on its connections, along with their parameters,
+	 * as EXPLAIN only accepts a statement once every parameter is bound.
+	 */
+	@Component
+	static class StatementRecorder implements BeanPostProcessor {
+
+		private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+
+		private volatile boolean recording;
+
+		List<RecordedStatement> record(Runnable call) {
+			statements.clear();
+			recording = true;
+			try {
+				call.run();
+			} finally {
+				recording = false;
+			}
+			return new ArrayList<>(statements);
+		}
+
+		@Override
+		public Object postProcessBeforeInitialization(Object bean, String beanName) {
+			return bean;
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource)) return bean;
+			return proxy(DataSource.class, (method, args) -> {
+				Object result = invoke(bean, method, args);
+				return result instanceof Connection ? recordingConnection((Connection) result) : result;
+			});
+		}
+
+		private Connection recordingConnection(Connection connection) {
+			return proxy(Connection.class, (method, args) -> {
+				Object result = invoke(connection, method, args);
+				if (!recording || !method.getName().equals("prepareStatement")) return result;
+				return recordingStatement((PreparedStatement) result, (String) args[0]);
+			});
+		}
+
+		// Hibernate runs its queries through executeQuery, with the parameters set by index beforehand
+		private PreparedStatement recordingStatement(PreparedStatement statement, String sql) {
+			Map<Integer, Object> parameters = new TreeMap<>();
+			return proxy(PreparedStatement.class, (method, args) -> {
+				if (method.getName().startsWith("set") && args != null && args.length > 1 && args[0] instanceof Integer) {
+					parameters.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+				} else if (method.getName().equals("executeQuery")) {
+					statements.add(new RecordedStatement(sql, parameters.values()));
+				}
+				return invoke(statement, method, args);
+			});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+			return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+				(proxy, method, args) -> handler.invoke(method, args));
+		}
+
+		private interface InvocationHandler {
+			Object invoke(Method method, Object[] args) throws Throwable;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package org.openlearn.repository;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the repository tests: the entities and repositories on the H2 database of the test
+ * configuration, migrated with the changelogs and liquibase contexts of the tests, as DatabaseConfiguration does.
+ */
+@Configuration
+@EntityScan("org.openlearn.domain")
+@EnableJpaRepositories("org.openlearn.repository")
+@EnableConfigurationProperties(LiquibaseProperties.class)
+public class RepositoryIntTestConfiguration {
+
+	@Bean
+	public SpringLiquibase liquibase(DataSource dataSource, LiquibaseProperties liquibaseProperties) {
+		SpringLiquibase liquibase = new SpringLiquibase();
+		liquibase.setDataSource(dataSource);
+		liquibase.setChangeLog("classpath:config/liquibase/master.xml");
+		liquibase.setContexts(liquibaseProperties.getContexts());
+		return liquibase;
+	}
+}
@@ -0,0 +1,59 @@
+package org.openlearn.repository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlearn.domain.Authority;
+import org.openlearn.repository.projection.StudentRow;
+import org.openlearn.security.AuthoritiesConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the queries of the UserRepository, on the test data.
+ *
+ * @see UserRepository
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryIntTestConfiguration.class)
+public class UserRepositoryIntTest {
+
+	private static final Authority STUDENT = new Authority(AuthoritiesConstants.STUDENT);
+
+	// Enrolls John Folkerts and Jody Fenty, among others
+	private static final Long COURSE_ID = 1L;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	public void findsStudentsNotInCourseByPrefixOfMixedCaseNames() {
+		List<String> names = findNotInCourse("jo");
+
+		assertThat(names).contains("John Mester", "Jodi Griffin", "Joseph Gleaton");
+		assertThat(names).doesNotContain("John Folkerts", "Jody Fenty");
+	}
+
+	@Test
+	public void findsStudentsNotInCourseByPrefixOfLastNameOrLogin() {
+		assertThat(findNotInCourse("mest")).containsExactly("John Mester");
+		assertThat(findNotInCourse("jgleat")).containsExactly("Joseph Gleaton");
+	}
+
+	private List<String> findNotInCourse(String prefix) {
+		return userRepository.findRowsNotInCourse(COURSE_ID, STUDENT, prefix + "%", 0L, new PageRequest(0, 500))
+			.getContent().stream()
+			.map(row -> row.getStudentFirstName() + " " + row.getStudentLastName())
+			.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,133 @@
+package org.openlearn.security;
+
+import com.codahale.metrics.MetricRegistry;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link CachingTokenStore}, and its eviction on logout.
+ */
+public class CachingTokenStoreUnitTest {
+
+	private static final String TOKEN = "6bd2a4f1-2b6b-4a3e-8d2e-5e0b8cf6e7a1";
+
+	@Mock
+	private TokenStore delegate;
+
+	@Mock
+	private OAuth2Authentication authentication;
+
+	private CacheManager cacheManager;
+
+	private CachingTokenStore tokenStore;
+
+	private DefaultOAuth2AccessToken accessToken;
+
+	@Before
+	public void setup() {
+		MockitoAnnotations.initMocks(this);
+		cacheManager = Caching.getCachingProvider().getCacheManager();
+		tokenStore = new CachingTokenStore(delegate,
+			cacheManager.createCache(CachingTokenStore.ACCESS_TOKEN_CACHE, configuration(OAuth2AccessToken.class)),
+			cacheManager.createCache(CachingTokenStore.AUTHENTICATION_CACHE, configuration(OAuth2Authentication.class)),
+			cacheManager.createCache(CachingTokenStore.REFRESH_TOKEN_INDEX_CACHE, configuration(String.class)),
+			new MetricRegistry());
+
+		accessToken = new DefaultOAuth2AccessToken(TOKEN);
+		accessToken.setRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+		when(delegate.readAccessToken(TOKEN)).thenReturn(accessToken);
+		when(delegate.readAuthentication(TOKEN)).thenReturn(authentication);
+	}
+
+	@After
+	public void tearDown() {
+		cacheManager.destroyCache(CachingTokenStore.ACCESS_TOKEN_CACHE);
+		cacheManager.destroyCache(CachingTokenStore.AUTHENTICATION_CACHE);
+		cacheManager.destroyCache(CachingTokenStore.REFRESH_TOKEN_INDEX_CACHE);
+	}
+
+	@Test
+	public void readsTokenFromDelegateOnce() {
+		assertThat(tokenStore.readAccessToken(TOKEN)).isSameAs(accessToken);
+		assertThat(tokenStore.readAccessToken(TOKEN)).isSameAs(accessToken);
+		assertThat(tokenStore.readAuthentication(TOKEN)).isSameAs(authentication);
+		assertThat(tokenStore.readAuthentication(TOKEN)).isSameAs(authentication);
+
+		verify(delegate, times(1)).readAccessToken(TOKEN);
+		verify(delegate, times(1)).readAuthentication(TOKEN);
+	}
+
+	@Test
+	public void evictsTokenOnLogout() throws Exception {
+		tokenStore.readAccessToken(TOKEN);
+		tokenStore.readAuthentication(TOKEN);
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Authorization", "Bearer " + TOKEN);
+		new AjaxLogoutSuccessHandler(tokenStore).onLogoutSuccess(request, new MockHttpServletResponse(), null);
+
+		verify(delegate).removeRefreshToken(accessToken.getRefreshToken());
+		verify(delegate).removeAccessToken(accessToken);
+
+		when(delegate.readAccessToken(TOKEN)).thenReturn(null);
+		when(delegate.readAuthentication(TOKEN)).thenReturn(null);
+		assertThat(tokenStore.readAccessToken(TOKEN)).isNull();
+		assertThat(tokenStore.readAuthentication(TOKEN)).isNull();
+	}
+
+	@Test
+	public void evictsTokensIssuedWithRemovedRefreshToken() {
+		tokenStore.readAccessToken(TOKEN);
+
+		tokenStore.removeAccessTokenUsingRefreshToken(accessToken.getRefreshToken());
+		tokenStore.readAccessToken(TOKEN);
+
+		verify(delegate, times(2)).readAccessToken(TOKEN);
+	}
+
+	@Test
+	public void evictsStoredTokenWithRemovedRefreshToken() {
+		tokenStore.storeAccessToken(accessToken, authentication);
+
+		tokenStore.removeAccessTokenUsingRefreshToken(accessToken.getRefreshToken());
+		tokenStore.readAccessToken(TOKEN);
+
+		verify(delegate).readAccessToken(TOKEN);
+		verify(delegate).removeAccessTokenUsingRefreshToken(accessToken.getRefreshToken());
+	}
+
+	@Test
+	public void keepsTokensOfOtherRefreshTokens() {
+		tokenStore.readAccessToken(TOKEN);
+
+		tokenStore.removeAccessTokenUsingRefreshToken(new DefaultOAuth2RefreshToken("other"));
+		tokenStore.readAccessToken(TOKEN);
+
+		verify(delegate, times(1)).readAccessToken(TOKEN);
+	}
+
+	// Like the caches of CacheConfiguration, which keep their entries by reference
+	private static <V> javax.cache.configuration.Configuration<String, V> configuration(Class<V> valueType) {
+		return Eh107Configuration.fromEhcacheCacheConfiguration(
+			CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, valueType, ResourcePoolsBuilder.heap(100)).build());
+	}
+}
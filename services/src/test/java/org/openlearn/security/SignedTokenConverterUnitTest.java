@@ -0,0 +1,101 @@
+package org.openlearn.security;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openlearn.domain.Organization;
+import org.openlearn.domain.User;
+import org.openlearn.repository.UserRepository;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the {@link SignedTokenConverter}.
+ */
+public class SignedTokenConverterUnitTest {
+
+	private static final String SIGNING_KEY = "a signing key that is long enough for HS256";
+
+	@Mock
+	private UserRepository userRepository;
+
+	private SignedTokenConverter converter;
+
+	private String value;
+
+	@Before
+	public void setup() {
+		MockitoAnnotations.initMocks(this);
+		Organization organization = new Organization();
+		organization.setId(7L);
+		User user = new User();
+		user.setLogin("instructor");
+		user.setOrganization(organization);
+		when(userRepository.findOneByLogin("instructor")).thenReturn(user);
+		converter = new SignedTokenConverter(SIGNING_KEY, userRepository);
+
+		DefaultOAuth2AccessToken accessToken = new DefaultOAuth2AccessToken("6bd2a4f1-2b6b-4a3e-8d2e-5e0b8cf6e7a1");
+		accessToken.setExpiration(new Date(System.currentTimeMillis() + 60000));
+		accessToken.setScope(Collections.singleton("read"));
+		OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "openlearnapp", null, true,
+			Collections.singleton("read"), null, null, null, null);
+		OAuth2Authentication authentication = new OAuth2Authentication(request, new UsernamePasswordAuthenticationToken(
+			"instructor", "N/A", AuthorityUtils.createAuthorityList(AuthoritiesConstants.INSTRUCTOR)));
+		value = converter.enhance(accessToken, authentication).getValue();
+	}
+
+	@Test
+	public void readsBackSignedToken() {
+		OAuth2AccessToken token = converter.readAccessToken(value);
+		assertThat(token).isNotNull();
+		assertThat(token.getValue()).isEqualTo(value);
+		assertThat(token.getScope()).containsExactly("read");
+		assertThat(token.isExpired()).isFalse();
+
+		OAuth2Authentication authentication = converter.readAuthentication(value);
+		assertThat(authentication).isNotNull();
+		assertThat(authentication.getName()).isEqualTo("instructor");
+		assertThat(authentication.getOAuth2Request().getClientId()).isEqualTo("openlearnapp");
+		assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities())).containsExactly(AuthoritiesConstants.INSTRUCTOR);
+		assertThat(((Map<?, ?>) authentication.getDetails()).get(SignedTokenConverter.ORGANIZATION_ID)).isEqualTo(7);
+	}
+
+	@Test
+	public void rejectsTamperedClaims() {
+		String[] parts = value.split("\\.");
+		String claims = new String(Base64.getUrlDecoder().decode(parts[1]));
+		String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+			.encodeToString(claims.replace("ROLE_INSTRUCTOR", "ROLE_ADMIN").getBytes()) + "." + parts[2];
+
+		assertThat(claims).contains("ROLE_INSTRUCTOR");
+		assertThat(converter.readAccessToken(tampered)).isNull();
+		assertThat(converter.readAuthentication(tampered)).isNull();
+	}
+
+	@Test
+	public void rejectsTokenSignedWithAnotherKey() {
+		SignedTokenConverter other = new SignedTokenConverter("another signing key of sufficient length", userRepository);
+
+		assertThat(other.readAccessToken(value)).isNull();
+		assertThat(other.readAuthentication(value)).isNull();
+	}
+
+	@Test
+	public void rejectsMalformedToken() {
+		assertThat(converter.readAccessToken("6bd2a4f1-2b6b-4a3e-8d2e-5e0b8cf6e7a1")).isNull();
+		assertThat(converter.readAccessToken(value.substring(0, value.lastIndexOf('.')) + ".!!")).isNull();
+	}
+}
@@ -0,0 +1,140 @@
+package org.openlearn.service;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openlearn.domain.Course;
+import org.openlearn.domain.Organization;
+import org.openlearn.domain.Program;
+import org.openlearn.domain.Session;
+import org.openlearn.domain.User;
+import org.openlearn.repository.CourseRepository;
+import org.openlearn.repository.StudentCourseRepository;
+import org.openlearn.service.CoursePermissionService.CoursePermissions;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the caching of {@link CoursePermissionService}, and its eviction once transactions commit.
+ */
+public class CoursePermissionServiceUnitTest {
+
+	@Mock
+	private CourseRepository courseRepository;
+
+	@Mock
+	private StudentCourseRepository studentCourseRepository;
+
+	@Mock
+	private UserService userService;
+
+	private CacheManager cacheManager;
+
+	private CoursePermissionService coursePermissionService;
+
+	private User instructor;
+
+	private User other;
+
+	@Before
+	public void setup() {
+		MockitoAnnotations.initMocks(this);
+		cacheManager = Caching.getCachingProvider().getCacheManager();
+		cacheManager.createCache(CoursePermissionService.CACHE, Eh107Configuration.fromEhcacheCacheConfiguration(
+			CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+				ResourcePoolsBuilder.heap(100)).build()));
+		coursePermissionService = new CoursePermissionService(courseRepository, studentCourseRepository, userService, cacheManager);
+
+		Organization organization = new Organization();
+		organization.setId(1L);
+		instructor = user(1L, organization);
+		other = user(2L, organization);
+		when(courseRepository.findOne(10L)).thenReturn(course(10L, instructor, organization));
+	}
+
+	@After
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+		cacheManager.destroyCache(CoursePermissionService.CACHE);
+	}
+
+	@Test
+	public void cachesPermissions() {
+		CoursePermissions permissions = coursePermissionService.getPermissions(instructor, 10L);
+		coursePermissionService.getPermissions(instructor, 10L);
+
+		assertThat(permissions.isInstructor()).isTrue();
+		assertThat(permissions.isInOrganization()).isTrue();
+		assertThat(permissions.isEnrolled()).isFalse();
+		verify(courseRepository, times(1)).findOne(10L);
+	}
+
+	@Test
+	public void evictsPermissionsOnlyOnceTransactionCommits() {
+		coursePermissionService.getPermissions(instructor, 10L);
+
+		TransactionSynchronizationManager.initSynchronization();
+		coursePermissionService.evict(instructor.getId(), 10L);
+		coursePermissionService.getPermissions(instructor, 10L);
+		verify(courseRepository, times(1)).findOne(10L);
+
+		TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+		TransactionSynchronizationManager.clearSynchronization();
+		coursePermissionService.getPermissions(instructor, 10L);
+		verify(courseRepository, times(2)).findOne(10L);
+	}
+
+	@Test
+	public void keepsPermissionsWhenTransactionRollsBack() {
+		coursePermissionService.getPermissions(instructor, 10L);
+
+		TransactionSynchronizationManager.initSynchronization();
+		coursePermissionService.evictAll();
+		TransactionSynchronizationManager.clearSynchronization();
+		coursePermissionService.getPermissions(instructor, 10L);
+
+		verify(courseRepository, times(1)).findOne(10L);
+	}
+
+	@Test
+	public void evictsPermissionsOfAllUsersInCourse() {
+		coursePermissionService.getPermissions(instructor, 10L);
+		coursePermissionService.getPermissions(other, 10L);
+
+		coursePermissionService.evictCourse(10L);
+		coursePermissionService.getPermissions(instructor, 10L);
+		coursePermissionService.getPermissions(other, 10L);
+
+		verify(courseRepository, times(4)).findOne(10L);
+	}
+
+	private static User user(Long id, Organization organization) {
+		User user = new User();
+		user.setId(id);
+		user.setOrganization(organization);
+		return user;
+	}
+
+	private static Course course(Long id, User instructor, Organization organization) {
+		Program program = new Program();
+		program.setOrganization(organization);
+		Session session = new Session();
+		session.setProgram(program);
+		Course course = new Course();
+		course.setId(id);
+		course.setSession(session);
+		course.setInstructor(instructor);
+		return course;
+	}
+}
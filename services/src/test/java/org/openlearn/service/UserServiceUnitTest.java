@@ -0,0 +1,161 @@
+package org.openlearn.service;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openlearn.domain.Organization;
+import org.openlearn.domain.User;
+import org.openlearn.repository.UserRepository;
+import org.openlearn.security.UserDetailsCache;
+import org.openlearn.transformer.AccountTransformer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the current user memo of {@link UserService}.
+ */
+public class UserServiceUnitTest {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private AccountTransformer accountTransformer;
+
+	@Mock
+	private UserDetailsCache userDetailsCache;
+
+	private MetricRegistry metricRegistry;
+
+	private UserService userService;
+
+	private ServletRequestAttributes requestAttributes;
+
+	private Organization organization;
+
+	@Before
+	public void setup() {
+		MockitoAnnotations.initMocks(this);
+		metricRegistry = new MetricRegistry();
+		userService = new UserService(accountTransformer, userRepository, userDetailsCache, metricRegistry);
+		organization = new Organization();
+		organization.setId(10L);
+		when(userRepository.findOneByLogin("instructor")).thenReturn(user(1L, "instructor"));
+		when(userRepository.findOneByLogin("student")).thenReturn(user(2L, "student"));
+		when(userRepository.findOne(1L)).thenReturn(user(1L, "instructor"));
+	}
+
+	@After
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void looksUpCurrentUserOncePerRequest() {
+		startRequest();
+		authenticate("instructor");
+
+		User first = userService.getCurrentUser();
+		User second = userService.getCurrentUser();
+		Long organizationId = userService.getCurrentUserOrganizationId();
+
+		assertThat(second.getId()).isEqualTo(first.getId());
+		assertThat(organizationId).isEqualTo(10L);
+		verify(userRepository, times(1)).findOneByLogin("instructor");
+		assertThat(metricRegistry.counter("users.current.lookups").getCount()).isEqualTo(1);
+		assertThat(metricRegistry.counter("users.current.lookups.saved").getCount()).isEqualTo(2);
+
+		requestAttributes.requestCompleted();
+		assertThat(metricRegistry.histogram("users.current.lookups.saved-per-request").getSnapshot().getValues()).containsExactly(2);
+	}
+
+	@Test
+	public void loadsMemoizedCurrentUserByIdInLaterCalls() {
+		startRequest();
+		authenticate("instructor");
+		User first = userService.getCurrentUser();
+
+		User second = userService.getCurrentUser();
+
+		// A later transaction of the request gets its own instance rather than the one loaded first
+		assertThat(second).isNotSameAs(first);
+		verify(userRepository).findOne(1L);
+	}
+
+	@Test
+	public void comparesOrganizationOfCurrentUserById() {
+		startRequest();
+		authenticate("instructor");
+		Organization other = new Organization();
+		other.setId(10L);
+
+		assertThat(userService.isOrganizationOfCurrentUser(other)).isTrue();
+		assertThat(userService.isOrganizationOfCurrentUser(11L)).isFalse();
+		assertThat(userService.isOrganizationOfCurrentUser((Organization) null)).isFalse();
+	}
+
+	@Test
+	public void looksUpCurrentUserAgainInNextRequest() {
+		startRequest();
+		authenticate("instructor");
+		userService.getCurrentUser();
+		requestAttributes.requestCompleted();
+
+		startRequest();
+		userService.getCurrentUser();
+
+		verify(userRepository, times(2)).findOneByLogin("instructor");
+	}
+
+	@Test
+	public void looksUpCurrentUserAgainWhenLoginChanges() {
+		startRequest();
+		authenticate("instructor");
+		User instructor = userService.getCurrentUser();
+
+		authenticate("student");
+		User student = userService.getCurrentUser();
+
+		assertThat(instructor.getLogin()).isEqualTo("instructor");
+		assertThat(student.getLogin()).isEqualTo("student");
+		verify(userRepository).findOneByLogin("student");
+	}
+
+	@Test
+	public void looksUpCurrentUserOnEveryCallOutsideOfRequest() {
+		authenticate("instructor");
+
+		userService.getCurrentUser();
+		userService.getCurrentUser();
+
+		verify(userRepository, times(2)).findOneByLogin("instructor");
+		assertThat(metricRegistry.counter("users.current.lookups.saved").getCount()).isZero();
+	}
+
+	private void startRequest() {
+		requestAttributes = new ServletRequestAttributes(new MockHttpServletRequest());
+		RequestContextHolder.setRequestAttributes(requestAttributes);
+	}
+
+	private static void authenticate(String login) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(login, "password"));
+	}
+
+	private User user(Long id, String login) {
+		User user = new User();
+		user.setId(id);
+		user.setLogin(login);
+		user.setOrganization(organization);
+		return user;
+	}
+}